@@ -1,7 +1,12 @@
 package consultorio.api.controller.agendamento;
 
 import consultorio.api.dto.request.agendamento.AgendamentoRequest;
+import consultorio.api.dto.request.agendamento.lote.AgendamentoLoteRequest;
+import consultorio.api.dto.request.agendamento.serie.AgendamentoSerieRequest;
 import consultorio.api.dto.response.agendamento.AgendamentoResponse;
+import consultorio.api.dto.response.agendamento.calendario.CalendarioResponse;
+import consultorio.api.dto.response.agendamento.lote.AgendamentoLoteResponse;
+import consultorio.api.dto.response.agendamento.serie.AgendamentoSerieResponse;
 import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
 import consultorio.domain.service.agendamento.AgendamentoService;
 import jakarta.validation.Valid;
@@ -10,6 +15,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -27,6 +33,13 @@ public class AgendamentoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(agendamentoService.criar(request));
     }
 
+    @PostMapping("/serie")
+    public ResponseEntity<AgendamentoSerieResponse> criarSerie(@Valid @RequestBody AgendamentoSerieRequest request) {
+        AgendamentoSerieResponse response = agendamentoService.criarSerie(request);
+        HttpStatus status = response.getCriada() ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<AgendamentoResponse> atualizar(@PathVariable Long id,
                                                          @Valid @RequestBody AgendamentoRequest request) {
@@ -66,6 +79,23 @@ public class AgendamentoController {
         return ResponseEntity.ok(agendamentoService.listarPorPeriodo(dataInicio, dataFim));
     }
 
+    /**
+     * Versão enxuta de {@code /periodo} para telas de calendário. Responde 304
+     * quando o cliente envia no If-None-Match o ETag de uma resposta ainda atual.
+     */
+    @GetMapping("/calendario")
+    public ResponseEntity<CalendarioResponse> listarCalendario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Long dentistaId,
+            WebRequest webRequest) {
+        CalendarioResponse response = agendamentoService.listarCalendario(dataInicio, dataFim, dentistaId);
+        if (webRequest.checkNotModified(response.getVersao())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(response.getVersao()).body(response);
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<List<AgendamentoResponse>> listarPorStatus(@PathVariable StatusAgendamento status) {
         return ResponseEntity.ok(agendamentoService.listarPorStatus(status));
@@ -109,6 +139,26 @@ public class AgendamentoController {
         return ResponseEntity.ok(agendamentoService.marcarFalta(id, usuario));
     }
 
+    @PatchMapping("/lote/confirmar")
+    public ResponseEntity<AgendamentoLoteResponse> confirmarEmLote(@Valid @RequestBody AgendamentoLoteRequest request) {
+        return ResponseEntity.ok(agendamentoService.confirmarEmLote(request));
+    }
+
+    @PatchMapping("/lote/concluir")
+    public ResponseEntity<AgendamentoLoteResponse> concluirEmLote(@Valid @RequestBody AgendamentoLoteRequest request) {
+        return ResponseEntity.ok(agendamentoService.concluirEmLote(request));
+    }
+
+    @PatchMapping("/lote/cancelar")
+    public ResponseEntity<AgendamentoLoteResponse> cancelarEmLote(@Valid @RequestBody AgendamentoLoteRequest request) {
+        return ResponseEntity.ok(agendamentoService.cancelarEmLote(request));
+    }
+
+    @PatchMapping("/lote/marcar-falta")
+    public ResponseEntity<AgendamentoLoteResponse> marcarFaltaEmLote(@Valid @RequestBody AgendamentoLoteRequest request) {
+        return ResponseEntity.ok(agendamentoService.marcarFaltaEmLote(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletar(@PathVariable Long id) {
         agendamentoService.deletar(id);
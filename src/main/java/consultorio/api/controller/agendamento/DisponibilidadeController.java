@@ -0,0 +1,44 @@
+package consultorio.api.controller.agendamento;
+
+import consultorio.api.dto.response.agendamento.disponibilidade.HorarioLivreResponse;
+import consultorio.api.dto.response.agendamento.disponibilidade.MatrizDisponibilidadeResponse;
+import consultorio.domain.entity.agendamento.FilaEspera;
+import consultorio.domain.service.agendamento.DisponibilidadeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/agendamentos/disponibilidade")
+@RequiredArgsConstructor
+public class DisponibilidadeController {
+
+    private final DisponibilidadeService disponibilidadeService;
+
+    @GetMapping("/horarios-livres")
+    public ResponseEntity<Page<HorarioLivreResponse>> buscarHorariosLivres(
+            @RequestParam Long dentistaId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Integer duracao,
+            @RequestParam(required = false) FilaEspera.PeriodoPreferencial periodo,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(disponibilidadeService.buscarHorariosLivres(
+                dentistaId, dataInicio, dataFim, duracao, periodo, pageable));
+    }
+
+    @GetMapping("/matriz")
+    public ResponseEntity<MatrizDisponibilidadeResponse> gerarMatriz(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime alteradoDesde) {
+        return ResponseEntity.ok(disponibilidadeService.gerarMatriz(dataInicio, dataFim, alteradoDesde));
+    }
+}
@@ -1,10 +1,12 @@
 package consultorio.api.controller.agendamento;
 
 import consultorio.api.dto.request.agendamento.fila_espera.FilaEsperaRequest;
+import consultorio.api.dto.response.agendamento.fila_espera.ExpiracaoFilaResponse;
 import consultorio.api.dto.response.agendamento.fila_espera.FilaEsperaResponse;
 import consultorio.domain.entity.agendamento.FilaEspera;
 
 import consultorio.domain.service.agendamento.FilaEsperaService;
+import consultorio.infrastructure.scheduling.fila.FilaExpiracaoScheduler;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -21,6 +23,7 @@ import java.util.List;
 public class FilaEsperaController {
 
     private final FilaEsperaService filaEsperaService;
+    private final FilaExpiracaoScheduler filaExpiracaoScheduler;
 
     @PostMapping
     public ResponseEntity<FilaEsperaResponse> criar(@Valid @RequestBody FilaEsperaRequest request) {
@@ -79,11 +82,19 @@ public class FilaEsperaController {
         return ResponseEntity.ok(filaEsperaService.cancelar(id));
     }
 
+    /**
+     * Dispara a expiração em segundo plano e responde com o progresso inicial;
+     * acompanhe por {@code GET /api/fila-espera/expirar}.
+     */
     @PostMapping("/expirar")
-    public ResponseEntity<Void> expirarFilasAntigas(
+    public ResponseEntity<ExpiracaoFilaResponse> expirarFilasAntigas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataLimite) {
-        filaEsperaService.expirarFilasAntigas(dataLimite);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(filaExpiracaoScheduler.iniciar(dataLimite));
+    }
+
+    @GetMapping("/expirar")
+    public ResponseEntity<ExpiracaoFilaResponse> consultarExpiracao() {
+        return ResponseEntity.ok(filaExpiracaoScheduler.consultarProgresso());
     }
 
     @DeleteMapping("/{id}")
@@ -1,30 +1,57 @@
 package consultorio.api.controller.pessoa;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import consultorio.api.dto.request.pessoa.PacienteRequest;
 import consultorio.api.dto.response.pessoa.PacienteResponse;
 import consultorio.api.dto.response.pessoa.PacienteResumoResponse;
+import consultorio.api.exception.BusinessException;
 import consultorio.domain.service.paciente.PacienteService;
+import consultorio.domain.service.paciente.paginacao.CursorPaciente;
+import consultorio.infrastructure.response.PaginaCursorResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/pacientes")
-@RequiredArgsConstructor
 @Tag(name = "Pacientes")
 public class PacienteController {
 
     private final PacienteService pacienteService;
+    private final Executor relatorioExecutor;
+    private final ObjectMapper objectMapper;
+
+    // Exportação: envia ao cliente a cada tantos pacientes (mesmo tamanho do fetch size da consulta)
+    private static final int LOTE_EXPORTACAO = 500;
+
+    public PacienteController(PacienteService pacienteService,
+                              @Qualifier("relatorioExecutor") Executor relatorioExecutor,
+                              ObjectMapper objectMapper) {
+        this.pacienteService = pacienteService;
+        this.relatorioExecutor = relatorioExecutor;
+        this.objectMapper = objectMapper;
+    }
 
     @PostMapping
     @Operation(summary = "Criar paciente")
@@ -89,6 +116,16 @@ public class PacienteController {
         return ResponseEntity.ok(pacienteService.listarTodos(pageable));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar por cursor")
+    public ResponseEntity<PaginaCursorResponse<PacienteResponse>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) CursorPaciente.Ordenacao ordenacao,
+            @RequestParam(defaultValue = "false") boolean total) {
+        return ResponseEntity.ok(pacienteService.listarTodosPorCursor(cursor, tamanho, ordenacao, total));
+    }
+
     @GetMapping("/ativos")
     @Operation(summary = "Listar ativos")
     public ResponseEntity<List<PacienteResponse>> listarAtivos() {
@@ -101,6 +138,16 @@ public class PacienteController {
         return ResponseEntity.ok(pacienteService.listarAtivos(pageable));
     }
 
+    @GetMapping("/ativos/cursor")
+    @Operation(summary = "Listar ativos por cursor")
+    public ResponseEntity<PaginaCursorResponse<PacienteResponse>> listarAtivosPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) CursorPaciente.Ordenacao ordenacao,
+            @RequestParam(defaultValue = "false") boolean total) {
+        return ResponseEntity.ok(pacienteService.listarAtivosPorCursor(cursor, tamanho, ordenacao, total));
+    }
+
     @GetMapping("/inativos")
     @Operation(summary = "Listar inativos")
     public ResponseEntity<List<PacienteResponse>> listarInativos() {
@@ -113,6 +160,21 @@ public class PacienteController {
         return ResponseEntity.ok(pacienteService.listarResumo());
     }
 
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar resumo dos pacientes ativos (NDJSON ou JSON, em streaming)")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato) {
+        boolean ndjson = switch (formato.toLowerCase()) {
+            case "ndjson" -> true;
+            case "json" -> false;
+            default -> throw new BusinessException("Formato de exportação inválido: " + formato);
+        };
+
+        StreamingResponseBody corpo = saida -> escreverResumo(saida, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(corpo);
+    }
+
     @GetMapping("/resumo/paginado")
     @Operation(summary = "Listar resumo paginado")
     public ResponseEntity<Page<PacienteResumoResponse>> listarResumoPaginado(Pageable pageable) {
@@ -131,6 +193,20 @@ public class PacienteController {
         return ResponseEntity.ok(pacienteService.buscarPorNome(nome, pageable));
     }
 
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete por nome, CPF, prontuário ou telefone")
+    public ResponseEntity<List<PacienteResumoResponse>> autocomplete(@RequestParam("q") String termo,
+                                                                     @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(pacienteService.autocomplete(termo, limite));
+    }
+
+    @GetMapping("/buscar/nome/indexado")
+    @Operation(summary = "Buscar por nome (sem acentos, ordenado por relevância)")
+    public ResponseEntity<Page<PacienteResumoResponse>> buscarPorNomeIndexado(@RequestParam String nome,
+                                                                              Pageable pageable) {
+        return ResponseEntity.ok(pacienteService.buscarPorNomeIndexado(nome, pageable));
+    }
+
     @GetMapping("/buscar/convenio/{convenio}")
     @Operation(summary = "Buscar por convênio")
     public ResponseEntity<List<PacienteResponse>> buscarPorConvenio(@PathVariable String convenio) {
@@ -188,6 +264,22 @@ public class PacienteController {
         return ResponseEntity.ok(pacienteService.buscarComFiltros(nome, cpf, convenio, ativo, status, pageable));
     }
 
+    @GetMapping("/filtros/cursor")
+    @Operation(summary = "Buscar com filtros por cursor")
+    public ResponseEntity<PaginaCursorResponse<PacienteResponse>> buscarComFiltrosPorCursor(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) String cpf,
+            @RequestParam(required = false) String convenio,
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(required = false) Boolean status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) CursorPaciente.Ordenacao ordenacao,
+            @RequestParam(defaultValue = "false") boolean total) {
+        return ResponseEntity.ok(pacienteService.buscarComFiltrosPorCursor(nome, cpf, convenio, ativo, status,
+                cursor, tamanho, ordenacao, total));
+    }
+
     @GetMapping("/faixa-etaria")
     @Operation(summary = "Buscar por faixa etária")
     public ResponseEntity<List<PacienteResponse>> buscarPorFaixaEtaria(
@@ -274,23 +366,61 @@ public class PacienteController {
         return ResponseEntity.ok(pacienteService.buscarPorNomeResponsavel(nome));
     }
 
+    /**
+     * Serializa cada resumo assim que ele sai do banco; a memória usada não
+     * depende da quantidade de pacientes.
+     */
+    private void escreverResumo(OutputStream saida, boolean ndjson) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(PacienteResumoResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int[] escritos = {0};
+
+        try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter sequencia = ndjson
+                     ? writer.withRootValueSeparator("\n").writeValues(gerador)
+                     : writer.writeValuesAsArray(gerador)) {
+            pacienteService.percorrerResumo(resumo -> {
+                try {
+                    sequencia.write(resumo);
+                    if (++escritos[0] % LOTE_EXPORTACAO == 0) {
+                        sequencia.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (ndjson && escritos[0] > 0) {
+                gerador.writeRaw('\n');
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Relatórios rodam no executor de relatórios, liberando a thread da requisição
+
     @GetMapping("/relatorios/cadastro")
     @Operation(summary = "Relatório de cadastro")
-    public ResponseEntity<List<PacienteResponse>> gerarRelatorioCadastro(
+    public CompletableFuture<ResponseEntity<List<PacienteResponse>>> gerarRelatorioCadastro(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
-        return ResponseEntity.ok(pacienteService.gerarRelatorioCadastro(inicio, fim));
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(pacienteService.gerarRelatorioCadastro(inicio, fim)), relatorioExecutor);
     }
 
     @GetMapping("/relatorios/naturalidades")
     @Operation(summary = "Relatório de naturalidades")
-    public ResponseEntity<List<Object[]>> gerarRelatorioNaturalidades() {
-        return ResponseEntity.ok(pacienteService.gerarRelatorioNaturalidades());
+    public CompletableFuture<ResponseEntity<List<Object[]>>> gerarRelatorioNaturalidades() {
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(pacienteService.gerarRelatorioNaturalidades()), relatorioExecutor);
     }
 
     @GetMapping("/relatorios/novos-12-meses")
     @Operation(summary = "Relatório novos últimos 12 meses")
-    public ResponseEntity<List<Object[]>> gerarRelatorioNovos12Meses() {
-        return ResponseEntity.ok(pacienteService.gerarRelatorioNovosPacientesUltimos12Meses());
+    public CompletableFuture<ResponseEntity<List<Object[]>>> gerarRelatorioNovos12Meses() {
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(pacienteService.gerarRelatorioNovosPacientesUltimos12Meses()),
+                relatorioExecutor);
     }
-}
\ No newline at end of file
+}
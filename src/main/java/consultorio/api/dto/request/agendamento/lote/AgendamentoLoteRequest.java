@@ -0,0 +1,31 @@
+package consultorio.api.dto.request.agendamento.lote;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendamentoLoteRequest {
+
+    @NotEmpty(message = "Informe ao menos um agendamento")
+    @Size(max = 200, message = "O lote não pode exceder 200 agendamentos")
+    private List<Long> ids;
+
+    @NotBlank(message = "Usuário é obrigatório")
+    private String usuario;
+
+    /**
+     * Obrigatório apenas para cancelamento.
+     */
+    @Size(max = 500, message = "Motivo não pode exceder 500 caracteres")
+    private String motivo;
+}
@@ -0,0 +1,58 @@
+package consultorio.api.dto.request.agendamento.serie;
+
+import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendamentoSerieRequest {
+
+    @NotNull(message = "ID do dentista é obrigatório")
+    private Long dentistaId;
+
+    @NotNull(message = "ID do paciente é obrigatório")
+    private Long pacienteId;
+
+    private TipoProcedimento tipoProcedimento;
+
+    @Size(max = 5000, message = "Observações não podem exceder 5000 caracteres")
+    private String observacoes;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Valor da consulta deve ser positivo")
+    private Double valorConsulta;
+
+    private String criadoPor;
+
+    @Valid
+    @NotEmpty(message = "A série deve conter ao menos uma ocorrência")
+    @Size(max = 52, message = "A série não pode exceder 52 ocorrências")
+    private List<Ocorrencia> ocorrencias;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Ocorrencia {
+
+        @NotNull(message = "Data da consulta é obrigatória")
+        @Future(message = "Data da consulta deve ser futura")
+        private LocalDate dataConsulta;
+
+        @NotNull(message = "Hora de início é obrigatória")
+        private LocalTime horaInicio;
+
+        @NotNull(message = "Hora de fim é obrigatória")
+        private LocalTime horaFim;
+    }
+}
@@ -0,0 +1,51 @@
+package consultorio.api.dto.response.agendamento.calendario;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
+import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Agenda do período com apenas o necessário para desenhar o calendário.
+ * Os detalhes de um agendamento são obtidos em {@code GET /api/agendamentos/{id}}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarioResponse {
+
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private List<Evento> eventos;
+
+    /**
+     * Resumo do conteúdo, usado como ETag.
+     */
+    @JsonIgnore
+    private String versao;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Evento {
+        private Long id;
+        private LocalDate data;
+        private LocalTime horaInicio;
+        private LocalTime horaFim;
+        private StatusAgendamento status;
+        private TipoProcedimento tipoProcedimento;
+        private Long dentistaId;
+        private String nomeDentista;
+        private Long pacienteId;
+        private String nomePaciente;
+    }
+}
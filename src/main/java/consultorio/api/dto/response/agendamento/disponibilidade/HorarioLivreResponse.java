@@ -0,0 +1,24 @@
+package consultorio.api.dto.response.agendamento.disponibilidade;
+
+import consultorio.domain.entity.agendamento.FilaEspera;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorarioLivreResponse {
+
+    private Long dentistaId;
+    private LocalDate data;
+    private LocalTime horaInicio;
+    private LocalTime horaFim;
+    private FilaEspera.PeriodoPreferencial periodo;
+    private Integer vagasRestantesNoDia;
+}
@@ -0,0 +1,47 @@
+package consultorio.api.dto.response.agendamento.disponibilidade;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grade semanal de ocupação. Cada dia de um dentista é uma string com um
+ * caractere por horário de {@code horarios}: '1' ocupado, '0' livre. Dias em
+ * que o dentista atingiu a capacidade diária têm {@code vagasRestantes} zero.
+ *
+ * Em atualizações incrementais somente os dias alterados desde o instante
+ * informado são retornados; {@code geradoEm} deve ser usado na próxima chamada.
+ * A janela é recuada por {@code agendamento.disponibilidade.margem-incremental-segundos},
+ * então um dia pode vir repetido sem ter mudado.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatrizDisponibilidadeResponse {
+
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private List<LocalTime> horarios;
+    private LocalDateTime geradoEm;
+    private Boolean incremental;
+    private List<LinhaDentista> dentistas;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LinhaDentista {
+        private Long dentistaId;
+        private String nomeDentista;
+        private Map<LocalDate, String> ocupacao;
+        private Map<LocalDate, Integer> vagasRestantes;
+    }
+}
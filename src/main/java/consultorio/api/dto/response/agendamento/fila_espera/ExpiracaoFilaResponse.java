@@ -0,0 +1,34 @@
+package consultorio.api.dto.response.agendamento.fila_espera;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progresso da última expiração da fila de espera, manual ou agendada.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiracaoFilaResponse {
+
+    private Situacao situacao;
+    private LocalDate dataLimite;
+    private Integer lotesProcessados;
+    private Integer registrosExpirados;
+    private LocalDateTime iniciadoEm;
+    private LocalDateTime concluidoEm;
+    private String erro;
+
+    public enum Situacao {
+        NAO_EXECUTADA,
+        EM_ANDAMENTO,
+        CONCLUIDA,
+        FALHOU
+    }
+}
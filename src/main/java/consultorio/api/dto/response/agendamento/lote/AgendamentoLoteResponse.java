@@ -0,0 +1,37 @@
+package consultorio.api.dto.response.agendamento.lote;
+
+import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Resultado de uma alteração de status em lote. Os agendamentos válidos são
+ * alterados mesmo que outros do lote sejam recusados; {@code resultados}
+ * traz o desfecho de cada ID na ordem em que foi informado.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendamentoLoteResponse {
+
+    private StatusAgendamento statusNovo;
+    private Integer totalSolicitados;
+    private Integer totalAlterados;
+    private List<Resultado> resultados;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resultado {
+        private Long id;
+        private Boolean alterado;
+        private StatusAgendamento statusAnterior;
+        private String motivo;
+    }
+}
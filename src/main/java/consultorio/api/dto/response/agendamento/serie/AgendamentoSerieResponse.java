@@ -0,0 +1,43 @@
+package consultorio.api.dto.response.agendamento.serie;
+
+import consultorio.api.dto.response.agendamento.AgendamentoResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Resultado de uma série de agendamentos. A série é gravada por completo ou
+ * não é gravada; quando {@code criada} é false, {@code ocorrencias} indica
+ * quais datas conflitam e com quais agendamentos.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendamentoSerieResponse {
+
+    private Boolean criada;
+    private Integer totalOcorrencias;
+    private Integer totalConflitos;
+    private List<OcorrenciaResultado> ocorrencias;
+    private List<AgendamentoResponse> agendamentos;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OcorrenciaResultado {
+        private Integer indice;
+        private LocalDate dataConsulta;
+        private LocalTime horaInicio;
+        private LocalTime horaFim;
+        private Boolean conflito;
+        private String motivo;
+        private List<Long> agendamentosConflitantes;
+    }
+}
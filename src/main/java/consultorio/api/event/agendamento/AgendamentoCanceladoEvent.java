@@ -1,4 +1,31 @@
 package consultorio.api.event.agendamento;
 
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Publicado quando um agendamento que ocupava horário é cancelado. Os
+ * ouvintes recebem o evento somente após o commit do cancelamento.
+ */
+@Getter
+@AllArgsConstructor
 public class AgendamentoCanceladoEvent {
+
+    private final Long agendamentoId;
+    private final Long dentistaId;
+    private final LocalDate dataConsulta;
+    private final LocalTime horaInicio;
+    private final LocalTime horaFim;
+    private final TipoProcedimento tipoProcedimento;
+
+    public static AgendamentoCanceladoEvent de(Agendamento agendamento) {
+        return new AgendamentoCanceladoEvent(agendamento.getId(), agendamento.getDentista().getId(),
+                agendamento.getDataConsulta(), agendamento.getHoraInicio(), agendamento.getHoraFim(),
+                agendamento.getTipoProcedimento());
+    }
 }
@@ -1,4 +1,75 @@
 package consultorio.api.event.listener.agendamento;
 
+import consultorio.api.event.agendamento.AgendamentoCanceladoEvent;
+import consultorio.domain.service.agendamento.FilaEsperaService;
+import consultorio.domain.service.agendamento.fila.FilaEsperaMatchingEngine;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoAgendaIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Oferece à fila de espera o horário liberado por um cancelamento assim que
+ * ele é confirmado, sem aguardar o {@code agendamento.cron.processar-fila}.
+ *
+ * O candidato de maior prioridade compatível com o dentista, o procedimento e
+ * o horário é notificado. Se o horário já foi ocupado de novo, ou já passou,
+ * nada é oferecido.
+ */
+@Slf4j
+@Component
 public class FilaEsperaEventListener {
+
+    private final FilaEsperaMatchingEngine matchingEngine;
+    private final FilaEsperaService filaEsperaService;
+    private final OcupacaoAgendaIndex ocupacaoIndex;
+
+    private final Counter ofertas;
+
+    public FilaEsperaEventListener(FilaEsperaMatchingEngine matchingEngine,
+                                   FilaEsperaService filaEsperaService,
+                                   OcupacaoAgendaIndex ocupacaoIndex,
+                                   MeterRegistry meterRegistry) {
+        this.matchingEngine = matchingEngine;
+        this.filaEsperaService = filaEsperaService;
+        this.ocupacaoIndex = ocupacaoIndex;
+
+        this.ofertas = Counter.builder("fila.espera.ofertas.cancelamento")
+                .description("Registros da fila de espera notificados sobre um horário liberado por cancelamento")
+                .register(meterRegistry);
+    }
+
+    @Async("eventoExecutor")
+    @TransactionalEventListener
+    public void aoCancelarAgendamento(AgendamentoCanceladoEvent evento) {
+        if (LocalDateTime.of(evento.getDataConsulta(), evento.getHoraInicio()).isBefore(LocalDateTime.now())) {
+            return;
+        }
+        if (ocupacaoIndex.possuiConflito(evento.getDentistaId(), evento.getDataConsulta(),
+                evento.getHoraInicio(), evento.getHoraFim())) {
+            return;
+        }
+
+        FilaEsperaMatchingEngine.Vaga vaga = new FilaEsperaMatchingEngine.Vaga(evento.getDentistaId(),
+                evento.getDataConsulta(), evento.getHoraInicio(), evento.getHoraFim(),
+                evento.getTipoProcedimento(), 1);
+
+        for (FilaEsperaMatchingEngine.Oferta oferta : matchingEngine.combinarDia(vaga.data(), List.of(vaga))) {
+            Long filaId = oferta.candidato().filaId();
+            try {
+                filaEsperaService.notificar(filaId);
+                ofertas.increment();
+                log.info("Horário liberado pelo agendamento {} oferecido à fila {}", evento.getAgendamentoId(), filaId);
+            } catch (IllegalStateException | EntityNotFoundException e) {
+                log.debug("Fila {} ignorada: {}", filaId, e.getMessage());
+            }
+        }
+    }
 }
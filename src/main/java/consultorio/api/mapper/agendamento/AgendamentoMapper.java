@@ -1,6 +1,7 @@
 package consultorio.api.mapper.agendamento;
 
 import consultorio.api.dto.request.agendamento.AgendamentoRequest;
+import consultorio.api.dto.request.agendamento.serie.AgendamentoSerieRequest;
 import consultorio.api.dto.response.agendamento.AgendamentoResponse;
 import consultorio.domain.entity.agendamento.Agendamento;
 import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
@@ -27,6 +28,23 @@ public class AgendamentoMapper {
         return agendamento;
     }
 
+    public Agendamento toEntity(AgendamentoSerieRequest request, AgendamentoSerieRequest.Ocorrencia ocorrencia,
+                                Dentista dentista, Paciente paciente) {
+        Agendamento agendamento = new Agendamento();
+        agendamento.setDentista(dentista);
+        agendamento.setPaciente(paciente);
+        agendamento.setDataConsulta(ocorrencia.getDataConsulta());
+        agendamento.setHoraInicio(ocorrencia.getHoraInicio());
+        agendamento.setHoraFim(ocorrencia.getHoraFim());
+        agendamento.setStatus(StatusAgendamento.AGENDADO);
+        agendamento.setTipoProcedimento(request.getTipoProcedimento());
+        agendamento.setObservacoes(request.getObservacoes());
+        agendamento.setValorConsulta(request.getValorConsulta());
+        agendamento.setCriadoPor(request.getCriadoPor());
+        agendamento.setAtualizadoPor(request.getCriadoPor());
+        return agendamento;
+    }
+
     public AgendamentoResponse toResponse(Agendamento agendamento) {
         AgendamentoResponse response = new AgendamentoResponse();
         response.setId(agendamento.getId());
@@ -0,0 +1,71 @@
+package consultorio.api.mapper.pessoa;
+
+import consultorio.api.dto.request.pessoa.embedded.paciente.*;
+import consultorio.api.dto.response.pessoa.embeddable.paciente.*;
+import consultorio.domain.entity.pessoa.embedded.paciente.*;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValueCheckStrategy;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+/**
+ * Conversões dos componentes do paciente (dados básicos, responsável,
+ * anamnese, convênio, inspeção bucal e questionário de saúde), geradas pelo
+ * MapStruct em tempo de compilação.
+ *
+ * Valores nulos na origem nunca sobrescrevem o destino, como fazia o
+ * ModelMapper com skipNull: no cadastro ficam os valores padrão do
+ * componente, na atualização ficam os valores atuais.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
+        nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS,
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+public interface PacienteComponentesMapper {
+
+    // ==================== REQUEST -> ENTITY ====================
+
+    DadosBasicos toEntity(DadosBasicosRequest request);
+
+    Responsavel toEntity(ResponsavelRequest request);
+
+    Anamnese toEntity(AnamneseRequest request);
+
+    Convenio toEntity(ConvenioRequest request);
+
+    InspecaoBucal toEntity(InspecaoBucalRequest request);
+
+    QuestionarioSaude toEntity(QuestionarioSaudeRequest request);
+
+    // ==================== ENTITY -> RESPONSE ====================
+
+    DadosBasicosResponse toResponse(DadosBasicos entity);
+
+    // Os CPFs formatados são preenchidos pelo PacienteMapper
+    @Mapping(target = "cpfFormatado", ignore = true)
+    @Mapping(target = "cpfConjugeFormatado", ignore = true)
+    ResponsavelResponse toResponse(Responsavel entity);
+
+    AnamneseResponse toResponse(Anamnese entity);
+
+    ConvenioResponse toResponse(Convenio entity);
+
+    InspecaoBucalResponse toResponse(InspecaoBucal entity);
+
+    QuestionarioSaudeResponse toResponse(QuestionarioSaude entity);
+
+    // ==================== UPDATE ENTITY ====================
+
+    void updateEntity(DadosBasicosRequest request, @MappingTarget DadosBasicos entity);
+
+    void updateEntity(ResponsavelRequest request, @MappingTarget Responsavel entity);
+
+    void updateEntity(AnamneseRequest request, @MappingTarget Anamnese entity);
+
+    void updateEntity(ConvenioRequest request, @MappingTarget Convenio entity);
+
+    void updateEntity(InspecaoBucalRequest request, @MappingTarget InspecaoBucal entity);
+
+    void updateEntity(QuestionarioSaudeRequest request, @MappingTarget QuestionarioSaude entity);
+}
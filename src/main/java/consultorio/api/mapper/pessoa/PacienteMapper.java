@@ -5,9 +5,10 @@ import consultorio.api.dto.response.pessoa.PacienteResponse;
 import consultorio.api.dto.response.pessoa.PacienteResumoResponse;
 import consultorio.api.dto.response.pessoa.embeddable.paciente.*;
 import consultorio.domain.entity.pessoa.Paciente;
+import consultorio.domain.service.paciente.autocomplete.PacienteAutocompleteIndex;
 import consultorio.domain.entity.pessoa.embedded.paciente.*;
+import consultorio.domain.repository.pessoa.PacienteRepository;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -18,7 +19,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PacienteMapper {
 
-    private final ModelMapper modelMapper;
+    private final PacienteComponentesMapper componentesMapper;
 
     // ==================== REQUEST -> ENTITY ====================
 
@@ -27,32 +28,32 @@ public class PacienteMapper {
 
         // Mapear DadosBasicos (obrigatório)
         if (request.getDadosBasicos() != null) {
-            paciente.setDadosBasicos(modelMapper.map(request.getDadosBasicos(), DadosBasicos.class));
+            paciente.setDadosBasicos(componentesMapper.toEntity(request.getDadosBasicos()));
         }
 
         // Mapear Responsavel (opcional)
         if (request.getResponsavel() != null) {
-            paciente.setResponsavel(modelMapper.map(request.getResponsavel(), Responsavel.class));
+            paciente.setResponsavel(componentesMapper.toEntity(request.getResponsavel()));
         }
 
         // Mapear Anamnese (opcional)
         if (request.getAnamnese() != null) {
-            paciente.setAnamnese(modelMapper.map(request.getAnamnese(), Anamnese.class));
+            paciente.setAnamnese(componentesMapper.toEntity(request.getAnamnese()));
         }
 
         // Mapear Convenio (opcional)
         if (request.getConvenio() != null) {
-            paciente.setConvenio(modelMapper.map(request.getConvenio(), Convenio.class));
+            paciente.setConvenio(componentesMapper.toEntity(request.getConvenio()));
         }
 
         // Mapear InspecaoBucal (opcional)
         if (request.getInspecaoBucal() != null) {
-            paciente.setInspecaoBucal(modelMapper.map(request.getInspecaoBucal(), InspecaoBucal.class));
+            paciente.setInspecaoBucal(componentesMapper.toEntity(request.getInspecaoBucal()));
         }
 
         // Mapear QuestionarioSaude (opcional)
         if (request.getQuestionarioSaude() != null) {
-            paciente.setQuestionarioSaude(modelMapper.map(request.getQuestionarioSaude(), QuestionarioSaude.class));
+            paciente.setQuestionarioSaude(componentesMapper.toEntity(request.getQuestionarioSaude()));
         }
 
         // Mapear observacoes
@@ -78,7 +79,7 @@ public class PacienteMapper {
 
         // Mapear DadosBasicos
         if (entity.getDadosBasicos() != null) {
-            DadosBasicosResponse dadosBasicosResponse = modelMapper.map(entity.getDadosBasicos(), DadosBasicosResponse.class);
+            DadosBasicosResponse dadosBasicosResponse = componentesMapper.toResponse(entity.getDadosBasicos());
 
             // Formatar CPF se existir
             if (dadosBasicosResponse.getCpf() != null && dadosBasicosResponse.getCpf().length() == 11) {
@@ -97,7 +98,7 @@ public class PacienteMapper {
 
         // Mapear Responsavel
         if (entity.getResponsavel() != null) {
-            ResponsavelResponse responsavelResponse = modelMapper.map(entity.getResponsavel(), ResponsavelResponse.class);
+            ResponsavelResponse responsavelResponse = componentesMapper.toResponse(entity.getResponsavel());
 
             // Formatar CPFs do responsável
             if (responsavelResponse.getCpf() != null && responsavelResponse.getCpf().length() == 11) {
@@ -113,19 +114,19 @@ public class PacienteMapper {
 
         // Mapear outros componentes
         if (entity.getAnamnese() != null) {
-            response.setAnamnese(modelMapper.map(entity.getAnamnese(), AnamneseResponse.class));
+            response.setAnamnese(componentesMapper.toResponse(entity.getAnamnese()));
         }
 
         if (entity.getConvenio() != null) {
-            response.setConvenio(modelMapper.map(entity.getConvenio(), ConvenioResponse.class));
+            response.setConvenio(componentesMapper.toResponse(entity.getConvenio()));
         }
 
         if (entity.getInspecaoBucal() != null) {
-            response.setInspecaoBucal(modelMapper.map(entity.getInspecaoBucal(), InspecaoBucalResponse.class));
+            response.setInspecaoBucal(componentesMapper.toResponse(entity.getInspecaoBucal()));
         }
 
         if (entity.getQuestionarioSaude() != null) {
-            response.setQuestionarioSaude(modelMapper.map(entity.getQuestionarioSaude(), QuestionarioSaudeResponse.class));
+            response.setQuestionarioSaude(componentesMapper.toResponse(entity.getQuestionarioSaude()));
         }
 
         return response;
@@ -172,6 +173,38 @@ public class PacienteMapper {
         return response;
     }
 
+    public PacienteResumoResponse toResumoResponse(PacienteAutocompleteIndex.Resumo resumo) {
+        PacienteResumoResponse response = new PacienteResumoResponse();
+        response.setId(resumo.id());
+        response.setAtivo(true);
+        response.setProntuarioNumero(resumo.prontuarioNumero());
+        response.setNome(resumo.nome());
+        response.setTelefone(resumo.telefone());
+        response.setCpf(resumo.cpf());
+        response.setDataNascimento(resumo.dataNascimento());
+        response.setIdade(calcularIdade(resumo.dataNascimento()));
+        response.setStatus(resumo.status());
+        response.setConvenio(resumo.convenio());
+        response.setNumeroInscricaoConvenio(resumo.numeroInscricaoConvenio());
+        return response;
+    }
+
+    public PacienteResumoResponse toResumoResponse(PacienteRepository.PacienteAutocompleteProjection projecao) {
+        PacienteResumoResponse response = new PacienteResumoResponse();
+        response.setId(projecao.getId());
+        response.setAtivo(true);
+        response.setProntuarioNumero(projecao.getProntuarioNumero());
+        response.setNome(projecao.getNome());
+        response.setTelefone(projecao.getTelefone());
+        response.setCpf(projecao.getCpf());
+        response.setDataNascimento(projecao.getDataNascimento());
+        response.setIdade(calcularIdade(projecao.getDataNascimento()));
+        response.setStatus(projecao.getStatus());
+        response.setConvenio(projecao.getConvenio());
+        response.setNumeroInscricaoConvenio(projecao.getNumeroInscricaoConvenio());
+        return response;
+    }
+
     public List<PacienteResumoResponse> toResumoResponseList(List<Paciente> entities) {
         return entities.stream()
                 .map(this::toResumoResponse)
@@ -183,7 +216,7 @@ public class PacienteMapper {
     public void updateEntityFromRequest(PacienteRequest request, Paciente entity) {
         // Atualizar DadosBasicos (parcialmente)
         if (request.getDadosBasicos() != null && entity.getDadosBasicos() != null) {
-            modelMapper.map(request.getDadosBasicos(), entity.getDadosBasicos());
+            componentesMapper.updateEntity(request.getDadosBasicos(), entity.getDadosBasicos());
         }
 
         // Atualizar Responsavel
@@ -191,7 +224,7 @@ public class PacienteMapper {
             if (entity.getResponsavel() == null) {
                 entity.setResponsavel(new Responsavel());
             }
-            modelMapper.map(request.getResponsavel(), entity.getResponsavel());
+            componentesMapper.updateEntity(request.getResponsavel(), entity.getResponsavel());
         }
 
         // Atualizar Anamnese
@@ -199,7 +232,7 @@ public class PacienteMapper {
             if (entity.getAnamnese() == null) {
                 entity.setAnamnese(new Anamnese());
             }
-            modelMapper.map(request.getAnamnese(), entity.getAnamnese());
+            componentesMapper.updateEntity(request.getAnamnese(), entity.getAnamnese());
         }
 
         // Atualizar Convenio
@@ -207,7 +240,7 @@ public class PacienteMapper {
             if (entity.getConvenio() == null) {
                 entity.setConvenio(new Convenio());
             }
-            modelMapper.map(request.getConvenio(), entity.getConvenio());
+            componentesMapper.updateEntity(request.getConvenio(), entity.getConvenio());
         }
 
         // Atualizar InspecaoBucal
@@ -215,7 +248,7 @@ public class PacienteMapper {
             if (entity.getInspecaoBucal() == null) {
                 entity.setInspecaoBucal(new InspecaoBucal());
             }
-            modelMapper.map(request.getInspecaoBucal(), entity.getInspecaoBucal());
+            componentesMapper.updateEntity(request.getInspecaoBucal(), entity.getInspecaoBucal());
         }
 
         // Atualizar QuestionarioSaude
@@ -223,7 +256,7 @@ public class PacienteMapper {
             if (entity.getQuestionarioSaude() == null) {
                 entity.setQuestionarioSaude(new QuestionarioSaude());
             }
-            modelMapper.map(request.getQuestionarioSaude(), entity.getQuestionarioSaude());
+            componentesMapper.updateEntity(request.getQuestionarioSaude(), entity.getQuestionarioSaude());
         }
 
         // Atualizar observações (se fornecida)
@@ -0,0 +1,48 @@
+package consultorio.domain.entity.agendamento;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Dia da agenda de um dentista que perdeu um agendamento: o dia de origem de
+ * uma remarcação ou o dia de um agendamento excluído.
+ *
+ * A matriz incremental encontra os dias alterados pelo {@code atualizadoEm}
+ * dos agendamentos, que só aponta para o dia atual de cada um; estes registros
+ * cobrem a célula liberada. São descartados após
+ * {@code agendamento.disponibilidade.retencao-alteracoes-horas}.
+ */
+@Entity
+@Table(name = "agenda_dia_alterado", indexes = {
+        @Index(name = "idx_dia_alterado_alterado_em", columnList = "alterado_em")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AgendaDiaAlterado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "agenda_dia_alterado_seq")
+    @SequenceGenerator(name = "agenda_dia_alterado_seq", sequenceName = "agenda_dia_alterado_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "dentista_id", nullable = false)
+    private Long dentistaId;
+
+    @Column(nullable = false)
+    private LocalDate data;
+
+    @Column(name = "alterado_em", nullable = false)
+    private LocalDateTime alteradoEm;
+
+    public AgendaDiaAlterado(Long dentistaId, LocalDate data) {
+        this.dentistaId = dentistaId;
+        this.data = data;
+        this.alteradoEm = LocalDateTime.now();
+    }
+}
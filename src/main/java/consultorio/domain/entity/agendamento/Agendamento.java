@@ -28,7 +28,8 @@ import java.time.LocalTime;
 public class Agendamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "agendamentos_seq")
+    @SequenceGenerator(name = "agendamentos_seq", sequenceName = "agendamentos_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -142,6 +143,10 @@ public class Agendamento {
         return status.podeSerCancelado() && ativo;
     }
 
+    public boolean isOcupaHorario() {
+        return status.ocupaHorario() && Boolean.TRUE.equals(ativo);
+    }
+
     public boolean isFinalizado() {
         return status.isFinalizado();
     }
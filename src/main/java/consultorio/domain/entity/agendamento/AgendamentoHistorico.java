@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "agendamento_historico", indexes = {
         @Index(name = "idx_historico_agendamento", columnList = "agendamento_id"),
-        @Index(name = "idx_historico_data", columnList = "data_hora")
+        @Index(name = "idx_historico_data", columnList = "data_hora"),
+        @Index(name = "uk_historico_evento", columnList = "evento_id", unique = true)
 })
 @Getter
 @Setter
@@ -21,9 +22,17 @@ import java.time.LocalDateTime;
 public class AgendamentoHistorico {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "agendamento_historico_seq")
+    @SequenceGenerator(name = "agendamento_historico_seq", sequenceName = "agendamento_historico_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Identificador do registro gerado na origem, antes da gravação como
+     * pendente; único, impede que um registro seja descarregado duas vezes.
+     */
+    @Column(name = "evento_id", length = 36)
+    private String eventoId;
+
     @Column(name = "agendamento_id", nullable = false)
     private Long agendamentoId;
 
@@ -0,0 +1,50 @@
+package consultorio.domain.entity.agendamento;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Quantidade de agendamentos que ocupam a agenda de um dentista em um dia.
+ *
+ * Mantida junto com cada marcação, cancelamento ou falta, permite aplicar
+ * {@code agendamento.capacidade.maxima-por-dia} sem contar os agendamentos.
+ */
+@Entity
+@Table(name = "agenda_capacidade", indexes = {
+        @Index(name = "idx_capacidade_data", columnList = "data")
+})
+@IdClass(CapacidadeDiaria.Chave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacidadeDiaria {
+
+    @Id
+    @Column(name = "dentista_id", nullable = false)
+    private Long dentistaId;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate data;
+
+    @Column(nullable = false)
+    private Integer ocupados = 0;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+        private Long dentistaId;
+        private LocalDate data;
+    }
+}
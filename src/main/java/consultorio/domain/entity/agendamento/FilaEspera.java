@@ -27,7 +27,8 @@ import java.time.LocalTime;
 public class FilaEspera {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fila_espera_seq")
+    @SequenceGenerator(name = "fila_espera_seq", sequenceName = "fila_espera_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
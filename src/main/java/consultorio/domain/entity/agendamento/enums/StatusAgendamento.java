@@ -29,4 +29,22 @@ public enum StatusAgendamento {
     public boolean podeSerCancelado() {
         return this != CONCLUIDO && this != FALTOU;
     }
-}
\ No newline at end of file
+
+    public boolean ocupaHorario() {
+        return this != CANCELADO && this != FALTOU;
+    }
+
+    /**
+     * Regras de transição aplicadas às alterações de status em lote.
+     */
+    public boolean podeMudarPara(StatusAgendamento destino) {
+        return switch (destino) {
+            case CONFIRMADO -> this == AGENDADO;
+            case EM_ATENDIMENTO -> this == AGENDADO || this == CONFIRMADO;
+            case CONCLUIDO -> this == AGENDADO || this == CONFIRMADO || this == EM_ATENDIMENTO;
+            case CANCELADO -> podeSerCancelado() && this != CANCELADO;
+            case FALTOU -> this == AGENDADO || this == CONFIRMADO;
+            case AGENDADO -> false;
+        };
+    }
+}
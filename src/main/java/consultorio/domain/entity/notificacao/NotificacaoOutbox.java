@@ -0,0 +1,93 @@
+package consultorio.domain.entity.notificacao;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificação aguardando envio (outbox transacional).
+ *
+ * Gravada na mesma transação da alteração que a originou e enviada depois pelo
+ * {@code NotificacaoOutboxRelay}; nenhuma requisição espera pelo SMTP ou pelo
+ * gateway de SMS.
+ */
+@Entity
+@Table(name = "notificacao_outbox", indexes = {
+        @Index(name = "idx_outbox_pendentes", columnList = "status, proxima_tentativa_em"),
+        @Index(name = "idx_outbox_agendamento", columnList = "agendamento_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificacaoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notificacao_outbox_seq")
+    @SequenceGenerator(name = "notificacao_outbox_seq", sequenceName = "notificacao_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Canal canal;
+
+    @Column(nullable = false, length = 150)
+    private String destinatario;
+
+    @Column(length = 200)
+    private String assunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String corpo;
+
+    @Column(name = "agendamento_id")
+    private Long agendamentoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status = Status.PENDENTE;
+
+    @Column(nullable = false)
+    private Integer tentativas = 0;
+
+    @Column(name = "proxima_tentativa_em", nullable = false)
+    private LocalDateTime proximaTentativaEm;
+
+    @Column(name = "ultimo_erro", length = 500)
+    private String ultimoErro;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "enviado_em")
+    private LocalDateTime enviadoEm;
+
+    public enum Canal {
+        EMAIL,
+        SMS
+    }
+
+    public enum Status {
+        PENDENTE,
+        ENVIADA,
+        FALHOU
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        criadoEm = LocalDateTime.now();
+        if (proximaTentativaEm == null) {
+            proximaTentativaEm = criadoEm;
+        }
+        if (status == null) {
+            status = Status.PENDENTE;
+        }
+        if (tentativas == null) {
+            tentativas = 0;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package consultorio.domain.entity.pessoa;
 import consultorio.domain.entity.pessoa.embedded.paciente.*;
 import consultorio.domain.entity.tratamento.EvolucaoTratamento;
 import consultorio.domain.entity.tratamento.PlanoDental;
+import consultorio.shared.util.StringUtil;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,6 +32,7 @@ import java.util.List;
         @Index(name = "idx_paciente_cpf", columnList = "cpf", unique = true),
         @Index(name = "idx_paciente_telefone", columnList = "telefone_paciente"),
         @Index(name = "idx_paciente_nome", columnList = "nome_paciente"),
+        @Index(name = "idx_paciente_nome_id", columnList = "nome_paciente, id_paciente"),
         @Index(name = "idx_paciente_status", columnList = "status_paciente"),
         @Index(name = "idx_paciente_ativo", columnList = "ativo")
 })
@@ -41,7 +44,8 @@ import java.util.List;
 public class Paciente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pacientes_seq")
+    @SequenceGenerator(name = "pacientes_seq", sequenceName = "pacientes_seq", allocationSize = 50)
     @Column(name = "id_paciente")
     private Long id;
 
@@ -76,6 +80,11 @@ public class Paciente {
     @Column(name = "observacoes", columnDefinition = "TEXT")
     private String observacoes;
 
+    // Nome sem acentos e em minúsculas, mantido a cada gravação para a busca indexada
+    @Setter(AccessLevel.NONE)
+    @Column(name = "nome_busca", length = 100)
+    private String nomeBusca;
+
     // Timestamps
     @CreationTimestamp
     @Column(name = "criado_em", nullable = false, updatable = false)
@@ -92,6 +101,12 @@ public class Paciente {
     @OneToMany(mappedBy = "paciente", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<EvolucaoTratamento> evolucoesTratamento = new ArrayList<>();
 
+    @PrePersist
+    @PreUpdate
+    protected void atualizarNomeBusca() {
+        nomeBusca = StringUtil.normalizarParaBusca(getNome());
+    }
+
     /**
      * Desativa o paciente no sistema (soft delete).
      */
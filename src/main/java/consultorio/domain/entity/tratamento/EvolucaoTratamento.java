@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class EvolucaoTratamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evolucoes_tratamento_seq")
+    @SequenceGenerator(name = "evolucoes_tratamento_seq", sequenceName = "evolucoes_tratamento_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
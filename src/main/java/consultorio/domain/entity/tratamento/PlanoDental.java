@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class PlanoDental {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "plano_dental_seq")
+    @SequenceGenerator(name = "plano_dental_seq", sequenceName = "plano_dental_seq", allocationSize = 50)
     @Column(name = "id_plano")
     private Long id;
 
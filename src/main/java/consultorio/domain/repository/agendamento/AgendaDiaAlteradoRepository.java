@@ -0,0 +1,31 @@
+package consultorio.domain.repository.agendamento;
+
+import consultorio.domain.entity.agendamento.AgendaDiaAlterado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AgendaDiaAlteradoRepository extends JpaRepository<AgendaDiaAlterado, Long> {
+
+    /**
+     * Dias liberados no período desde o instante informado; complementa
+     * {@link AgendamentoRepository#findDiasAlteradosDesde}.
+     */
+    @Query("SELECT DISTINCT d.dentistaId as dentistaId, d.data as dataConsulta FROM AgendaDiaAlterado d " +
+            "WHERE d.data BETWEEN :dataInicio AND :dataFim " +
+            "AND d.alteradoEm > :desde")
+    List<AgendamentoRepository.DiaAlteradoProjection> findDiasDesde(@Param("dataInicio") LocalDate dataInicio,
+                                                                    @Param("dataFim") LocalDate dataFim,
+                                                                    @Param("desde") LocalDateTime desde);
+
+    @Modifying
+    @Query("DELETE FROM AgendaDiaAlterado d WHERE d.alteradoEm < :limite")
+    int deleteAnterioresA(@Param("limite") LocalDateTime limite);
+}
@@ -34,4 +34,4 @@ public interface AgendamentoHistoricoRepository extends JpaRepository<Agendament
     Long countByUsuarioAndPeriodo(@Param("usuario") String usuario,
                                   @Param("inicio") LocalDateTime inicio,
                                   @Param("fim") LocalDateTime fim);
-}
\ No newline at end of file
+}
@@ -2,15 +2,26 @@ package consultorio.domain.repository.agendamento;
 
 import consultorio.domain.entity.agendamento.Agendamento;
 import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
+import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AgendamentoRepository extends JpaRepository<Agendamento, Long> {
@@ -53,12 +64,148 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
                                                            @Param("horaFim") LocalTime horaFim,
                                                            @Param("agendamentoId") Long agendamentoId);
 
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Agendamento a " +
+            "WHERE a.dentista.id = :dentistaId " +
+            "AND a.dataConsulta = :data " +
+            "AND a.ativo = true " +
+            "AND a.status NOT IN ('CANCELADO', 'FALTOU') " +
+            "AND ((a.horaInicio < :horaFim AND a.horaFim > :horaInicio))")
+    boolean existsConflitante(@Param("dentistaId") Long dentistaId,
+                              @Param("data") LocalDate data,
+                              @Param("horaInicio") LocalTime horaInicio,
+                              @Param("horaFim") LocalTime horaFim);
+
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Agendamento a " +
+            "WHERE a.dentista.id = :dentistaId " +
+            "AND a.dataConsulta = :data " +
+            "AND a.ativo = true " +
+            "AND a.id != :agendamentoId " +
+            "AND a.status NOT IN ('CANCELADO', 'FALTOU') " +
+            "AND ((a.horaInicio < :horaFim AND a.horaFim > :horaInicio))")
+    boolean existsConflitanteExcluindoAgendamento(@Param("dentistaId") Long dentistaId,
+                                                  @Param("data") LocalDate data,
+                                                  @Param("horaInicio") LocalTime horaInicio,
+                                                  @Param("horaFim") LocalTime horaFim,
+                                                  @Param("agendamentoId") Long agendamentoId);
+
+    // ==================== PROJEÇÕES ====================
+
+    interface IntervaloOcupadoProjection {
+        Long getId();
+        LocalTime getHoraInicio();
+        LocalTime getHoraFim();
+    }
+
+    @Query("SELECT a.id as id, a.horaInicio as horaInicio, a.horaFim as horaFim " +
+            "FROM Agendamento a " +
+            "WHERE a.dentista.id = :dentistaId " +
+            "AND a.dataConsulta = :data " +
+            "AND a.ativo = true " +
+            "AND a.status NOT IN ('CANCELADO', 'FALTOU') " +
+            "ORDER BY a.horaInicio")
+    List<IntervaloOcupadoProjection> findIntervalosOcupados(@Param("dentistaId") Long dentistaId,
+                                                            @Param("data") LocalDate data);
+
+    interface IntervaloAgendadoProjection {
+        Long getId();
+        LocalDate getDataConsulta();
+        LocalTime getHoraInicio();
+        LocalTime getHoraFim();
+    }
+
+    @Query("SELECT a.id as id, a.dataConsulta as dataConsulta, " +
+            "a.horaInicio as horaInicio, a.horaFim as horaFim " +
+            "FROM Agendamento a " +
+            "WHERE a.dentista.id = :dentistaId " +
+            "AND a.dataConsulta BETWEEN :dataInicio AND :dataFim " +
+            "AND a.ativo = true " +
+            "AND a.status NOT IN ('CANCELADO', 'FALTOU') " +
+            "ORDER BY a.dataConsulta, a.horaInicio")
+    List<IntervaloAgendadoProjection> findIntervalosOcupadosPorPeriodo(@Param("dentistaId") Long dentistaId,
+                                                                       @Param("dataInicio") LocalDate dataInicio,
+                                                                       @Param("dataFim") LocalDate dataFim);
+
+    interface OcupacaoProjection {
+        Long getDentistaId();
+        LocalDate getDataConsulta();
+        LocalTime getHoraInicio();
+        LocalTime getHoraFim();
+    }
+
+    @Query("SELECT a.dentista.id as dentistaId, a.dataConsulta as dataConsulta, " +
+            "a.horaInicio as horaInicio, a.horaFim as horaFim " +
+            "FROM Agendamento a " +
+            "WHERE a.dataConsulta BETWEEN :dataInicio AND :dataFim " +
+            "AND a.ativo = true " +
+            "AND a.status NOT IN ('CANCELADO', 'FALTOU')")
+    List<OcupacaoProjection> findOcupacaoPorPeriodo(@Param("dataInicio") LocalDate dataInicio,
+                                                    @Param("dataFim") LocalDate dataFim);
+
+    interface DiaAlteradoProjection {
+        Long getDentistaId();
+        LocalDate getDataConsulta();
+    }
+
+    @Query("SELECT DISTINCT a.dentista.id as dentistaId, a.dataConsulta as dataConsulta " +
+            "FROM Agendamento a " +
+            "WHERE a.dataConsulta BETWEEN :dataInicio AND :dataFim " +
+            "AND a.atualizadoEm > :desde")
+    List<DiaAlteradoProjection> findDiasAlteradosDesde(@Param("dataInicio") LocalDate dataInicio,
+                                                       @Param("dataFim") LocalDate dataFim,
+                                                       @Param("desde") LocalDateTime desde);
+
     @Query("SELECT a FROM Agendamento a WHERE a.dataConsulta = :data " +
             "AND a.status = 'AGENDADO' " +
             "AND a.lembreteEnviado = false " +
             "AND a.ativo = true")
     List<Agendamento> findAgendamentosParaLembrete(@Param("data") LocalDate data);
 
+    interface LembreteProjection {
+        Long getId();
+
+        LocalDate getDataConsulta();
+
+        LocalTime getHoraInicio();
+
+        String getNomePaciente();
+
+        String getTelefonePaciente();
+
+        String getNomeDentista();
+    }
+
+    /**
+     * Mesmo critério de {@link #findAgendamentosParaLembrete}, paginado por chave:
+     * cada página começa após o último ID da anterior.
+     */
+    @Query("SELECT a.id AS id, a.dataConsulta AS dataConsulta, a.horaInicio AS horaInicio, " +
+            "p.dadosBasicos.nome AS nomePaciente, p.dadosBasicos.telefone AS telefonePaciente, " +
+            "d.nome AS nomeDentista " +
+            "FROM Agendamento a JOIN a.paciente p JOIN a.dentista d " +
+            "WHERE a.dataConsulta = :data " +
+            "AND a.status = 'AGENDADO' " +
+            "AND a.lembreteEnviado = false " +
+            "AND a.ativo = true " +
+            "AND a.id > :aposId " +
+            "ORDER BY a.id")
+    List<LembreteProjection> findLembretesPendentesAposId(@Param("data") LocalDate data,
+                                                          @Param("aposId") Long aposId,
+                                                          Pageable pageable);
+
+    /**
+     * Bloqueia os agendamentos do lote ainda sem lembrete marcado, para que o
+     * histórico seja gravado só para os que {@link #marcarLembretesEnviados}
+     * de fato altera.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a.id FROM Agendamento a WHERE a.id IN :ids AND a.lembreteEnviado = false")
+    List<Long> findIdsSemLembreteParaMarcar(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Agendamento a SET a.lembreteEnviado = true, a.lembreteEnviadoEm = :agora, a.atualizadoEm = :agora " +
+            "WHERE a.id IN :ids AND a.lembreteEnviado = false")
+    int marcarLembretesEnviados(@Param("ids") Collection<Long> ids, @Param("agora") LocalDateTime agora);
+
     @Query("SELECT a FROM Agendamento a WHERE a.dataConsulta < :data " +
             "AND a.status IN ('AGENDADO', 'CONFIRMADO') " +
             "AND a.ativo = true")
@@ -97,6 +244,49 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
     List<Agendamento> findAllWithDetailsByPeriodo(@Param("dataInicio") LocalDate dataInicio,
                                                   @Param("dataFim") LocalDate dataFim);
 
+    @Query("SELECT a FROM Agendamento a " +
+            "LEFT JOIN FETCH a.dentista " +
+            "LEFT JOIN FETCH a.paciente " +
+            "WHERE a.id IN :ids")
+    List<Agendamento> findAllWithDetailsByIds(@Param("ids") Collection<Long> ids);
+
+    interface CalendarioProjection {
+        Long getId();
+
+        LocalDate getDataConsulta();
+
+        LocalTime getHoraInicio();
+
+        LocalTime getHoraFim();
+
+        StatusAgendamento getStatus();
+
+        TipoProcedimento getTipoProcedimento();
+
+        Long getDentistaId();
+
+        String getNomeDentista();
+
+        Long getPacienteId();
+
+        String getNomePaciente();
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a.id AS id, a.dataConsulta AS dataConsulta, a.horaInicio AS horaInicio, a.horaFim AS horaFim, " +
+            "a.status AS status, a.tipoProcedimento AS tipoProcedimento, " +
+            "d.id AS dentistaId, d.nome AS nomeDentista, p.id AS pacienteId, p.dadosBasicos.nome AS nomePaciente " +
+            "FROM Agendamento a " +
+            "JOIN a.dentista d " +
+            "LEFT JOIN a.paciente p " +
+            "WHERE a.dataConsulta BETWEEN :dataInicio AND :dataFim " +
+            "AND a.ativo = true " +
+            "AND (:dentistaId IS NULL OR d.id = :dentistaId) " +
+            "ORDER BY a.dataConsulta, a.horaInicio, a.id")
+    Stream<CalendarioProjection> streamCalendario(@Param("dataInicio") LocalDate dataInicio,
+                                                  @Param("dataFim") LocalDate dataFim,
+                                                  @Param("dentistaId") Long dentistaId);
+
     @Query("SELECT a FROM Agendamento a " +
             "WHERE a.dentista.id = :dentistaId " +
             "AND a.dataConsulta BETWEEN :dataInicio AND :dataFim " +
@@ -126,4 +316,45 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
             "AND a.status NOT IN ('CANCELADO', 'FALTOU')")
     boolean existsAgendamentoAtivoPorDentistaEData(@Param("dentistaId") Long dentistaId,
                                                    @Param("data") LocalDate data);
-}
\ No newline at end of file
+
+    interface StatusLoteProjection {
+        Long getId();
+
+        StatusAgendamento getStatus();
+
+        Long getDentistaId();
+
+        LocalDate getDataConsulta();
+    }
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a.id AS id, a.status AS status, a.dentista.id AS dentistaId, a.dataConsulta AS dataConsulta " +
+            "FROM Agendamento a WHERE a.id IN :ids AND a.ativo = true")
+    List<StatusLoteProjection> findStatusParaAlteracaoEmLote(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Agendamento a SET a.status = :status, a.atualizadoPor = :usuario, a.atualizadoEm = :agora " +
+            "WHERE a.id IN :ids")
+    int atualizarStatusEmLote(@Param("ids") Collection<Long> ids,
+                              @Param("status") StatusAgendamento status,
+                              @Param("usuario") String usuario,
+                              @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE Agendamento a SET a.status = consultorio.domain.entity.agendamento.enums.StatusAgendamento.CONFIRMADO, " +
+            "a.confirmadoEm = :agora, a.atualizadoPor = :usuario, a.atualizadoEm = :agora " +
+            "WHERE a.id IN :ids")
+    int confirmarEmLote(@Param("ids") Collection<Long> ids,
+                        @Param("usuario") String usuario,
+                        @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE Agendamento a SET a.status = consultorio.domain.entity.agendamento.enums.StatusAgendamento.CANCELADO, " +
+            "a.motivoCancelamento = :motivo, a.canceladoPor = :usuario, a.canceladoEm = :agora, " +
+            "a.atualizadoPor = :usuario, a.atualizadoEm = :agora " +
+            "WHERE a.id IN :ids")
+    int cancelarEmLote(@Param("ids") Collection<Long> ids,
+                       @Param("motivo") String motivo,
+                       @Param("usuario") String usuario,
+                       @Param("agora") LocalDateTime agora);
+}
@@ -3,11 +3,14 @@ package consultorio.domain.repository.agendamento;
 import consultorio.domain.entity.agendamento.FilaEspera;
 import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @Repository
@@ -36,6 +39,21 @@ public interface FilaEsperaRepository extends JpaRepository<FilaEspera, Long> {
             "AND f.dataPreferencial < :data")
     List<FilaEspera> findExpirados(@Param("data") LocalDate data);
 
+    /**
+     * Expira até {@code limite} registros de {@link #findExpirados} em um único UPDATE.
+     * Linhas bloqueadas por outra transação ficam para o próximo lote.
+     */
+    @Modifying
+    @Query(value = "UPDATE fila_espera SET status = 'EXPIRADO', atualizado_em = :agora " +
+            "WHERE id IN (SELECT id FROM fila_espera " +
+            "WHERE status IN ('AGUARDANDO', 'NOTIFICADO') " +
+            "AND data_preferencial IS NOT NULL " +
+            "AND data_preferencial < :data " +
+            "ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int expirarLote(@Param("data") LocalDate data,
+                    @Param("agora") LocalDateTime agora,
+                    @Param("limite") int limite);
+
     @Query("SELECT COUNT(f) FROM FilaEspera f WHERE f.paciente.id = :pacienteId " +
             "AND f.status IN ('AGUARDANDO', 'NOTIFICADO')")
     Long countAtivasByPaciente(@Param("pacienteId") Long pacienteId);
@@ -59,5 +77,44 @@ public interface FilaEsperaRepository extends JpaRepository<FilaEspera, Long> {
             "ORDER BY f.prioridade DESC, f.criadoEm ASC")
     List<FilaEspera> findAllAtivasWithDetails();
 
+    interface CandidatoFilaProjection {
+        Long getId();
+
+        Long getPacienteId();
+
+        Long getDentistaId();
+
+        TipoProcedimento getTipoProcedimento();
+
+        LocalDate getDataPreferencial();
+
+        LocalTime getHoraInicioPreferencial();
+
+        LocalTime getHoraFimPreferencial();
+
+        FilaEspera.PeriodoPreferencial getPeriodoPreferencial();
+
+        Integer getPrioridade();
+
+        LocalDateTime getCriadoEm();
+
+        Boolean getAceitaQualquerHorario();
+
+        Boolean getAceitaQualquerDentista();
+    }
+
+    /**
+     * Registros aguardando vaga, apenas com os campos usados pelo
+     * {@code FilaEsperaMatchingEngine}.
+     */
+    @Query("SELECT f.id AS id, f.paciente.id AS pacienteId, d.id AS dentistaId, " +
+            "f.tipoProcedimento AS tipoProcedimento, f.dataPreferencial AS dataPreferencial, " +
+            "f.horaInicioPreferencial AS horaInicioPreferencial, f.horaFimPreferencial AS horaFimPreferencial, " +
+            "f.periodoPreferencial AS periodoPreferencial, f.prioridade AS prioridade, f.criadoEm AS criadoEm, " +
+            "f.aceitaQualquerHorario AS aceitaQualquerHorario, f.aceitaQualquerDentista AS aceitaQualquerDentista " +
+            "FROM FilaEspera f LEFT JOIN f.dentista d " +
+            "WHERE f.status = 'AGUARDANDO'")
+    List<CandidatoFilaProjection> findCandidatosAguardando();
+
     boolean existsByPacienteIdAndStatusIn(Long pacienteId, List<FilaEspera.StatusFila> statuses);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package consultorio.domain.repository.notificacao;
+
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificacaoOutboxRepository extends JpaRepository<NotificacaoOutbox, Long> {
+
+    long countByStatus(NotificacaoOutbox.Status status);
+}
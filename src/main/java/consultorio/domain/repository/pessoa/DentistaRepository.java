@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -30,6 +31,15 @@ public interface DentistaRepository extends JpaRepository<Dentista, Long> {
     // Contagens
     Long countByAtivoTrue();
 
+    // Projeções
+    interface DentistaNomeProjection {
+        Long getId();
+        String getNome();
+    }
+
+    @Query("SELECT d.id as id, d.nome as nome FROM Dentista d WHERE d.ativo = true ORDER BY d.nome")
+    List<DentistaNomeProjection> findAtivosNomeProjection();
+
     // Busca personalizada
     @Query("SELECT d FROM Dentista d WHERE " +
             "LOWER(d.nome) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
@@ -2,11 +2,14 @@
 package consultorio.domain.repository.pessoa;
 
 import consultorio.domain.entity.pessoa.Paciente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +17,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PacienteRepository extends JpaRepository<Paciente, Long>, JpaSpecificationExecutor<Paciente> {
@@ -48,6 +52,37 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long>, JpaSp
         """, nativeQuery = true)
     List<Paciente> findByNomeContainingSemAcento(@Param("nome") String nome);
 
+    // ==================== BUSCA INDEXADA POR NOME (nome_busca) ====================
+
+    /**
+     * "Contém" sobre o nome normalizado, atendido pelo índice de trigramas
+     * (idx_paciente_nome_busca_trgm) e ordenado pela similaridade com o termo.
+     * O padrão vem pronto do serviço ('%termo%', curingas escapados) para que o
+     * planner veja um literal e use o índice; o termo puro alimenta a similaridade.
+     */
+    @Query(value = "SELECT p.* FROM pacientes p " +
+            "WHERE p.ativo = true AND p.nome_busca LIKE :padrao " +
+            "ORDER BY similarity(p.nome_busca, :termo) DESC, p.nome_busca, p.id_paciente",
+            countQuery = "SELECT COUNT(*) FROM pacientes p " +
+                    "WHERE p.ativo = true AND p.nome_busca LIKE :padrao",
+            nativeQuery = true)
+    Page<Paciente> buscarPorNomeNormalizado(@Param("padrao") String padrao,
+                                            @Param("termo") String termo,
+                                            Pageable pageable);
+
+    /**
+     * "Começa com" sobre o nome normalizado (idx_paciente_nome_busca_prefixo),
+     * para termos curtos demais para os trigramas. O padrão já chega como
+     * 'termo%': com CONCAT na consulta o text_pattern_ops não é considerado.
+     */
+    @Query(value = "SELECT p.* FROM pacientes p " +
+            "WHERE p.ativo = true AND p.nome_busca LIKE :padrao " +
+            "ORDER BY p.nome_busca, p.id_paciente",
+            countQuery = "SELECT COUNT(*) FROM pacientes p " +
+                    "WHERE p.ativo = true AND p.nome_busca LIKE :padrao",
+            nativeQuery = true)
+    Page<Paciente> buscarPorPrefixoNomeNormalizado(@Param("padrao") String padrao, Pageable pageable);
+
     // ==================== BUSCAS POR STATUS ====================
 
     @Query("SELECT p FROM Paciente p WHERE p.ativo = :ativo")
@@ -158,6 +193,47 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long>, JpaSp
             "ORDER BY p.dadosBasicos.nome")
     Page<PacienteResumoProjection> findResumoProjection(Pageable pageable);
 
+    interface PacienteAutocompleteProjection {
+        Long getId();
+        String getProntuarioNumero();
+        String getNome();
+        String getTelefone();
+        String getCpf();
+        LocalDate getDataNascimento();
+        Boolean getStatus();
+        String getConvenio();
+        String getNumeroInscricaoConvenio();
+    }
+
+    @Query("SELECT p.id as id, " +
+            "p.dadosBasicos.prontuarioNumero as prontuarioNumero, " +
+            "p.dadosBasicos.nome as nome, " +
+            "p.dadosBasicos.telefone as telefone, " +
+            "p.dadosBasicos.cpf as cpf, " +
+            "p.dadosBasicos.dataNascimento as dataNascimento, " +
+            "p.dadosBasicos.status as status, " +
+            "p.convenio.nomeConvenio as convenio, " +
+            "p.convenio.numeroInscricao as numeroInscricaoConvenio " +
+            "FROM Paciente p " +
+            "WHERE p.ativo = true")
+    List<PacienteAutocompleteProjection> findAutocompleteAtivos();
+
+    // Mesmos campos do autocomplete, lidos aos poucos pelo cursor JDBC para a exportação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id as id, " +
+            "p.dadosBasicos.prontuarioNumero as prontuarioNumero, " +
+            "p.dadosBasicos.nome as nome, " +
+            "p.dadosBasicos.telefone as telefone, " +
+            "p.dadosBasicos.cpf as cpf, " +
+            "p.dadosBasicos.dataNascimento as dataNascimento, " +
+            "p.dadosBasicos.status as status, " +
+            "p.convenio.nomeConvenio as convenio, " +
+            "p.convenio.numeroInscricao as numeroInscricaoConvenio " +
+            "FROM Paciente p " +
+            "WHERE p.ativo = true " +
+            "ORDER BY p.id")
+    Stream<PacienteAutocompleteProjection> streamResumoAtivos();
+
     // ==================== CONSULTAS ESTATÍSTICAS ====================
 
     @Query("SELECT COUNT(p) FROM Paciente p WHERE p.ativo = true")
@@ -240,6 +316,57 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long>, JpaSp
                                    @Param("status") Boolean status,
                                    Pageable pageable);
 
+    // ==================== PAGINAÇÃO POR CURSOR (KEYSET) ====================
+    // Mesmos filtros de findWithFilters. Em vez de OFFSET, a página começa
+    // depois da chave do último paciente entregue, e não há COUNT: o Pageable
+    // só limita a quantidade (página 0).
+
+    @Query("SELECT p FROM Paciente p WHERE " +
+            "(:nome IS NULL OR p.dadosBasicos.nome ILIKE CONCAT('%', :nome, '%')) AND " +
+            "(:cpf IS NULL OR p.dadosBasicos.cpf = :cpf) AND " +
+            "(:convenio IS NULL OR p.convenio.nomeConvenio = :convenio) AND " +
+            "(:ativo IS NULL OR p.ativo = :ativo) AND " +
+            "(:status IS NULL OR p.dadosBasicos.status = :status) AND " +
+            "(:ultimoId IS NULL OR p.id > :ultimoId) " +
+            "ORDER BY p.id")
+    List<Paciente> findWithFiltersAposId(@Param("nome") String nome,
+                                         @Param("cpf") String cpf,
+                                         @Param("convenio") String convenio,
+                                         @Param("ativo") Boolean ativo,
+                                         @Param("status") Boolean status,
+                                         @Param("ultimoId") Long ultimoId,
+                                         Pageable limite);
+
+    @Query("SELECT p FROM Paciente p WHERE " +
+            "(:nome IS NULL OR p.dadosBasicos.nome ILIKE CONCAT('%', :nome, '%')) AND " +
+            "(:cpf IS NULL OR p.dadosBasicos.cpf = :cpf) AND " +
+            "(:convenio IS NULL OR p.convenio.nomeConvenio = :convenio) AND " +
+            "(:ativo IS NULL OR p.ativo = :ativo) AND " +
+            "(:status IS NULL OR p.dadosBasicos.status = :status) AND " +
+            "(:ultimoId IS NULL OR (p.dadosBasicos.nome >= :ultimoNome AND " +
+            "(p.dadosBasicos.nome > :ultimoNome OR p.id > :ultimoId))) " +
+            "ORDER BY p.dadosBasicos.nome, p.id")
+    List<Paciente> findWithFiltersAposNome(@Param("nome") String nome,
+                                           @Param("cpf") String cpf,
+                                           @Param("convenio") String convenio,
+                                           @Param("ativo") Boolean ativo,
+                                           @Param("status") Boolean status,
+                                           @Param("ultimoNome") String ultimoNome,
+                                           @Param("ultimoId") Long ultimoId,
+                                           Pageable limite);
+
+    @Query("SELECT COUNT(p) FROM Paciente p WHERE " +
+            "(:nome IS NULL OR p.dadosBasicos.nome ILIKE CONCAT('%', :nome, '%')) AND " +
+            "(:cpf IS NULL OR p.dadosBasicos.cpf = :cpf) AND " +
+            "(:convenio IS NULL OR p.convenio.nomeConvenio = :convenio) AND " +
+            "(:ativo IS NULL OR p.ativo = :ativo) AND " +
+            "(:status IS NULL OR p.dadosBasicos.status = :status)")
+    long countWithFilters(@Param("nome") String nome,
+                          @Param("cpf") String cpf,
+                          @Param("convenio") String convenio,
+                          @Param("ativo") Boolean ativo,
+                          @Param("status") Boolean status);
+
     // ==================== BUSCAS POR IDADE (usando função AGE do PostgreSQL) ====================
 
     @Query(value = """
@@ -1,7 +1,12 @@
 package consultorio.domain.service.agendamento;
 
 import consultorio.api.dto.request.agendamento.AgendamentoRequest;
+import consultorio.api.dto.request.agendamento.lote.AgendamentoLoteRequest;
+import consultorio.api.dto.request.agendamento.serie.AgendamentoSerieRequest;
 import consultorio.api.dto.response.agendamento.AgendamentoResponse;
+import consultorio.api.dto.response.agendamento.calendario.CalendarioResponse;
+import consultorio.api.dto.response.agendamento.lote.AgendamentoLoteResponse;
+import consultorio.api.dto.response.agendamento.serie.AgendamentoSerieResponse;
 import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
 
 import java.time.LocalDate;
@@ -11,6 +16,8 @@ public interface AgendamentoService {
 
     AgendamentoResponse criar(AgendamentoRequest request);
 
+    AgendamentoSerieResponse criarSerie(AgendamentoSerieRequest request);
+
     AgendamentoResponse atualizar(Long id, AgendamentoRequest request);
 
     AgendamentoResponse buscarPorId(Long id);
@@ -25,6 +32,8 @@ public interface AgendamentoService {
 
     List<AgendamentoResponse> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim);
 
+    CalendarioResponse listarCalendario(LocalDate dataInicio, LocalDate dataFim, Long dentistaId);
+
     List<AgendamentoResponse> listarPorStatus(StatusAgendamento status);
 
     List<AgendamentoResponse> listarPorDentistaEData(Long dentistaId, LocalDate data);
@@ -39,6 +48,14 @@ public interface AgendamentoService {
 
     AgendamentoResponse marcarFalta(Long id, String usuario);
 
+    AgendamentoLoteResponse confirmarEmLote(AgendamentoLoteRequest request);
+
+    AgendamentoLoteResponse concluirEmLote(AgendamentoLoteRequest request);
+
+    AgendamentoLoteResponse cancelarEmLote(AgendamentoLoteRequest request);
+
+    AgendamentoLoteResponse marcarFaltaEmLote(AgendamentoLoteRequest request);
+
     void deletar(Long id);
 
     boolean verificarDisponibilidade(Long dentistaId, LocalDate data, String horaInicio, String horaFim);
@@ -48,4 +65,6 @@ public interface AgendamentoService {
     List<AgendamentoResponse> buscarAgendamentosParaLembrete(LocalDate data);
 
     void marcarLembreteEnviado(Long id);
+
+    int marcarLembretesEnviados(List<Long> ids);
 }
\ No newline at end of file
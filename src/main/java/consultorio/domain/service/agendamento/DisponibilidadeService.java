@@ -0,0 +1,20 @@
+package consultorio.domain.service.agendamento;
+
+import consultorio.api.dto.response.agendamento.disponibilidade.HorarioLivreResponse;
+import consultorio.api.dto.response.agendamento.disponibilidade.MatrizDisponibilidadeResponse;
+import consultorio.domain.entity.agendamento.FilaEspera;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface DisponibilidadeService {
+
+    Page<HorarioLivreResponse> buscarHorariosLivres(Long dentistaId, LocalDate dataInicio, LocalDate dataFim,
+                                                    Integer duracaoMinutos,
+                                                    FilaEspera.PeriodoPreferencial periodo,
+                                                    Pageable pageable);
+
+    MatrizDisponibilidadeResponse gerarMatriz(LocalDate dataInicio, LocalDate dataFim, LocalDateTime alteradoDesde);
+}
@@ -6,6 +6,7 @@ import consultorio.domain.entity.agendamento.FilaEspera;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public interface FilaEsperaService {
 
@@ -31,7 +32,17 @@ public interface FilaEsperaService {
 
     FilaEsperaResponse cancelar(Long id);
 
-    void expirarFilasAntigas(LocalDate dataLimite);
+    /**
+     * Expira os registros com data preferencial anterior a {@code dataLimite},
+     * em lotes de {@code fila-espera.expiracao.tamanho-lote}, cada um em sua
+     * própria transação.
+     *
+     * @param antesDoLote    executado na transação de cada lote, antes do UPDATE;
+     *                       uma exceção desfaz o lote e interrompe a expiração
+     * @param aoConcluirLote recebe a quantidade expirada em cada lote
+     * @return total de registros expirados
+     */
+    int expirarFilasAntigas(LocalDate dataLimite, Runnable antesDoLote, IntConsumer aoConcluirLote);
 
     void deletar(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,292 @@
+package consultorio.domain.service.agendamento.fila;
+
+import consultorio.domain.entity.agendamento.FilaEspera;
+import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
+import consultorio.domain.repository.agendamento.FilaEsperaRepository;
+import consultorio.infrastructure.config.properties.FilaEsperaProperties;
+import consultorio.shared.base.IndiceRecarregavel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice em memória da fila de espera para oferecer vagas livres.
+ *
+ * Os registros AGUARDANDO ficam em filas de prioridade por (dentista,
+ * procedimento, período), ordenadas por {@code prioridade DESC, criadoEm ASC}.
+ * Quem aceita qualquer dentista, procedimento ou horário entra na fila
+ * "qualquer" da dimensão correspondente, de modo que cada vaga consulta no
+ * máximo oito filas, começando pelos registros de maior prioridade.
+ *
+ * Criações, alterações e mudanças de status da fila são aplicadas após o
+ * commit. Alterações feitas por outros nós não chegam ao índice, por isso ele
+ * é recarregado do banco a cada {@code fila-espera.processamento.validade-indice-segundos}.
+ * A recarga roda na própria thread que combina as vagas (agendador ou
+ * listener), que deve enxergar a fila já recarregada; se falhar, a combinação
+ * falha junto em vez de usar o índice vencido.
+ */
+@Slf4j
+@Component
+public class FilaEsperaMatchingEngine {
+
+    private static final LocalTime MEIO_DIA = LocalTime.of(12, 0);
+
+    private static final Comparator<Candidato> PRIORIDADE = Comparator
+            .comparingInt(Candidato::prioridade).reversed()
+            .thenComparing(Candidato::criadoEm, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Candidato::filaId);
+
+    private final FilaEsperaRepository filaEsperaRepository;
+    private final IndiceRecarregavel<Indice> indiceRecarregavel;
+
+    public FilaEsperaMatchingEngine(FilaEsperaRepository filaEsperaRepository, FilaEsperaProperties properties) {
+        this.filaEsperaRepository = filaEsperaRepository;
+        this.indiceRecarregavel = new IndiceRecarregavel<>("Fila de espera", this::carregar,
+                () -> properties.getProcessamento().getValidadeIndiceSegundos());
+    }
+
+    /**
+     * Registro da fila aguardando vaga.
+     *
+     * @param dentistaId null quando aceita qualquer dentista
+     */
+    public record Candidato(Long filaId,
+                            Long pacienteId,
+                            Long dentistaId,
+                            TipoProcedimento tipoProcedimento,
+                            LocalDate dataPreferencial,
+                            LocalTime horaInicioPreferencial,
+                            LocalTime horaFimPreferencial,
+                            FilaEspera.PeriodoPreferencial periodo,
+                            boolean aceitaQualquerHorario,
+                            int prioridade,
+                            LocalDateTime criadoEm) {
+
+        public static Candidato de(FilaEspera fila) {
+            Long dentistaId = fila.getDentista() != null && !Boolean.TRUE.equals(fila.getAceitaQualquerDentista())
+                    ? fila.getDentista().getId()
+                    : null;
+            return new Candidato(fila.getId(), fila.getPaciente().getId(), dentistaId, fila.getTipoProcedimento(),
+                    fila.getDataPreferencial(), fila.getHoraInicioPreferencial(), fila.getHoraFimPreferencial(),
+                    fila.getPeriodoPreferencial(), Boolean.TRUE.equals(fila.getAceitaQualquerHorario()),
+                    fila.getPrioridade() != null ? fila.getPrioridade() : 0, fila.getCriadoEm());
+        }
+
+        static Candidato de(FilaEsperaRepository.CandidatoFilaProjection p) {
+            Long dentistaId = Boolean.TRUE.equals(p.getAceitaQualquerDentista()) ? null : p.getDentistaId();
+            return new Candidato(p.getId(), p.getPacienteId(), dentistaId, p.getTipoProcedimento(),
+                    p.getDataPreferencial(), p.getHoraInicioPreferencial(), p.getHoraFimPreferencial(),
+                    p.getPeriodoPreferencial(), Boolean.TRUE.equals(p.getAceitaQualquerHorario()),
+                    p.getPrioridade() != null ? p.getPrioridade() : 0, p.getCriadoEm());
+        }
+
+        /**
+         * Mesmas regras de data e horário de {@link FilaEspera#compativel}; dentista
+         * e procedimento já foram filtrados pela fila consultada.
+         */
+        boolean aceita(Vaga vaga) {
+            if (dataPreferencial != null && !dataPreferencial.equals(vaga.data())) {
+                return false;
+            }
+            if (aceitaQualquerHorario) {
+                return true;
+            }
+            if (horaInicioPreferencial != null && horaFimPreferencial != null) {
+                return !vaga.horaInicio().isBefore(horaInicioPreferencial)
+                        && !vaga.horaInicio().isAfter(horaFimPreferencial);
+            }
+            return periodo == null || periodo.contemHorario(vaga.horaInicio());
+        }
+
+        FilaEspera.PeriodoPreferencial periodoIndice() {
+            if (aceitaQualquerHorario) {
+                return FilaEspera.PeriodoPreferencial.QUALQUER;
+            }
+            if (horaInicioPreferencial != null && horaFimPreferencial != null) {
+                if (horaFimPreferencial.isBefore(MEIO_DIA)) {
+                    return FilaEspera.PeriodoPreferencial.MANHA;
+                }
+                return horaInicioPreferencial.isBefore(MEIO_DIA)
+                        ? FilaEspera.PeriodoPreferencial.QUALQUER
+                        : FilaEspera.PeriodoPreferencial.TARDE;
+            }
+            return periodo != null ? periodo : FilaEspera.PeriodoPreferencial.QUALQUER;
+        }
+    }
+
+    /**
+     * Horário livre a oferecer.
+     *
+     * @param tipoProcedimento procedimento do horário liberado, ou null se atende qualquer um
+     * @param vagasNoDia       quantas ofertas o dia do dentista ainda comporta
+     */
+    public record Vaga(Long dentistaId,
+                       LocalDate data,
+                       LocalTime horaInicio,
+                       LocalTime horaFim,
+                       TipoProcedimento tipoProcedimento,
+                       int vagasNoDia) {
+    }
+
+    public record Oferta(Vaga vaga, Candidato candidato) {
+    }
+
+    private record ChaveFila(Long dentistaId, TipoProcedimento tipoProcedimento,
+                             FilaEspera.PeriodoPreferencial periodo) {
+
+        static ChaveFila de(Candidato candidato) {
+            return new ChaveFila(candidato.dentistaId(), candidato.tipoProcedimento(), candidato.periodoIndice());
+        }
+    }
+
+    private static final class Indice {
+
+        private final ConcurrentMap<Long, Candidato> porId = new ConcurrentHashMap<>();
+        private final ConcurrentMap<ChaveFila, NavigableSet<Candidato>> filas = new ConcurrentHashMap<>();
+
+        void registrar(Candidato candidato) {
+            remover(candidato.filaId());
+            porId.put(candidato.filaId(), candidato);
+            filas.computeIfAbsent(ChaveFila.de(candidato), k -> new ConcurrentSkipListSet<>(PRIORIDADE))
+                    .add(candidato);
+        }
+
+        void remover(Long filaId) {
+            Candidato anterior = porId.remove(filaId);
+            if (anterior != null) {
+                filas.computeIfPresent(ChaveFila.de(anterior), (k, fila) -> {
+                    fila.remove(anterior);
+                    return fila.isEmpty() ? null : fila;
+                });
+            }
+        }
+    }
+
+    /**
+     * Combina os horários livres de um dia com a fila em uma única passagem.
+     *
+     * Os horários são percorridos em ordem de início; cada um vai para o
+     * candidato compatível de maior prioridade que ainda não recebeu oferta.
+     * Horários do mesmo dentista que se sobrepõem a uma oferta já feita são
+     * ignorados, assim como os que excedem as vagas restantes do dia.
+     */
+    public List<Oferta> combinarDia(LocalDate data, List<Vaga> vagas) {
+        Indice indice = indiceRecarregavel.atual();
+        if (indice.porId.isEmpty()) {
+            return List.of();
+        }
+
+        List<Vaga> doDia = vagas.stream()
+                .filter(v -> v.data().equals(data))
+                .sorted(Comparator.comparing(Vaga::horaInicio).thenComparing(Vaga::dentistaId))
+                .toList();
+
+        Set<Long> atendidos = new HashSet<>();
+        Map<Long, LocalTime> ocupadoAte = new HashMap<>();
+        Map<Long, Integer> ofertasPorDentista = new HashMap<>();
+        List<Oferta> ofertas = new ArrayList<>();
+
+        for (Vaga vaga : doDia) {
+            LocalTime livreApos = ocupadoAte.get(vaga.dentistaId());
+            if (livreApos != null && vaga.horaInicio().isBefore(livreApos)) {
+                continue;
+            }
+            if (ofertasPorDentista.getOrDefault(vaga.dentistaId(), 0) >= vaga.vagasNoDia()) {
+                continue;
+            }
+
+            Candidato escolhido = melhorCandidato(indice, vaga, atendidos);
+            if (escolhido != null) {
+                atendidos.add(escolhido.filaId());
+                ocupadoAte.put(vaga.dentistaId(), vaga.horaFim());
+                ofertasPorDentista.merge(vaga.dentistaId(), 1, Integer::sum);
+                ofertas.add(new Oferta(vaga, escolhido));
+            }
+        }
+        return ofertas;
+    }
+
+    /**
+     * Atualiza o índice com o estado do registro após o commit: entra se estiver
+     * AGUARDANDO e sai em qualquer outro status.
+     */
+    public void sincronizarAposCommit(FilaEspera fila) {
+        if (fila.getStatus() == FilaEspera.StatusFila.AGUARDANDO) {
+            Candidato candidato = Candidato.de(fila);
+            indiceRecarregavel.aplicarAposCommit(indice -> indice.registrar(candidato));
+        } else {
+            removerAposCommit(fila.getId());
+        }
+    }
+
+    public void removerAposCommit(Long filaId) {
+        indiceRecarregavel.aplicarAposCommit(indice -> indice.remover(filaId));
+    }
+
+    /**
+     * Força a recarga do banco na próxima consulta; usado por alterações em
+     * lote, que não carregam as entidades.
+     */
+    public void invalidarAposCommit() {
+        indiceRecarregavel.invalidarAposCommit();
+    }
+
+    private Candidato melhorCandidato(Indice indice, Vaga vaga, Set<Long> atendidos) {
+        FilaEspera.PeriodoPreferencial periodoVaga = vaga.horaInicio().isBefore(MEIO_DIA)
+                ? FilaEspera.PeriodoPreferencial.MANHA
+                : FilaEspera.PeriodoPreferencial.TARDE;
+        List<TipoProcedimento> tipos = new ArrayList<>();
+        tipos.add(null);
+        if (vaga.tipoProcedimento() != null) {
+            tipos.add(vaga.tipoProcedimento());
+        } else {
+            tipos.addAll(Arrays.asList(TipoProcedimento.values()));
+        }
+
+        Candidato melhor = null;
+        for (Long dentistaId : new Long[]{vaga.dentistaId(), null}) {
+            for (TipoProcedimento tipo : tipos) {
+                for (FilaEspera.PeriodoPreferencial periodo :
+                        List.of(periodoVaga, FilaEspera.PeriodoPreferencial.QUALQUER)) {
+                    NavigableSet<Candidato> fila = indice.filas.get(new ChaveFila(dentistaId, tipo, periodo));
+                    if (fila == null) {
+                        continue;
+                    }
+                    for (Candidato candidato : fila) {
+                        // A fila está ordenada: nada depois deste supera o melhor já encontrado
+                        if (melhor != null && PRIORIDADE.compare(candidato, melhor) >= 0) {
+                            break;
+                        }
+                        if (!atendidos.contains(candidato.filaId()) && candidato.aceita(vaga)) {
+                            melhor = candidato;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return melhor;
+    }
+
+    private Indice carregar() {
+        Indice novo = new Indice();
+        filaEsperaRepository.findCandidatosAguardando().forEach(p -> novo.registrar(Candidato.de(p)));
+        log.debug("Fila de espera: {} registros carregados no índice de vagas", novo.porId.size());
+        return novo;
+    }
+}
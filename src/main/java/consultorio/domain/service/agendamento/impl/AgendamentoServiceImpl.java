@@ -1,28 +1,51 @@
 package consultorio.domain.service.agendamento.impl;
 
 import consultorio.api.dto.request.agendamento.AgendamentoRequest;
+import consultorio.api.dto.request.agendamento.lote.AgendamentoLoteRequest;
+import consultorio.api.dto.request.agendamento.serie.AgendamentoSerieRequest;
 import consultorio.api.dto.response.agendamento.AgendamentoResponse;
+import consultorio.api.dto.response.agendamento.calendario.CalendarioResponse;
+import consultorio.api.dto.response.agendamento.lote.AgendamentoLoteResponse;
+import consultorio.api.dto.response.agendamento.serie.AgendamentoSerieResponse;
+import consultorio.api.event.agendamento.AgendamentoCanceladoEvent;
 import consultorio.api.mapper.agendamento.AgendamentoMapper;
+import consultorio.domain.entity.agendamento.AgendaDiaAlterado;
 import consultorio.domain.entity.agendamento.Agendamento;
 import consultorio.domain.entity.agendamento.AgendamentoHistorico;
 import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
 import consultorio.domain.entity.pessoa.Dentista;
 import consultorio.domain.entity.pessoa.Paciente;
 
-import consultorio.domain.repository.agendamento.AgendamentoHistoricoRepository;
+import consultorio.domain.repository.agendamento.AgendaDiaAlteradoRepository;
 import consultorio.domain.repository.agendamento.AgendamentoRepository;
 import consultorio.domain.repository.pessoa.DentistaRepository;
 import consultorio.domain.repository.pessoa.PacienteRepository;
 import consultorio.domain.service.agendamento.AgendamentoService;
+import consultorio.domain.service.agendamento.notificacao.AgendamentoNotificador;
+import consultorio.domain.service.agendamento.ocupacao.CapacidadeAgendaLedger;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoAgendaIndex;
+import consultorio.domain.service.agendamento.ocupacao.ReservaHorarioCoordinator;
+import consultorio.infrastructure.persistence.historico.AgendamentoHistoricoRecorder;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,12 +54,24 @@ public class AgendamentoServiceImpl implements AgendamentoService {
     private final AgendamentoRepository agendamentoRepository;
     private final DentistaRepository dentistaRepository;
     private final PacienteRepository pacienteRepository;
-    private final AgendamentoHistoricoRepository historicoRepository;
+    private final AgendamentoHistoricoRecorder historicoRecorder;
     private final AgendamentoMapper mapper;
-
+    private final OcupacaoAgendaIndex ocupacaoIndex;
+    private final ReservaHorarioCoordinator reservaCoordinator;
+    private final CapacidadeAgendaLedger capacidadeLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AgendamentoNotificador notificador;
+    private final AgendaDiaAlteradoRepository diaAlteradoRepository;
+
+    // As marcações abrem a própria transação dentro do coordenador, depois de obter o lock do dia
     @Override
-    @Transactional
     public AgendamentoResponse criar(AgendamentoRequest request) {
+        return reservaCoordinator.reservar(
+                new OcupacaoAgendaIndex.ChaveAgenda(request.getDentistaId(), request.getDataConsulta()),
+                () -> criarReservado(request));
+    }
+
+    private AgendamentoResponse criarReservado(AgendamentoRequest request) {
         Dentista dentista = dentistaRepository.findById(request.getDentistaId())
                 .orElseThrow(() -> new EntityNotFoundException("Dentista não encontrado"));
 
@@ -45,29 +80,98 @@ public class AgendamentoServiceImpl implements AgendamentoService {
 
         validarHorarios(request.getHoraInicio(), request.getHoraFim());
 
-        List<Agendamento> conflitos = agendamentoRepository.findConflitantes(
-                request.getDentistaId(),
-                request.getDataConsulta(),
-                request.getHoraInicio(),
-                request.getHoraFim()
-        );
-
-        if (!conflitos.isEmpty()) {
+        if (agendamentoRepository.existsConflitante(request.getDentistaId(), request.getDataConsulta(),
+                request.getHoraInicio(), request.getHoraFim())) {
             throw new IllegalStateException("Horário indisponível para o dentista");
         }
 
         Agendamento agendamento = mapper.toEntity(request, dentista, paciente);
+        capacidadeLedger.sincronizar(null, false, agendamento);
         agendamento = agendamentoRepository.save(agendamento);
+        ocupacaoIndex.sincronizarAposCommit(null, agendamento);
 
         registrarHistorico(agendamento.getId(), AgendamentoHistorico.TipoAcao.CRIACAO,
                 request.getCriadoPor(), "Agendamento criado");
+        notificador.aoCriar(agendamento);
 
         return mapper.toResponse(agendamento);
     }
 
     @Override
-    @Transactional
+    public AgendamentoSerieResponse criarSerie(AgendamentoSerieRequest request) {
+        List<OcupacaoAgendaIndex.ChaveAgenda> chaves = request.getOcorrencias().stream()
+                .map(o -> new OcupacaoAgendaIndex.ChaveAgenda(request.getDentistaId(), o.getDataConsulta()))
+                .collect(Collectors.toList());
+        return reservaCoordinator.reservar(chaves, () -> criarSerieReservada(request));
+    }
+
+    private AgendamentoSerieResponse criarSerieReservada(AgendamentoSerieRequest request) {
+        Dentista dentista = dentistaRepository.findById(request.getDentistaId())
+                .orElseThrow(() -> new EntityNotFoundException("Dentista não encontrado"));
+
+        Paciente paciente = pacienteRepository.findById(request.getPacienteId())
+                .orElseThrow(() -> new EntityNotFoundException("Paciente não encontrado"));
+
+        List<AgendamentoSerieRequest.Ocorrencia> ocorrencias = request.getOcorrencias();
+        ocorrencias.forEach(o -> validarHorarios(o.getHoraInicio(), o.getHoraFim()));
+
+        LocalDate dataInicio = ocorrencias.stream().map(AgendamentoSerieRequest.Ocorrencia::getDataConsulta)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate dataFim = ocorrencias.stream().map(AgendamentoSerieRequest.Ocorrencia::getDataConsulta)
+                .max(Comparator.naturalOrder()).orElseThrow();
+
+        Map<LocalDate, List<AgendamentoRepository.IntervaloAgendadoProjection>> ocupadosPorDia = agendamentoRepository
+                .findIntervalosOcupadosPorPeriodo(request.getDentistaId(), dataInicio, dataFim).stream()
+                .collect(Collectors.groupingBy(AgendamentoRepository.IntervaloAgendadoProjection::getDataConsulta));
+
+        List<AgendamentoSerieResponse.OcorrenciaResultado> resultados = new ArrayList<>(ocorrencias.size());
+        int conflitos = 0;
+        for (int i = 0; i < ocorrencias.size(); i++) {
+            AgendamentoSerieResponse.OcorrenciaResultado resultado = avaliarOcorrencia(
+                    i, ocorrencias, ocupadosPorDia.getOrDefault(ocorrencias.get(i).getDataConsulta(), List.of()));
+            if (resultado.getConflito()) {
+                conflitos++;
+            }
+            resultados.add(resultado);
+        }
+
+        conflitos += avaliarCapacidade(request.getDentistaId(), resultados);
+
+        if (conflitos > 0) {
+            return new AgendamentoSerieResponse(false, ocorrencias.size(), conflitos, resultados, List.of());
+        }
+
+        resultados.stream()
+                .collect(Collectors.groupingBy(AgendamentoSerieResponse.OcorrenciaResultado::getDataConsulta,
+                        Collectors.counting()))
+                .forEach((data, quantidade) -> capacidadeLedger.reservar(
+                        new OcupacaoAgendaIndex.ChaveAgenda(request.getDentistaId(), data), quantidade.intValue()));
+
+        List<Agendamento> agendamentos = agendamentoRepository.saveAll(ocorrencias.stream()
+                .map(o -> mapper.toEntity(request, o, dentista, paciente))
+                .collect(Collectors.toList()));
+
+        historicoRecorder.registrarTodos(agendamentos.stream()
+                .map(a -> AgendamentoHistorico.criar(a.getId(), AgendamentoHistorico.TipoAcao.CRIACAO,
+                        request.getCriadoPor(), "Agendamento criado em série"))
+                .collect(Collectors.toList()));
+
+        agendamentos.forEach(a -> ocupacaoIndex.sincronizarAposCommit(null, a));
+
+        List<AgendamentoResponse> responses = agendamentos.stream()
+                .map(mapper::toResponse)
+                .collect(Collectors.toList());
+        return new AgendamentoSerieResponse(true, ocorrencias.size(), 0, resultados, responses);
+    }
+
+    @Override
     public AgendamentoResponse atualizar(Long id, AgendamentoRequest request) {
+        return reservaCoordinator.reservar(
+                new OcupacaoAgendaIndex.ChaveAgenda(request.getDentistaId(), request.getDataConsulta()),
+                () -> atualizarReservado(id, request));
+    }
+
+    private AgendamentoResponse atualizarReservado(Long id, AgendamentoRequest request) {
         Agendamento agendamento = buscarAgendamentoOuLancarExcecao(id);
 
         if (!agendamento.isPodeSerEditado()) {
@@ -82,23 +186,29 @@ public class AgendamentoServiceImpl implements AgendamentoService {
 
         validarHorarios(request.getHoraInicio(), request.getHoraFim());
 
-        List<Agendamento> conflitos = agendamentoRepository.findConflitantesExcluindoAgendamento(
-                request.getDentistaId(),
-                request.getDataConsulta(),
-                request.getHoraInicio(),
-                request.getHoraFim(),
-                id
-        );
-
-        if (!conflitos.isEmpty()) {
+        if (agendamentoRepository.existsConflitanteExcluindoAgendamento(request.getDentistaId(),
+                request.getDataConsulta(), request.getHoraInicio(), request.getHoraFim(), id)) {
             throw new IllegalStateException("Horário indisponível para o dentista");
         }
 
+        OcupacaoAgendaIndex.ChaveAgenda chaveAnterior = OcupacaoAgendaIndex.chaveDe(agendamento);
+        boolean ocupavaAntes = agendamento.isOcupaHorario();
+        LocalTime horaAnterior = agendamento.getHoraInicio();
         mapper.updateEntityFromRequest(request, agendamento, dentista, paciente);
+        capacidadeLedger.sincronizar(chaveAnterior, ocupavaAntes, agendamento);
         agendamento = agendamentoRepository.save(agendamento);
+        ocupacaoIndex.sincronizarAposCommit(chaveAnterior, agendamento);
+        if (!chaveAnterior.equals(OcupacaoAgendaIndex.chaveDe(agendamento))) {
+            // O atualizadoEm só aponta para o dia novo; o de origem é registrado à parte
+            registrarDiaAlterado(chaveAnterior);
+        }
 
         registrarHistorico(id, AgendamentoHistorico.TipoAcao.ATUALIZACAO,
                 request.getCriadoPor(), "Agendamento atualizado");
+        if (!chaveAnterior.equals(OcupacaoAgendaIndex.chaveDe(agendamento))
+                || !horaAnterior.equals(agendamento.getHoraInicio())) {
+            notificador.aoRemarcar(agendamento);
+        }
 
         return mapper.toResponse(agendamento);
     }
@@ -151,6 +261,34 @@ public class AgendamentoServiceImpl implements AgendamentoService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CalendarioResponse listarCalendario(LocalDate dataInicio, LocalDate dataFim, Long dentistaId) {
+        if (dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("Data final deve ser igual ou posterior à data inicial");
+        }
+
+        List<CalendarioResponse.Evento> eventos = new ArrayList<>();
+        StringBuilder conteudo = new StringBuilder();
+        try (Stream<AgendamentoRepository.CalendarioProjection> linhas =
+                     agendamentoRepository.streamCalendario(dataInicio, dataFim, dentistaId)) {
+            linhas.forEach(l -> {
+                CalendarioResponse.Evento evento = new CalendarioResponse.Evento(l.getId(), l.getDataConsulta(),
+                        l.getHoraInicio(), l.getHoraFim(), l.getStatus(), l.getTipoProcedimento(),
+                        l.getDentistaId(), l.getNomeDentista(), l.getPacienteId(), l.getNomePaciente());
+                eventos.add(evento);
+                conteudo.append(l.getId()).append('|').append(l.getDataConsulta()).append('|')
+                        .append(l.getHoraInicio()).append('|').append(l.getHoraFim()).append('|')
+                        .append(l.getStatus()).append('|').append(l.getTipoProcedimento()).append('|')
+                        .append(l.getDentistaId()).append('|').append(l.getNomeDentista()).append('|')
+                        .append(l.getPacienteId()).append('|').append(l.getNomePaciente()).append('\n');
+            });
+        }
+
+        String versao = "\"" + DigestUtils.md5DigestAsHex(conteudo.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return new CalendarioResponse(dataInicio, dataFim, eventos, versao);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<AgendamentoResponse> listarPorStatus(StatusAgendamento status) {
@@ -178,6 +316,7 @@ public class AgendamentoServiceImpl implements AgendamentoService {
 
         registrarHistoricoMudancaStatus(id, statusAnterior, StatusAgendamento.CONFIRMADO,
                 usuario, "Agendamento confirmado");
+        notificador.aoConfirmar(agendamento);
 
         return mapper.toResponse(agendamento);
     }
@@ -222,11 +361,20 @@ public class AgendamentoServiceImpl implements AgendamentoService {
         }
 
         StatusAgendamento statusAnterior = agendamento.getStatus();
+        boolean ocupavaAntes = agendamento.isOcupaHorario();
         agendamento.cancelar(motivo, usuario);
         agendamento = agendamentoRepository.save(agendamento);
+        capacidadeLedger.sincronizar(OcupacaoAgendaIndex.chaveDe(agendamento), ocupavaAntes, agendamento);
+        ocupacaoIndex.sincronizarAposCommit(OcupacaoAgendaIndex.chaveDe(agendamento), agendamento);
 
         registrarHistoricoMudancaStatus(id, statusAnterior, StatusAgendamento.CANCELADO,
                 usuario, "Agendamento cancelado: " + motivo);
+        notificador.aoCancelar(agendamento);
+
+        if (ocupavaAntes) {
+            // Entregue aos ouvintes após o commit (@TransactionalEventListener)
+            eventPublisher.publishEvent(AgendamentoCanceladoEvent.de(agendamento));
+        }
 
         return mapper.toResponse(agendamento);
     }
@@ -236,9 +384,12 @@ public class AgendamentoServiceImpl implements AgendamentoService {
     public AgendamentoResponse marcarFalta(Long id, String usuario) {
         Agendamento agendamento = buscarAgendamentoOuLancarExcecao(id);
         StatusAgendamento statusAnterior = agendamento.getStatus();
+        boolean ocupavaAntes = agendamento.isOcupaHorario();
 
         agendamento.marcarFalta(usuario);
         agendamento = agendamentoRepository.save(agendamento);
+        capacidadeLedger.sincronizar(OcupacaoAgendaIndex.chaveDe(agendamento), ocupavaAntes, agendamento);
+        ocupacaoIndex.sincronizarAposCommit(OcupacaoAgendaIndex.chaveDe(agendamento), agendamento);
 
         registrarHistoricoMudancaStatus(id, statusAnterior, StatusAgendamento.FALTOU,
                 usuario, "Paciente faltou ao agendamento");
@@ -246,37 +397,65 @@ public class AgendamentoServiceImpl implements AgendamentoService {
         return mapper.toResponse(agendamento);
     }
 
+    @Override
+    @Transactional
+    public AgendamentoLoteResponse confirmarEmLote(AgendamentoLoteRequest request) {
+        return alterarStatusEmLote(request, StatusAgendamento.CONFIRMADO, "Agendamento confirmado");
+    }
+
+    @Override
+    @Transactional
+    public AgendamentoLoteResponse concluirEmLote(AgendamentoLoteRequest request) {
+        return alterarStatusEmLote(request, StatusAgendamento.CONCLUIDO, "Agendamento concluído");
+    }
+
+    @Override
+    @Transactional
+    public AgendamentoLoteResponse cancelarEmLote(AgendamentoLoteRequest request) {
+        if (request.getMotivo() == null || request.getMotivo().isBlank()) {
+            throw new IllegalArgumentException("Motivo é obrigatório para cancelamento");
+        }
+        return alterarStatusEmLote(request, StatusAgendamento.CANCELADO,
+                "Agendamento cancelado: " + request.getMotivo());
+    }
+
+    @Override
+    @Transactional
+    public AgendamentoLoteResponse marcarFaltaEmLote(AgendamentoLoteRequest request) {
+        return alterarStatusEmLote(request, StatusAgendamento.FALTOU, "Paciente faltou ao agendamento");
+    }
+
     @Override
     @Transactional
     public void deletar(Long id) {
         Agendamento agendamento = buscarAgendamentoOuLancarExcecao(id);
+        boolean ocupavaAntes = agendamento.isOcupaHorario();
         agendamento.desativar();
         agendamentoRepository.save(agendamento);
+        capacidadeLedger.sincronizar(OcupacaoAgendaIndex.chaveDe(agendamento), ocupavaAntes, agendamento);
+        ocupacaoIndex.sincronizarAposCommit(OcupacaoAgendaIndex.chaveDe(agendamento), agendamento);
+        registrarDiaAlterado(OcupacaoAgendaIndex.chaveDe(agendamento));
 
         registrarHistorico(id, AgendamentoHistorico.TipoAcao.EXCLUSAO,
                 null, "Agendamento desativado");
     }
 
+    // Sem @Transactional: consultas atendidas pelo índice não ocupam conexão do pool
     @Override
-    @Transactional(readOnly = true)
     public boolean verificarDisponibilidade(Long dentistaId, LocalDate data, String horaInicio, String horaFim) {
         LocalTime inicio = LocalTime.parse(horaInicio);
         LocalTime fim = LocalTime.parse(horaFim);
 
-        List<Agendamento> conflitos = agendamentoRepository.findConflitantes(dentistaId, data, inicio, fim);
-        return conflitos.isEmpty();
+        return !ocupacaoIndex.possuiConflito(dentistaId, data, inicio, fim);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean verificarDisponibilidadeParaAtualizacao(Long agendamentoId, Long dentistaId,
                                                            LocalDate data, String horaInicio, String horaFim) {
         LocalTime inicio = LocalTime.parse(horaInicio);
         LocalTime fim = LocalTime.parse(horaFim);
 
-        List<Agendamento> conflitos = agendamentoRepository.findConflitantesExcluindoAgendamento(
-                dentistaId, data, inicio, fim, agendamentoId);
-        return conflitos.isEmpty();
+        return !ocupacaoIndex.possuiConflito(dentistaId, data, inicio, fim, agendamentoId);
     }
 
     @Override
@@ -298,27 +477,190 @@ public class AgendamentoServiceImpl implements AgendamentoService {
                 null, "Lembrete enviado ao paciente");
     }
 
+    @Override
+    @Transactional
+    public int marcarLembretesEnviados(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Já marcados (por outro nó ou execução anterior) ficam fora do UPDATE e do histórico
+        List<Long> pendentes = agendamentoRepository.findIdsSemLembreteParaMarcar(ids);
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        int marcados = agendamentoRepository.marcarLembretesEnviados(pendentes, LocalDateTime.now());
+        historicoRecorder.registrarTodos(pendentes.stream()
+                .map(id -> AgendamentoHistorico.criar(id, AgendamentoHistorico.TipoAcao.LEMBRETE_ENVIADO,
+                        null, "Lembrete enviado ao paciente"))
+                .collect(Collectors.toList()));
+        return marcados;
+    }
+
+    /**
+     * Valida as transições em memória sobre as linhas bloqueadas do lote e
+     * aplica um único UPDATE aos agendamentos aceitos.
+     */
+    private AgendamentoLoteResponse alterarStatusEmLote(AgendamentoLoteRequest request, StatusAgendamento statusNovo,
+                                                        String descricao) {
+        List<Long> ids = request.getIds().stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, AgendamentoRepository.StatusLoteProjection> atuais = agendamentoRepository
+                .findStatusParaAlteracaoEmLote(ids).stream()
+                .collect(Collectors.toMap(AgendamentoRepository.StatusLoteProjection::getId, Function.identity()));
+
+        List<AgendamentoLoteResponse.Resultado> resultados = new ArrayList<>(ids.size());
+        List<AgendamentoRepository.StatusLoteProjection> aceitos = new ArrayList<>();
+        for (Long id : ids) {
+            AgendamentoRepository.StatusLoteProjection atual = atuais.get(id);
+            if (atual == null) {
+                resultados.add(new AgendamentoLoteResponse.Resultado(id, false, null, "Agendamento não encontrado"));
+            } else if (!atual.getStatus().podeMudarPara(statusNovo)) {
+                resultados.add(new AgendamentoLoteResponse.Resultado(id, false, atual.getStatus(),
+                        "Transição de " + atual.getStatus().getDescricao() + " para "
+                                + statusNovo.getDescricao() + " não permitida"));
+            } else {
+                aceitos.add(atual);
+                resultados.add(new AgendamentoLoteResponse.Resultado(id, true, atual.getStatus(), null));
+            }
+        }
+
+        if (aceitos.isEmpty()) {
+            return new AgendamentoLoteResponse(statusNovo, ids.size(), 0, resultados);
+        }
+
+        List<Long> idsAceitos = aceitos.stream()
+                .map(AgendamentoRepository.StatusLoteProjection::getId)
+                .collect(Collectors.toList());
+        Map<OcupacaoAgendaIndex.ChaveAgenda, Long> liberadosPorDia = statusNovo.ocupaHorario() ? Map.of()
+                : aceitos.stream()
+                .filter(a -> a.getStatus().ocupaHorario())
+                .collect(Collectors.groupingBy(
+                        a -> new OcupacaoAgendaIndex.ChaveAgenda(a.getDentistaId(), a.getDataConsulta()),
+                        Collectors.counting()));
+        // Semeados antes do UPDATE, enquanto os agendamentos ainda contam como ocupados
+        capacidadeLedger.semear(liberadosPorDia.keySet());
+
+        String usuario = request.getUsuario();
+        LocalDateTime agora = LocalDateTime.now();
+        switch (statusNovo) {
+            case CONFIRMADO -> agendamentoRepository.confirmarEmLote(idsAceitos, usuario, agora);
+            case CANCELADO -> agendamentoRepository.cancelarEmLote(idsAceitos, request.getMotivo(), usuario, agora);
+            default -> agendamentoRepository.atualizarStatusEmLote(idsAceitos, statusNovo, usuario, agora);
+        }
+
+        historicoRecorder.registrarTodos(aceitos.stream()
+                .map(a -> AgendamentoHistorico.criarMudancaStatus(a.getId(), a.getStatus(), statusNovo,
+                        usuario, descricao))
+                .collect(Collectors.toList()));
+
+        if (statusNovo == StatusAgendamento.CONFIRMADO || statusNovo == StatusAgendamento.CANCELADO) {
+            notificarLote(aceitos, statusNovo);
+        }
+
+        if (!liberadosPorDia.isEmpty()) {
+            liberadosPorDia.forEach((chave, quantidade) -> capacidadeLedger.liberar(chave, quantidade.intValue()));
+            ocupacaoIndex.invalidarAposCommit(liberadosPorDia.keySet());
+        }
+
+        return new AgendamentoLoteResponse(statusNovo, ids.size(), aceitos.size(), resultados);
+    }
+
+    /**
+     * Mesmo efeito da confirmação ou do cancelamento individual para cada
+     * agendamento do lote: notificações no outbox e, no cancelamento, evento de
+     * horário liberado após o commit.
+     */
+    private void notificarLote(List<AgendamentoRepository.StatusLoteProjection> aceitos,
+                               StatusAgendamento statusNovo) {
+        Map<Long, StatusAgendamento> statusAnteriores = aceitos.stream()
+                .collect(Collectors.toMap(AgendamentoRepository.StatusLoteProjection::getId,
+                        AgendamentoRepository.StatusLoteProjection::getStatus));
+
+        for (Agendamento agendamento : agendamentoRepository.findAllWithDetailsByIds(statusAnteriores.keySet())) {
+            if (statusNovo == StatusAgendamento.CONFIRMADO) {
+                notificador.aoConfirmar(agendamento);
+                continue;
+            }
+            notificador.aoCancelar(agendamento);
+            if (statusAnteriores.get(agendamento.getId()).ocupaHorario()) {
+                eventPublisher.publishEvent(AgendamentoCanceladoEvent.de(agendamento));
+            }
+        }
+    }
+
     private Agendamento buscarAgendamentoOuLancarExcecao(Long id) {
         return agendamentoRepository.findByIdAndAtivoTrue(id)
                 .orElseThrow(() -> new EntityNotFoundException("Agendamento não encontrado"));
     }
 
+    private AgendamentoSerieResponse.OcorrenciaResultado avaliarOcorrencia(
+            int indice, List<AgendamentoSerieRequest.Ocorrencia> ocorrencias,
+            List<AgendamentoRepository.IntervaloAgendadoProjection> ocupadosNoDia) {
+        AgendamentoSerieRequest.Ocorrencia ocorrencia = ocorrencias.get(indice);
+
+        List<Long> conflitantes = ocupadosNoDia.stream()
+                .filter(a -> a.getHoraInicio().isBefore(ocorrencia.getHoraFim())
+                        && a.getHoraFim().isAfter(ocorrencia.getHoraInicio()))
+                .map(AgendamentoRepository.IntervaloAgendadoProjection::getId)
+                .collect(Collectors.toList());
+
+        String motivo = conflitantes.isEmpty() ? null : "Horário indisponível para o dentista";
+        for (int j = 0; j < indice && motivo == null; j++) {
+            AgendamentoSerieRequest.Ocorrencia anterior = ocorrencias.get(j);
+            if (anterior.getDataConsulta().equals(ocorrencia.getDataConsulta())
+                    && anterior.getHoraInicio().isBefore(ocorrencia.getHoraFim())
+                    && anterior.getHoraFim().isAfter(ocorrencia.getHoraInicio())) {
+                motivo = "Sobrepõe a ocorrência " + (j + 1) + " da própria série";
+            }
+        }
+
+        return new AgendamentoSerieResponse.OcorrenciaResultado(indice + 1, ocorrencia.getDataConsulta(),
+                ocorrencia.getHoraInicio(), ocorrencia.getHoraFim(), motivo != null, motivo, conflitantes);
+    }
+
+    /**
+     * Marca como conflito as ocorrências que excedem as vagas restantes do dia.
+     * Executado sob o lock de reserva de todos os dias da série.
+     */
+    private int avaliarCapacidade(Long dentistaId, List<AgendamentoSerieResponse.OcorrenciaResultado> resultados) {
+        Map<LocalDate, Integer> vagasPorDia = new HashMap<>();
+        int conflitos = 0;
+        for (AgendamentoSerieResponse.OcorrenciaResultado resultado : resultados) {
+            if (resultado.getConflito()) {
+                continue;
+            }
+            int vagas = vagasPorDia.computeIfAbsent(resultado.getDataConsulta(), data ->
+                    capacidadeLedger.consultarVagas(new OcupacaoAgendaIndex.ChaveAgenda(dentistaId, data)));
+            if (vagas <= 0) {
+                resultado.setConflito(true);
+                resultado.setMotivo("Capacidade diária do dentista atingida");
+                conflitos++;
+            } else {
+                vagasPorDia.put(resultado.getDataConsulta(), vagas - 1);
+            }
+        }
+        return conflitos;
+    }
+
     private void validarHorarios(LocalTime horaInicio, LocalTime horaFim) {
         if (horaInicio.isAfter(horaFim) || horaInicio.equals(horaFim)) {
             throw new IllegalArgumentException("Hora de início deve ser anterior à hora de fim");
         }
     }
 
+    private void registrarDiaAlterado(OcupacaoAgendaIndex.ChaveAgenda chave) {
+        diaAlteradoRepository.save(new AgendaDiaAlterado(chave.dentistaId(), chave.data()));
+    }
+
     private void registrarHistorico(Long agendamentoId, AgendamentoHistorico.TipoAcao acao,
                                     String usuario, String descricao) {
         AgendamentoHistorico historico = AgendamentoHistorico.criar(agendamentoId, acao, usuario, descricao);
-        historicoRepository.save(historico);
+        historicoRecorder.registrar(historico);
     }
 
     private void registrarHistoricoMudancaStatus(Long agendamentoId, StatusAgendamento statusAnterior,
                                                  StatusAgendamento statusNovo, String usuario, String descricao) {
         AgendamentoHistorico historico = AgendamentoHistorico.criarMudancaStatus(
                 agendamentoId, statusAnterior, statusNovo, usuario, descricao);
-        historicoRepository.save(historico);
+        historicoRecorder.registrar(historico);
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package consultorio.domain.service.agendamento.impl;
+
+import consultorio.api.dto.response.agendamento.disponibilidade.HorarioLivreResponse;
+import consultorio.api.dto.response.agendamento.disponibilidade.MatrizDisponibilidadeResponse;
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.domain.entity.agendamento.FilaEspera;
+import consultorio.domain.repository.agendamento.AgendaDiaAlteradoRepository;
+import consultorio.domain.repository.agendamento.AgendamentoRepository;
+import consultorio.domain.repository.pessoa.DentistaRepository;
+import consultorio.domain.service.agendamento.DisponibilidadeService;
+import consultorio.domain.service.agendamento.ocupacao.CapacidadeAgendaLedger;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoAgendaIndex;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoDiaria;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class DisponibilidadeServiceImpl implements DisponibilidadeService {
+
+    private static final int MAXIMO_DIAS_BUSCA = 31;
+    private static final int DIAS_MATRIZ_PADRAO = 7;
+
+    private final AgendamentoRepository agendamentoRepository;
+    private final DentistaRepository dentistaRepository;
+    private final AgendamentoProperties properties;
+    private final CapacidadeAgendaLedger capacidadeLedger;
+    private final AgendaDiaAlteradoRepository diaAlteradoRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<HorarioLivreResponse> buscarHorariosLivres(Long dentistaId, LocalDate dataInicio, LocalDate dataFim,
+                                                           Integer duracaoMinutos,
+                                                           FilaEspera.PeriodoPreferencial periodo,
+                                                           Pageable pageable) {
+        validarPeriodo(dataInicio, dataFim);
+        int duracao = resolverDuracao(duracaoMinutos);
+
+        if (!dentistaRepository.existsById(dentistaId)) {
+            throw new EntityNotFoundException("Dentista não encontrado");
+        }
+
+        Map<LocalDate, OcupacaoDiaria> ocupacaoPorDia = new HashMap<>();
+        for (Agendamento agendamento : agendamentoRepository.findByDentistaAndPeriodo(dentistaId, dataInicio, dataFim)) {
+            if (agendamento.isOcupaHorario()) {
+                ocupacaoPorDia.computeIfAbsent(agendamento.getDataConsulta(), d -> new OcupacaoDiaria())
+                        .ocupar(agendamento.getHoraInicio(), agendamento.getHoraFim());
+            }
+        }
+
+        Map<OcupacaoAgendaIndex.ChaveAgenda, Integer> vagasPorDia =
+                capacidadeLedger.vagasRestantesPorPeriodo(dentistaId, dataInicio, dataFim);
+
+        List<HorarioLivreResponse> livres = new ArrayList<>();
+        OcupacaoDiaria diaLivre = new OcupacaoDiaria();
+        for (LocalDate data = dataInicio; !data.isAfter(dataFim); data = data.plusDays(1)) {
+            int vagas = vagasPorDia.getOrDefault(new OcupacaoAgendaIndex.ChaveAgenda(dentistaId, data),
+                    capacidadeLedger.getCapacidadeMaxima());
+            if (vagas <= 0) {
+                continue;
+            }
+            OcupacaoDiaria ocupacao = ocupacaoPorDia.getOrDefault(data, diaLivre);
+            AgendamentoProperties.Horario horario = properties.getHorario();
+            adicionarLivres(livres, dentistaId, data, vagas, ocupacao, horario.getInicioManha(), horario.getFimManha(),
+                    FilaEspera.PeriodoPreferencial.MANHA, duracao);
+            adicionarLivres(livres, dentistaId, data, vagas, ocupacao, horario.getInicioTarde(), horario.getFimTarde(),
+                    FilaEspera.PeriodoPreferencial.TARDE, duracao);
+        }
+
+        livres.sort(ordenacao(periodo));
+        return paginar(livres, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MatrizDisponibilidadeResponse gerarMatriz(LocalDate dataInicio, LocalDate dataFim,
+                                                     LocalDateTime alteradoDesde) {
+        LocalDate fim = dataFim != null ? dataFim : dataInicio.plusDays(DIAS_MATRIZ_PADRAO - 1);
+        validarPeriodo(dataInicio, fim);
+
+        // Capturado antes das consultas para que alterações concorrentes apareçam na próxima atualização
+        LocalDateTime geradoEm = LocalDateTime.now();
+        List<Integer> horarios = horariosDaGrade();
+        List<LocalTime> horariosResponse = horarios.stream()
+                .map(m -> LocalTime.of(m / 60, m % 60))
+                .collect(Collectors.toList());
+
+        AgendamentoProperties.Disponibilidade disponibilidade = properties.getDisponibilidade();
+        // Dias liberados mais antigos que a retenção já foram descartados: só a matriz completa é confiável
+        boolean incremental = alteradoDesde != null
+                && alteradoDesde.isAfter(geradoEm.minusHours(disponibilidade.getRetencaoAlteracoesHoras()));
+
+        Set<OcupacaoAgendaIndex.ChaveAgenda> alterados = null;
+        if (incremental) {
+            // Janela recuada: alterações gravadas antes do geradoEm anterior mas
+            // confirmadas depois dele. Dias reenviados sem mudança são inofensivos.
+            LocalDateTime desde = alteradoDesde.minusSeconds(disponibilidade.getMargemIncrementalSegundos());
+            alterados = Stream.concat(
+                            agendamentoRepository.findDiasAlteradosDesde(dataInicio, fim, desde).stream(),
+                            diaAlteradoRepository.findDiasDesde(dataInicio, fim, desde).stream())
+                    .map(d -> new OcupacaoAgendaIndex.ChaveAgenda(d.getDentistaId(), d.getDataConsulta()))
+                    .collect(Collectors.toSet());
+            if (alterados.isEmpty()) {
+                return new MatrizDisponibilidadeResponse(dataInicio, fim, horariosResponse, geradoEm, true, List.of());
+            }
+        }
+
+        Map<Long, List<AgendamentoRepository.OcupacaoProjection>> ocupacaoPorDentista = agendamentoRepository
+                .findOcupacaoPorPeriodo(dataInicio, fim).stream()
+                .collect(Collectors.groupingBy(AgendamentoRepository.OcupacaoProjection::getDentistaId));
+
+        Map<OcupacaoAgendaIndex.ChaveAgenda, Integer> vagasPorDia =
+                capacidadeLedger.vagasRestantesPorPeriodo(null, dataInicio, fim);
+
+        Set<OcupacaoAgendaIndex.ChaveAgenda> diasAlterados = alterados;
+        List<MatrizDisponibilidadeResponse.LinhaDentista> linhas = dentistaRepository.findAtivosNomeProjection()
+                .parallelStream()
+                .map(d -> montarLinha(d, ocupacaoPorDentista.getOrDefault(d.getId(), List.of()),
+                        dataInicio, fim, horarios, diasAlterados, vagasPorDia))
+                .filter(linha -> !linha.getOcupacao().isEmpty())
+                .collect(Collectors.toList());
+
+        return new MatrizDisponibilidadeResponse(dataInicio, fim, horariosResponse, geradoEm,
+                incremental, linhas);
+    }
+
+    private MatrizDisponibilidadeResponse.LinhaDentista montarLinha(
+            DentistaRepository.DentistaNomeProjection dentista,
+            List<AgendamentoRepository.OcupacaoProjection> agendamentos,
+            LocalDate dataInicio, LocalDate dataFim, List<Integer> horarios,
+            Set<OcupacaoAgendaIndex.ChaveAgenda> diasAlterados,
+            Map<OcupacaoAgendaIndex.ChaveAgenda, Integer> vagasPorDia) {
+
+        Map<LocalDate, OcupacaoDiaria> ocupacaoPorDia = new HashMap<>();
+        for (AgendamentoRepository.OcupacaoProjection agendamento : agendamentos) {
+            ocupacaoPorDia.computeIfAbsent(agendamento.getDataConsulta(), d -> new OcupacaoDiaria())
+                    .ocupar(agendamento.getHoraInicio(), agendamento.getHoraFim());
+        }
+
+        int passo = properties.getDuracao().getMinima();
+        OcupacaoDiaria diaLivre = new OcupacaoDiaria();
+        Map<LocalDate, String> grade = new LinkedHashMap<>();
+        Map<LocalDate, Integer> vagas = new LinkedHashMap<>();
+        for (LocalDate data = dataInicio; !data.isAfter(dataFim); data = data.plusDays(1)) {
+            OcupacaoAgendaIndex.ChaveAgenda chave = new OcupacaoAgendaIndex.ChaveAgenda(dentista.getId(), data);
+            if (diasAlterados != null && !diasAlterados.contains(chave)) {
+                continue;
+            }
+            vagas.put(data, vagasPorDia.getOrDefault(chave, capacidadeLedger.getCapacidadeMaxima()));
+            OcupacaoDiaria ocupacao = ocupacaoPorDia.getOrDefault(data, diaLivre);
+            char[] dia = new char[horarios.size()];
+            for (int i = 0; i < dia.length; i++) {
+                int inicio = horarios.get(i);
+                dia[i] = ocupacao.isLivre(inicio, inicio + passo) ? '0' : '1';
+            }
+            grade.put(data, new String(dia));
+        }
+
+        return new MatrizDisponibilidadeResponse.LinhaDentista(dentista.getId(), dentista.getNome(), grade, vagas);
+    }
+
+    private List<Integer> horariosDaGrade() {
+        AgendamentoProperties.Horario horario = properties.getHorario();
+        int passo = properties.getDuracao().getMinima();
+        List<Integer> horarios = new ArrayList<>();
+        adicionarHorarios(horarios, horario.getInicioManha(), horario.getFimManha(), passo);
+        adicionarHorarios(horarios, horario.getInicioTarde(), horario.getFimTarde(), passo);
+        return horarios;
+    }
+
+    private void adicionarHorarios(List<Integer> horarios, LocalTime inicioJanela, LocalTime fimJanela, int passo) {
+        int fim = OcupacaoDiaria.minutoDoDia(fimJanela);
+        for (int inicio = OcupacaoDiaria.minutoDoDia(inicioJanela); inicio + passo <= fim; inicio += passo) {
+            horarios.add(inicio);
+        }
+    }
+
+    private void adicionarLivres(List<HorarioLivreResponse> livres, Long dentistaId, LocalDate data, int vagas,
+                                 OcupacaoDiaria ocupacao, LocalTime inicioJanela, LocalTime fimJanela,
+                                 FilaEspera.PeriodoPreferencial periodo, int duracao) {
+        int passo = properties.getDuracao().getMinima();
+        int fim = OcupacaoDiaria.minutoDoDia(fimJanela);
+        LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+        for (int inicio = OcupacaoDiaria.minutoDoDia(inicioJanela); inicio + duracao <= fim; inicio += passo) {
+            LocalTime horaInicio = LocalTime.of(inicio / 60, inicio % 60);
+            if (LocalDateTime.of(data, horaInicio).isBefore(agora)) {
+                continue;
+            }
+            if (ocupacao.isLivre(inicio, inicio + duracao)) {
+                livres.add(new HorarioLivreResponse(dentistaId, data, horaInicio,
+                        horaInicio.plusMinutes(duracao), periodo, vagas));
+            }
+        }
+    }
+
+    private Comparator<HorarioLivreResponse> ordenacao(FilaEspera.PeriodoPreferencial periodo) {
+        Comparator<HorarioLivreResponse> cronologica = Comparator
+                .comparing(HorarioLivreResponse::getData)
+                .thenComparing(HorarioLivreResponse::getHoraInicio);
+
+        if (periodo == null || periodo == FilaEspera.PeriodoPreferencial.QUALQUER) {
+            return cronologica;
+        }
+        Comparator<HorarioLivreResponse> preferidoPrimeiro =
+                Comparator.comparing(h -> h.getPeriodo() != periodo);
+        return preferidoPrimeiro.thenComparing(cronologica);
+    }
+
+    private Page<HorarioLivreResponse> paginar(List<HorarioLivreResponse> livres, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(livres);
+        }
+        int inicio = (int) Math.min(pageable.getOffset(), livres.size());
+        int fim = Math.min(inicio + pageable.getPageSize(), livres.size());
+        return new PageImpl<>(livres.subList(inicio, fim), pageable, livres.size());
+    }
+
+    private int resolverDuracao(Integer duracaoMinutos) {
+        AgendamentoProperties.Duracao config = properties.getDuracao();
+        int duracao = duracaoMinutos != null ? duracaoMinutos : config.getPadrao();
+        if (duracao < config.getMinima() || duracao > config.getMaxima()) {
+            throw new IllegalArgumentException("Duração deve estar entre " + config.getMinima()
+                    + " e " + config.getMaxima() + " minutos");
+        }
+        return duracao;
+    }
+
+    private void validarPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("Data final deve ser igual ou posterior à data inicial");
+        }
+        if (ChronoUnit.DAYS.between(dataInicio, dataFim) >= MAXIMO_DIAS_BUSCA) {
+            throw new IllegalArgumentException("Período de busca não pode exceder " + MAXIMO_DIAS_BUSCA + " dias");
+        }
+    }
+}
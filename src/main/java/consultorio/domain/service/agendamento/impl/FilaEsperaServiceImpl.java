@@ -12,14 +12,20 @@ import consultorio.domain.repository.agendamento.FilaEsperaRepository;
 import consultorio.domain.repository.pessoa.DentistaRepository;
 import consultorio.domain.repository.pessoa.PacienteRepository;
 import consultorio.domain.service.agendamento.FilaEsperaService;
+import consultorio.domain.service.agendamento.fila.FilaEsperaMatchingEngine;
+import consultorio.infrastructure.config.properties.FilaEsperaProperties;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +37,9 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
     private final DentistaRepository dentistaRepository;
     private final AgendamentoRepository agendamentoRepository;
     private final FilaEsperaMapper mapper;
+    private final FilaEsperaProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final FilaEsperaMatchingEngine matchingEngine;
 
     @Override
     @Transactional
@@ -55,6 +64,7 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
 
         FilaEspera filaEspera = mapper.toEntity(request, paciente, dentista);
         filaEspera = filaEsperaRepository.save(filaEspera);
+        matchingEngine.sincronizarAposCommit(filaEspera);
 
         return mapper.toResponse(filaEspera);
     }
@@ -79,6 +89,7 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
 
         mapper.updateEntityFromRequest(request, filaEspera, paciente, dentista);
         filaEspera = filaEsperaRepository.save(filaEspera);
+        matchingEngine.sincronizarAposCommit(filaEspera);
 
         return mapper.toResponse(filaEspera);
     }
@@ -146,6 +157,7 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
 
         filaEspera.notificar();
         filaEspera = filaEsperaRepository.save(filaEspera);
+        matchingEngine.sincronizarAposCommit(filaEspera);
 
         return mapper.toResponse(filaEspera);
     }
@@ -164,6 +176,7 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
 
         filaEspera.converterEmAgendamento(agendamento);
         filaEspera = filaEsperaRepository.save(filaEspera);
+        matchingEngine.sincronizarAposCommit(filaEspera);
 
         return mapper.toResponse(filaEspera);
     }
@@ -179,17 +192,29 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
 
         filaEspera.cancelar();
         filaEspera = filaEsperaRepository.save(filaEspera);
+        matchingEngine.sincronizarAposCommit(filaEspera);
 
         return mapper.toResponse(filaEspera);
     }
 
+    // Sem @Transactional: cada lote é uma transação curta
     @Override
-    @Transactional
-    public void expirarFilasAntigas(LocalDate dataLimite) {
-        List<FilaEspera> expiradas = filaEsperaRepository.findExpirados(dataLimite);
-
-        expiradas.forEach(FilaEspera::expirar);
-        filaEsperaRepository.saveAll(expiradas);
+    public int expirarFilasAntigas(LocalDate dataLimite, Runnable antesDoLote, IntConsumer aoConcluirLote) {
+        int tamanhoLote = properties.getExpiracao().getTamanhoLote();
+        int total = 0;
+        int expirados;
+        do {
+            expirados = Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                antesDoLote.run();
+                return filaEsperaRepository.expirarLote(dataLimite, LocalDateTime.now(), tamanhoLote);
+            }), 0);
+            total += expirados;
+            aoConcluirLote.accept(expirados);
+        } while (expirados == tamanhoLote);
+        if (total > 0) {
+            matchingEngine.invalidarAposCommit();
+        }
+        return total;
     }
 
     @Override
@@ -197,6 +222,7 @@ public class FilaEsperaServiceImpl implements FilaEsperaService {
     public void deletar(Long id) {
         FilaEspera filaEspera = buscarFilaOuLancarExcecao(id);
         filaEsperaRepository.delete(filaEspera);
+        matchingEngine.removerAposCommit(id);
     }
 
     private FilaEspera buscarFilaOuLancarExcecao(Long id) {
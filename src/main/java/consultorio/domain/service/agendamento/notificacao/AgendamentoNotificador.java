@@ -0,0 +1,89 @@
+package consultorio.domain.service.agendamento.notificacao;
+
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.domain.repository.notificacao.NotificacaoOutboxRepository;
+import consultorio.infrastructure.external.notificacao.template.ModeloNotificacao;
+import consultorio.infrastructure.external.notificacao.template.NotificacaoTemplates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Monta as notificações das mudanças de um agendamento e as grava no outbox.
+ *
+ * Exige a transação da alteração: a notificação só existe se a alteração for
+ * confirmada. O paciente recebe SMS (o cadastro não possui e-mail); o dentista
+ * recebe e-mail nos cancelamentos.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class AgendamentoNotificador {
+
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final NotificacaoOutboxRepository outboxRepository;
+    private final NotificacaoTemplates templates;
+
+    public void aoCriar(Agendamento agendamento) {
+        smsPaciente(agendamento, ModeloNotificacao.CONSULTA_AGENDADA);
+    }
+
+    public void aoRemarcar(Agendamento agendamento) {
+        smsPaciente(agendamento, ModeloNotificacao.CONSULTA_REMARCADA);
+    }
+
+    public void aoConfirmar(Agendamento agendamento) {
+        smsPaciente(agendamento, ModeloNotificacao.CONSULTA_CONFIRMADA);
+    }
+
+    public void aoCancelar(Agendamento agendamento) {
+        smsPaciente(agendamento, ModeloNotificacao.CONSULTA_CANCELADA_PACIENTE);
+
+        String email = agendamento.getDentista().getEmail();
+        if (email != null && !email.isBlank()) {
+            String motivo = agendamento.getMotivoCancelamento();
+            Map<String, String> valores = valores(agendamento);
+            valores.put("motivo", motivo != null && !motivo.isBlank() ? motivo : "não informado");
+            enfileirar(NotificacaoOutbox.Canal.EMAIL, email,
+                    templates.renderizar(ModeloNotificacao.CONSULTA_CANCELADA_DENTISTA_ASSUNTO, valores),
+                    templates.renderizar(ModeloNotificacao.CONSULTA_CANCELADA_DENTISTA, valores),
+                    agendamento.getId());
+        }
+    }
+
+    private void smsPaciente(Agendamento agendamento, ModeloNotificacao modelo) {
+        String telefone = agendamento.getPaciente().getTelefone();
+        if (telefone != null && !telefone.isBlank()) {
+            enfileirar(NotificacaoOutbox.Canal.SMS, telefone, null,
+                    templates.renderizar(modelo, valores(agendamento)), agendamento.getId());
+        }
+    }
+
+    private static Map<String, String> valores(Agendamento agendamento) {
+        Map<String, String> valores = new HashMap<>();
+        valores.put("paciente", agendamento.getPaciente().getNome());
+        valores.put("dentista", agendamento.getDentista().getNome());
+        valores.put("data", agendamento.getDataConsulta().format(DATA));
+        valores.put("hora", agendamento.getHoraInicio().format(HORA));
+        return valores;
+    }
+
+    private void enfileirar(NotificacaoOutbox.Canal canal, String destinatario, String assunto, String corpo,
+                            Long agendamentoId) {
+        NotificacaoOutbox notificacao = new NotificacaoOutbox();
+        notificacao.setCanal(canal);
+        notificacao.setDestinatario(destinatario);
+        notificacao.setAssunto(assunto);
+        notificacao.setCorpo(corpo);
+        notificacao.setAgendamentoId(agendamentoId);
+        outboxRepository.save(notificacao);
+    }
+}
@@ -0,0 +1,305 @@
+package consultorio.domain.service.agendamento.ocupacao;
+
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controle da capacidade diária ({@code agendamento.capacidade.maxima-por-dia})
+ * de cada dentista.
+ *
+ * A tabela {@code agenda_capacidade} guarda um contador por (dentista, data),
+ * alterado na mesma transação da marcação por um UPDATE condicional: o limite
+ * é aplicado pelo banco sem contar os agendamentos do dia. O contador de um dia
+ * só é calculado a partir de {@code agendamentos} na primeira vez em que é usado;
+ * divergências posteriores são corrigidas pelo
+ * {@code CapacidadeReconciliacaoScheduler}.
+ *
+ * Os valores confirmados ficam em memória para recusar rapidamente dias já
+ * lotados; como o índice de ocupação, cada valor expira após
+ * {@code agendamento.ocupacao.validade-indice-segundos}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CapacidadeAgendaLedger {
+
+    private static final String FILTRO_OCUPA_HORARIO = "ativo = true AND status NOT IN ('CANCELADO', 'FALTOU')";
+
+    private static final String SEMEAR_DIA =
+            "INSERT INTO agenda_capacidade (dentista_id, data, ocupados) " +
+                    "SELECT ?, ?, (SELECT COUNT(*) FROM agendamentos " +
+                    "WHERE dentista_id = ? AND data_consulta = ? AND " + FILTRO_OCUPA_HORARIO + ") " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM agenda_capacidade WHERE dentista_id = ? AND data = ?) " +
+                    "ON CONFLICT (dentista_id, data) DO NOTHING";
+
+    private static final String CONTAR_OCUPADOS =
+            "SELECT COUNT(*) FROM agendamentos WHERE dentista_id = ? AND data_consulta = ? AND " + FILTRO_OCUPA_HORARIO;
+
+    private static final String BUSCAR_DIVERGENTES =
+            "SELECT c.dentista_id, c.data FROM agenda_capacidade c WHERE c.data >= ? " +
+                    "AND c.ocupados <> (SELECT COUNT(*) FROM agendamentos a " +
+                    "WHERE a.dentista_id = c.dentista_id AND a.data_consulta = c.data AND " + FILTRO_OCUPA_HORARIO + ") " +
+                    "ORDER BY c.data, c.dentista_id";
+
+    private static final String SEMEAR_DIAS_FUTUROS =
+            "INSERT INTO agenda_capacidade (dentista_id, data, ocupados) " +
+                    "SELECT dentista_id, data_consulta, COUNT(*) FROM agendamentos " +
+                    "WHERE data_consulta >= CURRENT_DATE AND " + FILTRO_OCUPA_HORARIO + " " +
+                    "GROUP BY dentista_id, data_consulta " +
+                    "ON CONFLICT (dentista_id, data) DO NOTHING";
+
+    private static final String SEMEAR_DENTISTAS_DO_DIA =
+            "INSERT INTO agenda_capacidade (dentista_id, data, ocupados) " +
+                    "SELECT dentista_id, data_consulta, COUNT(*) FROM agendamentos " +
+                    "WHERE data_consulta = ? AND " + FILTRO_OCUPA_HORARIO + " " +
+                    "GROUP BY dentista_id, data_consulta " +
+                    "ON CONFLICT (dentista_id, data) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AgendamentoProperties properties;
+
+    private final ConcurrentMap<OcupacaoAgendaIndex.ChaveAgenda, Entrada> ocupadosPorDia = new ConcurrentHashMap<>();
+
+    private record Entrada(int ocupados, long expiraEmNanos) {
+
+        boolean isValida(long agoraNanos) {
+            return expiraEmNanos - agoraNanos > 0;
+        }
+    }
+
+    public int getCapacidadeMaxima() {
+        return properties.getCapacidade().getMaximaPorDia();
+    }
+
+    /**
+     * Ajusta os contadores conforme a mudança do agendamento. Deve ser chamado
+     * dentro da transação que grava o agendamento.
+     *
+     * @param chaveAnterior dia que o agendamento ocupava, ou null se é novo
+     * @param ocupavaAntes  se o agendamento ocupava horário antes da alteração
+     * @throws IllegalStateException se o novo dia já atingiu a capacidade
+     */
+    public void sincronizar(OcupacaoAgendaIndex.ChaveAgenda chaveAnterior, boolean ocupavaAntes,
+                            Agendamento agendamento) {
+        OcupacaoAgendaIndex.ChaveAgenda chaveAtual = OcupacaoAgendaIndex.chaveDe(agendamento);
+        boolean ocupaAgora = agendamento.isOcupaHorario();
+        boolean mesmoDia = chaveAtual.equals(chaveAnterior);
+
+        if (ocupaAgora && !(ocupavaAntes && mesmoDia)) {
+            reservar(chaveAtual, 1);
+        }
+        if (ocupavaAntes && chaveAnterior != null && !(ocupaAgora && mesmoDia)) {
+            liberar(chaveAnterior, 1);
+        }
+    }
+
+    /**
+     * Ocupa {@code quantidade} vagas do dia ou falha sem alterar o contador.
+     *
+     * @throws IllegalStateException se não houver vagas suficientes
+     */
+    public void reservar(OcupacaoAgendaIndex.ChaveAgenda chave, int quantidade) {
+        int maxima = getCapacidadeMaxima();
+        Entrada conhecida = ocupadosPorDia.get(chave);
+        if (conhecida != null && conhecida.isValida(System.nanoTime()) && conhecida.ocupados() + quantidade > maxima) {
+            throw capacidadeAtingida();
+        }
+
+        Integer ocupados = incrementar(chave, quantidade, maxima);
+        if (ocupados == null) {
+            semear(chave);
+            ocupados = incrementar(chave, quantidade, maxima);
+        }
+        if (ocupados == null) {
+            throw capacidadeAtingida();
+        }
+        publicarAposCommit(chave, ocupados);
+    }
+
+    /**
+     * Devolve {@code quantidade} vagas do dia. O contador é semeado antes, se
+     * ainda não existir: deve ser chamado enquanto a alteração do agendamento
+     * ainda não foi gravada no banco, para que a semeadura o conte como
+     * ocupado. Alterações em lote, que gravam antes de liberar, semeiam os
+     * dias com {@link #semear(Collection)} antes do UPDATE.
+     */
+    public void liberar(OcupacaoAgendaIndex.ChaveAgenda chave, int quantidade) {
+        semear(chave);
+        List<Integer> ocupados = jdbcTemplate.query(
+                "UPDATE agenda_capacidade SET ocupados = GREATEST(ocupados - ?, 0) " +
+                        "WHERE dentista_id = ? AND data = ? RETURNING ocupados",
+                (rs, i) -> rs.getInt(1), quantidade, chave.dentistaId(), Date.valueOf(chave.data()));
+        if (!ocupados.isEmpty()) {
+            publicarAposCommit(chave, ocupados.get(0));
+        }
+    }
+
+    /**
+     * Cria os contadores ainda inexistentes dos dias informados a partir dos
+     * agendamentos atuais.
+     */
+    public void semear(Collection<OcupacaoAgendaIndex.ChaveAgenda> chaves) {
+        chaves.forEach(this::semear);
+    }
+
+    /**
+     * Cria os contadores ainda inexistentes de todos os dentistas com
+     * agendamentos no dia; para alterações em lote que só conhecem os
+     * dentistas afetados depois de gravar.
+     */
+    public void semear(LocalDate data) {
+        jdbcTemplate.update(SEMEAR_DENTISTAS_DO_DIA, Date.valueOf(data));
+    }
+
+    /**
+     * Vagas do dia lidas diretamente do banco. Sob o lock de reserva do dia,
+     * o valor permanece válido até o fim da transação.
+     */
+    public int consultarVagas(OcupacaoAgendaIndex.ChaveAgenda chave) {
+        semear(chave);
+        Integer ocupados = jdbcTemplate.queryForObject(
+                "SELECT ocupados FROM agenda_capacidade WHERE dentista_id = ? AND data = ?",
+                Integer.class, chave.dentistaId(), Date.valueOf(chave.data()));
+        return Math.max(getCapacidadeMaxima() - Objects.requireNonNullElse(ocupados, 0), 0);
+    }
+
+    /**
+     * Vagas restantes por dia no período. Dias sem agendamentos não aparecem no
+     * mapa e têm a capacidade máxima disponível.
+     *
+     * @param dentistaId dentista, ou null para todos
+     */
+    public Map<OcupacaoAgendaIndex.ChaveAgenda, Integer> vagasRestantesPorPeriodo(Long dentistaId,
+                                                                                 LocalDate dataInicio,
+                                                                                 LocalDate dataFim) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT dentista_id, data, ocupados FROM agenda_capacidade WHERE data BETWEEN ? AND ?");
+        List<Object> parametros = new ArrayList<>(List.of(Date.valueOf(dataInicio), Date.valueOf(dataFim)));
+        if (dentistaId != null) {
+            sql.append(" AND dentista_id = ?");
+            parametros.add(dentistaId);
+        }
+
+        int maxima = getCapacidadeMaxima();
+        Map<OcupacaoAgendaIndex.ChaveAgenda, Integer> vagas = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            vagas.put(new OcupacaoAgendaIndex.ChaveAgenda(rs.getLong(1), rs.getDate(2).toLocalDate()),
+                    Math.max(maxima - rs.getInt(3), 0));
+        }, parametros.toArray());
+        return vagas;
+    }
+
+    /**
+     * Cria os contadores dos dias futuros que já têm agendamentos, para que as
+     * consultas por período não dependam de uma marcação prévia em cada dia.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void semearDiasFuturos() {
+        try {
+            int dias = jdbcTemplate.update(SEMEAR_DIAS_FUTUROS);
+            log.info("Capacidade diária: {} dias com agendamentos inicializados", dias);
+        } catch (Exception e) {
+            log.warn("Não foi possível inicializar a capacidade diária: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dias a partir de {@code dataInicio} cujo contador difere da contagem dos
+     * agendamentos. Leitura sem bloqueio: cada dia é conferido de novo por
+     * {@link #reconciliar(OcupacaoAgendaIndex.ChaveAgenda)}.
+     */
+    public List<OcupacaoAgendaIndex.ChaveAgenda> buscarDivergentes(LocalDate dataInicio) {
+        return jdbcTemplate.query(BUSCAR_DIVERGENTES,
+                (rs, i) -> new OcupacaoAgendaIndex.ChaveAgenda(rs.getLong(1), rs.getDate(2).toLocalDate()),
+                Date.valueOf(dataInicio));
+    }
+
+    /**
+     * Recalcula o contador do dia a partir de {@code agendamentos}. Deve rodar
+     * em uma transação própria: o contador é bloqueado antes da contagem, então
+     * marcações em andamento no dia terminam antes e entram na contagem.
+     *
+     * @return o valor anterior, se foi corrigido; vazio se já estava certo
+     */
+    public Optional<Integer> reconciliar(OcupacaoAgendaIndex.ChaveAgenda chave) {
+        Date data = Date.valueOf(chave.data());
+        List<Integer> registrado = jdbcTemplate.queryForList(
+                "SELECT ocupados FROM agenda_capacidade WHERE dentista_id = ? AND data = ? FOR UPDATE",
+                Integer.class, chave.dentistaId(), data);
+        if (registrado.isEmpty()) {
+            return Optional.empty();
+        }
+        Integer real = jdbcTemplate.queryForObject(CONTAR_OCUPADOS, Integer.class, chave.dentistaId(), data);
+        int ocupados = Objects.requireNonNullElse(real, 0);
+        if (registrado.get(0) == ocupados) {
+            return Optional.empty();
+        }
+        jdbcTemplate.update("UPDATE agenda_capacidade SET ocupados = ? WHERE dentista_id = ? AND data = ?",
+                ocupados, chave.dentistaId(), data);
+        publicarAposCommit(chave, ocupados);
+        return Optional.of(registrado.get(0));
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void descartarDiasAnteriores() {
+        LocalDate hoje = LocalDate.now();
+        ocupadosPorDia.keySet().removeIf(chave -> chave.data().isBefore(hoje));
+    }
+
+    private Integer incrementar(OcupacaoAgendaIndex.ChaveAgenda chave, int quantidade, int maxima) {
+        List<Integer> ocupados = jdbcTemplate.query(
+                "UPDATE agenda_capacidade SET ocupados = ocupados + ? " +
+                        "WHERE dentista_id = ? AND data = ? AND ocupados + ? <= ? RETURNING ocupados",
+                (rs, i) -> rs.getInt(1), quantidade, chave.dentistaId(), Date.valueOf(chave.data()),
+                quantidade, maxima);
+        return ocupados.isEmpty() ? null : ocupados.get(0);
+    }
+
+    private void semear(OcupacaoAgendaIndex.ChaveAgenda chave) {
+        Date data = Date.valueOf(chave.data());
+        jdbcTemplate.update(SEMEAR_DIA, chave.dentistaId(), data, chave.dentistaId(), data, chave.dentistaId(), data);
+    }
+
+    private void publicarAposCommit(OcupacaoAgendaIndex.ChaveAgenda chave, int ocupados) {
+        Runnable publicar = () -> ocupadosPorDia.put(chave, new Entrada(ocupados, System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(properties.getOcupacao().getValidadeIndiceSegundos())));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar.run();
+                }
+            });
+        } else {
+            publicar.run();
+        }
+    }
+
+    private IllegalStateException capacidadeAtingida() {
+        return new IllegalStateException("Capacidade diária do dentista atingida ("
+                + getCapacidadeMaxima() + " agendamentos)");
+    }
+}
@@ -0,0 +1,195 @@
+package consultorio.domain.service.agendamento.ocupacao;
+
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.domain.repository.agendamento.AgendamentoRepository;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import consultorio.shared.base.IndiceRecarregavel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice em memória dos horários ocupados por dentista e dia.
+ *
+ * Cada chave (dentista, data) guarda um array imutável de intervalos ordenados
+ * pela hora de início, carregado sob demanda do banco. Alterações confirmadas
+ * são aplicadas somente após o commit da transação, de modo que o índice nunca
+ * enxerga dados que possam sofrer rollback.
+ *
+ * Alterações feitas por outros nós da aplicação não chegam a este índice, por
+ * isso cada dia carregado expira após {@code agendamento.ocupacao.validade-indice-segundos}.
+ *
+ * O índice responde às consultas de disponibilidade; a verificação no banco
+ * permanece como proteção final no momento da gravação.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OcupacaoAgendaIndex {
+
+    private static final int FAIXAS_GERACAO = 64;
+
+    private final AgendamentoRepository agendamentoRepository;
+    private final AgendamentoProperties properties;
+
+    private final ConcurrentMap<ChaveAgenda, Entrada> intervalosPorDia = new ConcurrentHashMap<>();
+
+    /**
+     * Contadores incrementados a cada alteração confirmada. Uma carga do banco
+     * só é publicada se a geração da faixa da chave não mudou durante a consulta.
+     */
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS_GERACAO);
+
+    public record ChaveAgenda(Long dentistaId, LocalDate data) {
+    }
+
+    private record Entrada(Intervalo[] intervalos, long expiraEmNanos) {
+
+        boolean isValida(long agoraNanos) {
+            return expiraEmNanos - agoraNanos > 0;
+        }
+    }
+
+    public record Intervalo(Long agendamentoId, LocalTime horaInicio, LocalTime horaFim) {
+
+        public boolean sobrepoe(LocalTime inicio, LocalTime fim) {
+            return horaInicio.isBefore(fim) && horaFim.isAfter(inicio);
+        }
+    }
+
+    public boolean possuiConflito(Long dentistaId, LocalDate data, LocalTime horaInicio, LocalTime horaFim) {
+        return possuiConflito(dentistaId, data, horaInicio, horaFim, null);
+    }
+
+    public boolean possuiConflito(Long dentistaId, LocalDate data, LocalTime horaInicio, LocalTime horaFim,
+                                  Long agendamentoIgnorado) {
+        for (Intervalo intervalo : carregar(new ChaveAgenda(dentistaId, data))) {
+            if (!intervalo.horaInicio().isBefore(horaFim)) {
+                break;
+            }
+            if (intervalo.sobrepoe(horaInicio, horaFim)
+                    && !intervalo.agendamentoId().equals(agendamentoIgnorado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna os intervalos ocupados do dia, ordenados pela hora de início.
+     */
+    public List<Intervalo> listarOcupados(Long dentistaId, LocalDate data) {
+        return List.of(carregar(new ChaveAgenda(dentistaId, data)));
+    }
+
+    /**
+     * Agenda a atualização do índice para depois do commit da transação corrente.
+     *
+     * @param chaveAnterior chave que o agendamento ocupava antes da alteração,
+     *                      ou null quando se trata de um agendamento novo
+     * @param agendamento   estado já persistido do agendamento
+     */
+    public void sincronizarAposCommit(ChaveAgenda chaveAnterior, Agendamento agendamento) {
+        Long agendamentoId = agendamento.getId();
+        ChaveAgenda chaveAtual = chaveDe(agendamento);
+        Intervalo intervalo = agendamento.isOcupaHorario()
+                ? new Intervalo(agendamentoId, agendamento.getHoraInicio(), agendamento.getHoraFim())
+                : null;
+
+        IndiceRecarregavel.executarAposCommit(() -> aplicar(agendamentoId, chaveAnterior, chaveAtual, intervalo));
+    }
+
+    /**
+     * Descarta os dias informados após o commit; usado por alterações em lote,
+     * que não carregam as entidades. A próxima consulta recarrega o dia do banco.
+     */
+    public void invalidarAposCommit(Collection<ChaveAgenda> chaves) {
+        IndiceRecarregavel.executarAposCommit(() -> chaves.forEach(chave -> {
+            geracoes.incrementAndGet(faixa(chave));
+            intervalosPorDia.remove(chave);
+        }));
+    }
+
+    public static ChaveAgenda chaveDe(Agendamento agendamento) {
+        return new ChaveAgenda(agendamento.getDentista().getId(), agendamento.getDataConsulta());
+    }
+
+    /**
+     * Descarta os dias que já passaram; eles não recebem mais consultas de disponibilidade.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void descartarDiasAnteriores() {
+        LocalDate hoje = LocalDate.now();
+        int antes = intervalosPorDia.size();
+        intervalosPorDia.keySet().removeIf(chave -> chave.data().isBefore(hoje));
+        log.debug("Índice de ocupação: {} dias descartados", antes - intervalosPorDia.size());
+    }
+
+    private Intervalo[] carregar(ChaveAgenda chave) {
+        Entrada atual = intervalosPorDia.get(chave);
+        if (atual != null && atual.isValida(System.nanoTime())) {
+            return atual.intervalos();
+        }
+
+        int faixa = faixa(chave);
+        long geracao = geracoes.get(faixa);
+
+        Intervalo[] carregados = agendamentoRepository
+                .findIntervalosOcupados(chave.dentistaId(), chave.data()).stream()
+                .map(p -> new Intervalo(p.getId(), p.getHoraInicio(), p.getHoraFim()))
+                .toArray(Intervalo[]::new);
+
+        long expiraEm = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(properties.getOcupacao().getValidadeIndiceSegundos());
+        Entrada publicada = intervalosPorDia.compute(chave, (k, existente) -> {
+            if (existente != null && existente.isValida(System.nanoTime())) {
+                return existente;
+            }
+            return geracoes.get(faixa) == geracao ? new Entrada(carregados, expiraEm) : null;
+        });
+        return publicada != null ? publicada.intervalos() : carregados;
+    }
+
+    private void aplicar(Long agendamentoId, ChaveAgenda chaveAnterior, ChaveAgenda chaveAtual, Intervalo intervalo) {
+        if (chaveAnterior != null && !chaveAnterior.equals(chaveAtual)) {
+            geracoes.incrementAndGet(faixa(chaveAnterior));
+            intervalosPorDia.computeIfPresent(chaveAnterior, (k, entrada) ->
+                    new Entrada(substituir(entrada.intervalos(), agendamentoId, null), entrada.expiraEmNanos()));
+        }
+        geracoes.incrementAndGet(faixa(chaveAtual));
+        intervalosPorDia.computeIfPresent(chaveAtual, (k, entrada) ->
+                new Entrada(substituir(entrada.intervalos(), agendamentoId, intervalo), entrada.expiraEmNanos()));
+    }
+
+    private static Intervalo[] substituir(Intervalo[] atuais, Long agendamentoId, Intervalo novo) {
+        List<Intervalo> resultado = new ArrayList<>(atuais.length + 1);
+        for (Intervalo intervalo : atuais) {
+            if (!intervalo.agendamentoId().equals(agendamentoId)) {
+                resultado.add(intervalo);
+            }
+        }
+        if (novo != null) {
+            resultado.add(novo);
+        }
+        Intervalo[] ordenados = resultado.toArray(new Intervalo[0]);
+        Arrays.sort(ordenados, Comparator.comparing(Intervalo::horaInicio));
+        return ordenados;
+    }
+
+    private static int faixa(ChaveAgenda chave) {
+        return Math.floorMod(chave.hashCode(), FAIXAS_GERACAO);
+    }
+}
@@ -0,0 +1,35 @@
+package consultorio.domain.service.agendamento.ocupacao;
+
+import java.time.LocalTime;
+import java.util.BitSet;
+
+/**
+ * Mapa de bits da ocupação de um dia, com um bit por minuto (1440 bits por dia).
+ */
+public final class OcupacaoDiaria {
+
+    public static final int MINUTOS_DIA = 24 * 60;
+
+    private final BitSet minutos = new BitSet(MINUTOS_DIA);
+
+    public static int minutoDoDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    public void ocupar(LocalTime inicio, LocalTime fim) {
+        int minutoInicio = minutoDoDia(inicio);
+        int minutoFim = minutoDoDia(fim);
+        if (minutoFim > minutoInicio) {
+            minutos.set(minutoInicio, minutoFim);
+        }
+    }
+
+    public boolean isLivre(int minutoInicio, int minutoFim) {
+        int proximoOcupado = minutos.nextSetBit(minutoInicio);
+        return proximoOcupado < 0 || proximoOcupado >= minutoFim;
+    }
+
+    public boolean isLivre(LocalTime inicio, LocalTime fim) {
+        return isLivre(minutoDoDia(inicio), minutoDoDia(fim));
+    }
+}
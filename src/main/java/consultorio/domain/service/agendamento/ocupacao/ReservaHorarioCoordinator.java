@@ -0,0 +1,99 @@
+package consultorio.domain.service.agendamento.ocupacao;
+
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa apenas as marcações que disputam o mesmo (dentista, data).
+ *
+ * Dentro do processo, cada chave cai em uma faixa de locks; a espera acontece
+ * antes de abrir a transação, então marcações em fila não seguram conexões do
+ * pool. Entre nós da aplicação, a exclusão é garantida por advisory locks
+ * transacionais do PostgreSQL, liberados automaticamente no commit ou rollback.
+ *
+ * Deve ser chamado fora de uma transação: a operação recebe a própria transação
+ * e os locks locais só são liberados depois do commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservaHorarioCoordinator {
+
+    private static final int FAIXAS = 256;
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 10;
+
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final AgendamentoProperties properties;
+
+    private final ReentrantLock[] locks = criarLocks();
+
+    public <T> T reservar(OcupacaoAgendaIndex.ChaveAgenda chave, Supplier<T> operacao) {
+        return reservar(List.of(chave), operacao);
+    }
+
+    public <T> T reservar(Collection<OcupacaoAgendaIndex.ChaveAgenda> chaves, Supplier<T> operacao) {
+        List<OcupacaoAgendaIndex.ChaveAgenda> ordenadas = chaves.stream()
+                .distinct()
+                .sorted(Comparator.comparing(OcupacaoAgendaIndex.ChaveAgenda::dentistaId)
+                        .thenComparing(OcupacaoAgendaIndex.ChaveAgenda::data))
+                .toList();
+
+        // Faixas sempre adquiridas em ordem crescente para evitar deadlock entre séries
+        int[] faixas = ordenadas.stream().mapToInt(ReservaHorarioCoordinator::faixa).distinct().sorted().toArray();
+        List<ReentrantLock> adquiridos = new ArrayList<>(faixas.length);
+        try {
+            for (int faixa : faixas) {
+                ReentrantLock lock = locks[faixa];
+                if (!lock.tryLock(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Agenda do dentista em uso por outra marcação; tente novamente");
+                }
+                adquiridos.add(lock);
+            }
+
+            return transactionTemplate.execute(status -> {
+                if (properties.getOcupacao().isBloqueioDistribuido()) {
+                    ordenadas.forEach(this::bloquearNoBanco);
+                }
+                return operacao.get();
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Marcação interrompida", e);
+        } finally {
+            for (int i = adquiridos.size() - 1; i >= 0; i--) {
+                adquiridos.get(i).unlock();
+            }
+        }
+    }
+
+    private void bloquearNoBanco(OcupacaoAgendaIndex.ChaveAgenda chave) {
+        RowCallbackHandler ignorar = rs -> {
+        };
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", ignorar,
+                chave.dentistaId().intValue(), (int) chave.data().toEpochDay());
+    }
+
+    static int faixa(OcupacaoAgendaIndex.ChaveAgenda chave) {
+        return Math.floorMod(chave.hashCode(), FAIXAS);
+    }
+
+    private static ReentrantLock[] criarLocks() {
+        ReentrantLock[] locks = new ReentrantLock[FAIXAS];
+        for (int i = 0; i < FAIXAS; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
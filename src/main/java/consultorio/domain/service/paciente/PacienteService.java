@@ -4,11 +4,14 @@ package consultorio.domain.service.paciente;
 import consultorio.api.dto.request.pessoa.PacienteRequest;
 import consultorio.api.dto.response.pessoa.PacienteResponse;
 import consultorio.api.dto.response.pessoa.PacienteResumoResponse;
+import consultorio.domain.service.paciente.paginacao.CursorPaciente;
+import consultorio.infrastructure.response.PaginaCursorResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PacienteService {
 
@@ -43,18 +46,51 @@ public interface PacienteService {
 
     Page<PacienteResponse> listarAtivos(Pageable pageable);
 
+    /**
+     * Listagem paginada por cursor: sem OFFSET e com total opcional. Sem
+     * {@code cursor} começa do início na {@code ordenacao} pedida (padrão: ID);
+     * com cursor, continua na ordenação em que ele foi gerado.
+     */
+    PaginaCursorResponse<PacienteResponse> listarTodosPorCursor(String cursor, Integer tamanho,
+                                                                CursorPaciente.Ordenacao ordenacao,
+                                                                boolean incluirTotal);
+
+    PaginaCursorResponse<PacienteResponse> listarAtivosPorCursor(String cursor, Integer tamanho,
+                                                                 CursorPaciente.Ordenacao ordenacao,
+                                                                 boolean incluirTotal);
+
     List<PacienteResponse> listarInativos();
 
     List<PacienteResumoResponse> listarResumo();
 
     Page<PacienteResumoResponse> listarResumo(Pageable pageable);
 
+    /**
+     * Entrega o resumo de cada paciente ativo, em ordem de id, à medida que as
+     * linhas chegam do banco, sem montar a lista em memória.
+     */
+    void percorrerResumo(Consumer<PacienteResumoResponse> consumidor);
+
     // ==================== BUSCAS POR NOME ====================
 
     List<PacienteResponse> buscarPorNome(String nome);
 
     Page<PacienteResponse> buscarPorNome(String nome, Pageable pageable);
 
+    /**
+     * Busca sem distinção de acentos e maiúsculas, pelo índice do nome
+     * normalizado, ordenada por relevância (a ordenação do Pageable é ignorada).
+     */
+    Page<PacienteResumoResponse> buscarPorNomeIndexado(String nome, Pageable pageable);
+
+    /**
+     * Autocomplete da recepção: nome, CPF, prontuário ou telefone, respondido
+     * pelo índice em memória.
+     *
+     * @param limite quantidade de resultados; null usa o padrão configurado
+     */
+    List<PacienteResumoResponse> autocomplete(String termo, Integer limite);
+
     // ==================== BUSCAS POR CONVÊNIO ====================
 
     List<PacienteResponse> buscarPorConvenio(String convenio);
@@ -80,6 +116,12 @@ public interface PacienteService {
     Page<PacienteResponse> buscarComFiltros(String nome, String cpf, String convenio,
                                             Boolean ativo, Boolean status, Pageable pageable);
 
+    PaginaCursorResponse<PacienteResponse> buscarComFiltrosPorCursor(String nome, String cpf, String convenio,
+                                                                     Boolean ativo, Boolean status,
+                                                                     String cursor, Integer tamanho,
+                                                                     CursorPaciente.Ordenacao ordenacao,
+                                                                     boolean incluirTotal);
+
     // ==================== BUSCAS POR IDADE ====================
 
     List<PacienteResponse> buscarPorFaixaEtaria(Integer idadeMin, Integer idadeMax);
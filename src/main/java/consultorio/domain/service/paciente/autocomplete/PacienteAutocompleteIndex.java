@@ -0,0 +1,408 @@
+package consultorio.domain.service.paciente.autocomplete;
+
+import consultorio.domain.entity.pessoa.Paciente;
+import consultorio.domain.repository.pessoa.PacienteRepository;
+import consultorio.infrastructure.config.properties.PacienteProperties;
+import consultorio.shared.base.IndiceRecarregavel;
+import consultorio.shared.util.StringUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória dos pacientes ativos para o autocomplete da recepção.
+ *
+ * Cada paciente é indexado pelos tokens do nome normalizado (sem acentos, em
+ * minúsculas), pelo número do prontuário e pelos dígitos do CPF e do telefone
+ * (completo, sem DDD e os quatro últimos). Uma busca percorre, em um mapa
+ * ordenado, as chaves que começam com o termo mais longo digitado e confere os
+ * demais termos direto na entrada, então "jose silv" e "4321" (final do
+ * telefone) são respondidos sem ir ao banco.
+ *
+ * Alterações feitas pelo {@code PacienteServiceImpl} entram no índice após o
+ * commit. Alterações de outros nós não chegam aqui, por isso o índice é
+ * recarregado a cada {@code paciente.autocomplete.validade-indice-segundos},
+ * no executor de manutenção: as buscas seguem no índice anterior até a troca.
+ */
+@Slf4j
+@Component
+public class PacienteAutocompleteIndex {
+
+    private static final Pattern SO_DIGITOS_E_PONTUACAO = Pattern.compile("[\\d.\\-/()+]+");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D");
+
+    private static final String CHAVE_NOME = "n:";
+    private static final String CHAVE_PRONTUARIO = "p:";
+    private static final String CHAVE_DIGITOS = "d:";
+
+    /** Candidatos examinados por resultado pedido; limita o custo de termos muito comuns. */
+    private static final int CANDIDATOS_POR_RESULTADO = 20;
+
+    private static final Comparator<Resultado> RELEVANCIA = Comparator
+            .comparingInt(Resultado::relevancia)
+            .thenComparing(r -> r.entrada().nome())
+            .thenComparing(r -> r.entrada().resumo().id());
+
+    private final PacienteRepository pacienteRepository;
+    private final IndiceRecarregavel<Indice> indiceRecarregavel;
+    private final Timer latencia;
+
+    public PacienteAutocompleteIndex(PacienteRepository pacienteRepository,
+                                     PacienteProperties properties,
+                                     MeterRegistry meterRegistry,
+                                     @Qualifier("manutencaoExecutor") Executor manutencaoExecutor) {
+        this.pacienteRepository = pacienteRepository;
+        this.indiceRecarregavel = new IndiceRecarregavel<>("Autocomplete", this::carregar,
+                () -> properties.getAutocomplete().getValidadeIndiceSegundos(), manutencaoExecutor);
+        this.latencia = Timer.builder("paciente.autocomplete.latencia")
+                .description("Tempo de resposta do índice de autocomplete")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dados do paciente devolvidos pelo autocomplete.
+     */
+    public record Resumo(Long id,
+                         String prontuarioNumero,
+                         String nome,
+                         String telefone,
+                         String cpf,
+                         LocalDate dataNascimento,
+                         Boolean status,
+                         String convenio,
+                         String numeroInscricaoConvenio) {
+
+        public static Resumo de(Paciente paciente) {
+            return new Resumo(paciente.getId(), paciente.getProntuarioNumero(), paciente.getNome(),
+                    paciente.getTelefone(), paciente.getCpf(), paciente.getDataNascimento(),
+                    paciente.getDadosBasicos() != null ? paciente.getDadosBasicos().getStatus() : null,
+                    paciente.getConvenio() != null ? paciente.getConvenio().getNomeConvenio() : null,
+                    paciente.getConvenio() != null ? paciente.getConvenio().getNumeroInscricao() : null);
+        }
+
+        static Resumo de(PacienteRepository.PacienteAutocompleteProjection p) {
+            return new Resumo(p.getId(), p.getProntuarioNumero(), p.getNome(), p.getTelefone(), p.getCpf(),
+                    p.getDataNascimento(), p.getStatus(), p.getConvenio(), p.getNumeroInscricaoConvenio());
+        }
+    }
+
+    /**
+     * Resumo acompanhado das formas normalizadas usadas nas comparações.
+     *
+     * @param digitos CPF, telefone completo, telefone sem DDD e últimos quatro
+     *                dígitos do telefone, as formas em que a recepção costuma digitar
+     */
+    private record Entrada(Resumo resumo,
+                           String nome,
+                           String[] tokensNome,
+                           String prontuario,
+                           String[] digitos) {
+
+        static Entrada de(Resumo resumo) {
+            String nome = valorOuVazio(StringUtil.normalizarParaBusca(resumo.nome()));
+            String prontuario = valorOuVazio(StringUtil.normalizarParaBusca(resumo.prontuarioNumero()));
+
+            Set<String> digitos = new LinkedHashSet<>();
+            String cpf = somenteDigitos(resumo.cpf());
+            String telefone = somenteDigitos(resumo.telefone());
+            if (!cpf.isEmpty()) {
+                digitos.add(cpf);
+            }
+            if (!telefone.isEmpty()) {
+                digitos.add(telefone);
+                if (telefone.length() >= 12 && telefone.startsWith("55")) {
+                    telefone = telefone.substring(2);
+                    digitos.add(telefone);
+                }
+                if (telefone.length() >= 10) {
+                    digitos.add(telefone.substring(2));
+                }
+                if (telefone.length() > 4) {
+                    digitos.add(telefone.substring(telefone.length() - 4));
+                }
+            }
+
+            return new Entrada(resumo, nome, nome.isEmpty() ? new String[0] : nome.split(" "), prontuario,
+                    digitos.toArray(String[]::new));
+        }
+
+        Set<String> chaves() {
+            Set<String> chaves = new LinkedHashSet<>();
+            for (String token : tokensNome) {
+                chaves.add(CHAVE_NOME + token);
+            }
+            if (!prontuario.isEmpty()) {
+                chaves.add(CHAVE_PRONTUARIO + prontuario);
+            }
+            for (String valor : digitos) {
+                chaves.add(CHAVE_DIGITOS + valor);
+            }
+            return chaves;
+        }
+
+        boolean corresponde(String termo) {
+            for (String token : tokensNome) {
+                if (token.startsWith(termo)) {
+                    return true;
+                }
+            }
+            if (prontuario.startsWith(termo)) {
+                return true;
+            }
+            String digitosTermo = digitosDoTermo(termo);
+            if (digitosTermo != null) {
+                for (String valor : digitos) {
+                    if (valor.startsWith(digitosTermo)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 0 para o início exato do nome, prontuário, CPF ou telefone completo;
+         * 1 quando o primeiro nome começa com o primeiro termo; 2 para os demais.
+         */
+        int relevancia(String consulta, String[] termos) {
+            if (nome.startsWith(consulta) || prontuario.equals(consulta)) {
+                return 0;
+            }
+            String digitosConsulta = digitosDoTermo(consulta);
+            if (digitosConsulta != null) {
+                for (String valor : digitos) {
+                    if (valor.equals(digitosConsulta)) {
+                        return 0;
+                    }
+                }
+            }
+            if (tokensNome.length > 0 && tokensNome[0].startsWith(termos[0])) {
+                return 1;
+            }
+            return 2;
+        }
+    }
+
+    private record Resultado(Entrada entrada, int relevancia) {
+    }
+
+    /**
+     * Chaves ordenadas apontando para os IDs dos pacientes. Os arrays de IDs
+     * são substituídos (nunca alterados) a cada escrita, e as escritas são
+     * serializadas pelo {@link IndiceRecarregavel}, então as leituras não precisam de trava.
+     */
+    private static final class Indice {
+
+        private final ConcurrentSkipListMap<String, long[]> chaves;
+        private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+
+        /**
+         * Monta o índice de uma vez, sem as cópias que {@link #registrar}
+         * faria a cada paciente de um token comum.
+         */
+        Indice(List<Entrada> entradas) {
+            Map<String, List<Long>> ids = new HashMap<>();
+            for (Entrada entrada : entradas) {
+                Long id = entrada.resumo().id();
+                if (porId.put(id, entrada) != null) {
+                    continue;
+                }
+                for (String chave : entrada.chaves()) {
+                    ids.computeIfAbsent(chave, c -> new ArrayList<>()).add(id);
+                }
+            }
+
+            TreeMap<String, long[]> ordenadas = new TreeMap<>();
+            ids.forEach((chave, lista) -> ordenadas.put(chave, lista.stream().mapToLong(Long::longValue).toArray()));
+            this.chaves = new ConcurrentSkipListMap<>(ordenadas);
+        }
+
+        NavigableMap<String, long[]> faixa(String prefixo) {
+            return chaves.subMap(prefixo, true, prefixo + Character.MAX_VALUE, true);
+        }
+
+        /**
+         * Quantidade de pacientes alcançados pelo termo, contada até passar de {@code teto}.
+         */
+        long estimar(String termo, long teto) {
+            long total = 0;
+            for (String prefixo : prefixosDe(termo)) {
+                for (long[] ids : faixa(prefixo).values()) {
+                    total += ids.length;
+                    if (total > teto) {
+                        return total;
+                    }
+                }
+            }
+            return total;
+        }
+
+        void registrar(Entrada entrada) {
+            long id = entrada.resumo().id();
+            remover(id);
+            porId.put(id, entrada);
+            for (String chave : entrada.chaves()) {
+                chaves.merge(chave, new long[]{id}, (ids, novo) -> {
+                    long[] copia = Arrays.copyOf(ids, ids.length + 1);
+                    copia[ids.length] = id;
+                    return copia;
+                });
+            }
+        }
+
+        void remover(long id) {
+            Entrada anterior = porId.remove(id);
+            if (anterior == null) {
+                return;
+            }
+            for (String chave : anterior.chaves()) {
+                chaves.computeIfPresent(chave, (c, ids) -> {
+                    long[] restantes = Arrays.stream(ids).filter(i -> i != id).toArray();
+                    return restantes.length == 0 ? null : restantes;
+                });
+            }
+        }
+    }
+
+    /**
+     * @return até {@code limite} pacientes ativos que correspondem a todos os
+     * termos digitados, dos mais relevantes para os menos
+     */
+    public List<Resumo> buscar(String texto, int limite) {
+        String consulta = StringUtil.normalizarParaBusca(texto);
+        if (consulta == null || consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Timer.Sample amostra = Timer.start();
+        try {
+            Indice indice = indiceRecarregavel.atual();
+            String[] termos = consulta.split(" ");
+
+            // O termo com menos pacientes guia a varredura; os demais só filtram
+            String guia = termos[0];
+            long menor = indice.estimar(guia, Long.MAX_VALUE);
+            for (int i = 1; i < termos.length && menor > 0; i++) {
+                long estimativa = indice.estimar(termos[i], menor);
+                if (estimativa < menor) {
+                    guia = termos[i];
+                    menor = estimativa;
+                }
+            }
+
+            int maximoCandidatos = limite * CANDIDATOS_POR_RESULTADO;
+            Set<Long> vistos = new HashSet<>();
+            List<Resultado> resultados = new ArrayList<>();
+            varredura:
+            for (String prefixo : prefixosDe(guia)) {
+                for (long[] ids : indice.faixa(prefixo).values()) {
+                    for (long id : ids) {
+                        if (!vistos.add(id)) {
+                            continue;
+                        }
+                        Entrada entrada = indice.porId.get(id);
+                        if (entrada != null && correspondeTodos(entrada, termos)) {
+                            resultados.add(new Resultado(entrada, entrada.relevancia(consulta, termos)));
+                            if (resultados.size() >= maximoCandidatos) {
+                                break varredura;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return resultados.stream()
+                    .sorted(RELEVANCIA)
+                    .limit(limite)
+                    .map(r -> r.entrada().resumo())
+                    .toList();
+        } finally {
+            amostra.stop(latencia);
+        }
+    }
+
+    /**
+     * Atualiza o índice com o estado do paciente após o commit: entra se
+     * estiver ativo e sai caso contrário.
+     */
+    public void sincronizarAposCommit(Paciente paciente) {
+        if (paciente.estaAtivo()) {
+            Entrada entrada = Entrada.de(Resumo.de(paciente));
+            indiceRecarregavel.aplicarAposCommit(indice -> indice.registrar(entrada));
+        } else {
+            removerAposCommit(paciente.getId());
+        }
+    }
+
+    public void removerAposCommit(Long pacienteId) {
+        indiceRecarregavel.aplicarAposCommit(indice -> indice.remover(pacienteId));
+    }
+
+    private static boolean correspondeTodos(Entrada entrada, String[] termos) {
+        for (String termo : termos) {
+            if (!entrada.corresponde(termo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> prefixosDe(String termo) {
+        List<String> prefixos = new ArrayList<>(3);
+        prefixos.add(CHAVE_NOME + termo);
+        prefixos.add(CHAVE_PRONTUARIO + termo);
+        String digitos = digitosDoTermo(termo);
+        if (digitos != null) {
+            prefixos.add(CHAVE_DIGITOS + digitos);
+        }
+        return prefixos;
+    }
+
+    /**
+     * @return os dígitos do termo, se ele tiver apenas dígitos e pontuação de
+     * CPF/telefone; null caso contrário
+     */
+    private static String digitosDoTermo(String termo) {
+        if (!SO_DIGITOS_E_PONTUACAO.matcher(termo).matches()) {
+            return null;
+        }
+        String digitos = somenteDigitos(termo);
+        return digitos.isEmpty() ? null : digitos;
+    }
+
+    private static String somenteDigitos(String texto) {
+        return texto == null ? "" : NAO_DIGITOS.matcher(texto).replaceAll("");
+    }
+
+    private static String valorOuVazio(String texto) {
+        return texto != null ? texto : "";
+    }
+
+    private Indice carregar() {
+        Indice novo = new Indice(pacienteRepository.findAutocompleteAtivos().stream()
+                .map(p -> Entrada.de(Resumo.de(p)))
+                .toList());
+        log.debug("Autocomplete: {} pacientes carregados no índice", novo.porId.size());
+        return novo;
+    }
+}
@@ -7,10 +7,17 @@ import consultorio.api.mapper.pessoa.PacienteMapper;
 import consultorio.domain.entity.pessoa.Paciente;
 import consultorio.domain.repository.pessoa.PacienteRepository;
 import consultorio.domain.service.paciente.PacienteService;
+import consultorio.domain.service.paciente.autocomplete.PacienteAutocompleteIndex;
+import consultorio.domain.service.paciente.paginacao.CursorPaciente;
+import consultorio.domain.service.paciente.paginacao.TotalPacientesCache;
+import consultorio.infrastructure.config.properties.PacienteProperties;
+import consultorio.infrastructure.response.PaginaCursorResponse;
+import consultorio.shared.util.StringUtil;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,7 +25,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -27,10 +37,16 @@ public class PacienteServiceImpl implements PacienteService {
 
     private final PacienteRepository pacienteRepository;
     private final PacienteMapper pacienteMapper;
+    private final PacienteAutocompleteIndex autocompleteIndex;
+    private final PacienteProperties pacienteProperties;
+    private final TotalPacientesCache totalPacientesCache;
 
     private static final String PACIENTE_NAO_ENCONTRADO = "Paciente não encontrado com ID: ";
     private static final String PACIENTE_INATIVO = "Paciente está inativo. ID: ";
 
+    // Abaixo disso o termo não forma trigramas suficientes; a busca passa a ser por prefixo
+    private static final int TAMANHO_MINIMO_TRIGRAMA = 3;
+
     // ==================== CRUD BÁSICO ====================
 
     @Override
@@ -56,6 +72,8 @@ public class PacienteServiceImpl implements PacienteService {
         paciente.setAtualizadoEm(LocalDateTime.now());
 
         Paciente pacienteSalvo = pacienteRepository.save(paciente);
+        autocompleteIndex.sincronizarAposCommit(pacienteSalvo);
+        totalPacientesCache.invalidarAposCommit();
         log.info("Paciente criado com ID: {}", pacienteSalvo.getId());
 
         return pacienteMapper.toResponse(pacienteSalvo);
@@ -100,6 +118,9 @@ public class PacienteServiceImpl implements PacienteService {
         paciente.setAtualizadoEm(LocalDateTime.now());
 
         Paciente pacienteAtualizado = pacienteRepository.save(paciente);
+        autocompleteIndex.sincronizarAposCommit(pacienteAtualizado);
+        // Nome, CPF, convênio e status são filtros da listagem
+        totalPacientesCache.invalidarAposCommit();
         log.info("Paciente atualizado com sucesso. ID: {}", id);
 
         return pacienteMapper.toResponse(pacienteAtualizado);
@@ -121,6 +142,8 @@ public class PacienteServiceImpl implements PacienteService {
         paciente.setAtivo(false);
         paciente.setAtualizadoEm(LocalDateTime.now());
         pacienteRepository.save(paciente);
+        autocompleteIndex.sincronizarAposCommit(paciente);
+        totalPacientesCache.invalidarAposCommit();
 
         log.info("Paciente inativado com sucesso. ID: {}", id);
     }
@@ -141,6 +164,8 @@ public class PacienteServiceImpl implements PacienteService {
         paciente.setAtivo(true);
         paciente.setAtualizadoEm(LocalDateTime.now());
         pacienteRepository.save(paciente);
+        autocompleteIndex.sincronizarAposCommit(paciente);
+        totalPacientesCache.invalidarAposCommit();
 
         log.info("Paciente ativado com sucesso. ID: {}", id);
     }
@@ -155,6 +180,8 @@ public class PacienteServiceImpl implements PacienteService {
         }
 
         pacienteRepository.deleteById(id);
+        autocompleteIndex.removerAposCommit(id);
+        totalPacientesCache.invalidarAposCommit();
         log.info("Paciente excluído permanentemente. ID: {}", id);
     }
 
@@ -228,6 +255,26 @@ public class PacienteServiceImpl implements PacienteService {
         return pacientePage.map(pacienteMapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorResponse<PacienteResponse> listarTodosPorCursor(String cursor, Integer tamanho,
+                                                                       CursorPaciente.Ordenacao ordenacao,
+                                                                       boolean incluirTotal) {
+        log.debug("Listando todos os pacientes por cursor");
+
+        return paginarPorCursor(null, null, null, null, null, cursor, tamanho, ordenacao, incluirTotal);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorResponse<PacienteResponse> listarAtivosPorCursor(String cursor, Integer tamanho,
+                                                                        CursorPaciente.Ordenacao ordenacao,
+                                                                        boolean incluirTotal) {
+        log.debug("Listando pacientes ativos por cursor");
+
+        return paginarPorCursor(null, null, null, true, null, cursor, tamanho, ordenacao, incluirTotal);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<PacienteResponse> listarInativos() {
@@ -255,6 +302,18 @@ public class PacienteServiceImpl implements PacienteService {
         return pacientePage.map(pacienteMapper::toResumoResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void percorrerResumo(Consumer<PacienteResumoResponse> consumidor) {
+        log.debug("Percorrendo resumo de pacientes para exportação");
+
+        // Projeção em vez de entidades: nada se acumula no contexto de persistência
+        try (Stream<PacienteRepository.PacienteAutocompleteProjection> linhas =
+                     pacienteRepository.streamResumoAtivos()) {
+            linhas.map(pacienteMapper::toResumoResponse).forEach(consumidor);
+        }
+    }
+
     // ==================== BUSCAS POR NOME ====================
 
     @Override
@@ -283,6 +342,38 @@ public class PacienteServiceImpl implements PacienteService {
         return pacientePage.map(pacienteMapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PacienteResumoResponse> buscarPorNomeIndexado(String nome, Pageable pageable) {
+        log.debug("Buscando pacientes por nome (indexado): {}", nome);
+
+        String termo = StringUtil.normalizarParaBusca(nome);
+        if (termo == null || termo.isEmpty()) {
+            return listarResumo(pageable);
+        }
+
+        // A ordem é a relevância definida na consulta
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        String escapado = termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+
+        Page<Paciente> pacientePage = termo.length() < TAMANHO_MINIMO_TRIGRAMA
+                ? pacienteRepository.buscarPorPrefixoNomeNormalizado(escapado + "%", pagina)
+                : pacienteRepository.buscarPorNomeNormalizado("%" + escapado + "%", termo, pagina);
+        return pacientePage.map(pacienteMapper::toResumoResponse);
+    }
+
+    @Override
+    public List<PacienteResumoResponse> autocomplete(String termo, Integer limite) {
+        PacienteProperties.Autocomplete config = pacienteProperties.getAutocomplete();
+        int quantidade = limite != null
+                ? Math.max(1, Math.min(limite, config.getLimiteMaximo()))
+                : config.getLimitePadrao();
+
+        return autocompleteIndex.buscar(termo, quantidade).stream()
+                .map(pacienteMapper::toResumoResponse)
+                .toList();
+    }
+
     // ==================== BUSCAS POR CONVÊNIO ====================
 
     @Override
@@ -377,6 +468,58 @@ public class PacienteServiceImpl implements PacienteService {
         return pacientePage.map(pacienteMapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorResponse<PacienteResponse> buscarComFiltrosPorCursor(String nome, String cpf, String convenio,
+                                                                            Boolean ativo, Boolean status,
+                                                                            String cursor, Integer tamanho,
+                                                                            CursorPaciente.Ordenacao ordenacao,
+                                                                            boolean incluirTotal) {
+        log.debug("Buscando pacientes com filtros por cursor - nome: {}, cpf: {}, convênio: {}, ativo: {}, status: {}",
+                nome, cpf, convenio, ativo, status);
+
+        return paginarPorCursor(nome, cpf, convenio, ativo, status, cursor, tamanho, ordenacao, incluirTotal);
+    }
+
+    private PaginaCursorResponse<PacienteResponse> paginarPorCursor(String nome, String cpf, String convenio,
+                                                                    Boolean ativo, Boolean status,
+                                                                    String cursor, Integer tamanho,
+                                                                    CursorPaciente.Ordenacao ordenacao,
+                                                                    boolean incluirTotal) {
+        PacienteProperties.Paginacao paginacao = pacienteProperties.getPaginacao();
+        int quantidade = tamanho == null
+                ? paginacao.getTamanhoPadrao()
+                : Math.max(1, Math.min(tamanho, paginacao.getTamanhoMaximo()));
+
+        CursorPaciente posicao = cursor == null || cursor.isBlank()
+                ? CursorPaciente.inicio(ordenacao != null ? ordenacao : CursorPaciente.Ordenacao.ID)
+                : CursorPaciente.decodificar(cursor);
+
+        // Um paciente a mais só para saber se existe próxima página
+        Pageable limite = PageRequest.of(0, quantidade + 1);
+        List<Paciente> pacientes = posicao.ordenacao() == CursorPaciente.Ordenacao.NOME
+                ? pacienteRepository.findWithFiltersAposNome(nome, cpf, convenio, ativo, status,
+                        posicao.nome(), posicao.id(), limite)
+                : pacienteRepository.findWithFiltersAposId(nome, cpf, convenio, ativo, status,
+                        posicao.id(), limite);
+
+        boolean temProximo = pacientes.size() > quantidade;
+        String proximoCursor = null;
+        if (temProximo) {
+            pacientes = pacientes.subList(0, quantidade);
+            Paciente ultimo = pacientes.get(quantidade - 1);
+            proximoCursor = CursorPaciente.apos(posicao.ordenacao(), ultimo.getDadosBasicos().getNome(),
+                    ultimo.getId()).codificar();
+        }
+
+        Long total = incluirTotal
+                ? totalPacientesCache.obter(Arrays.asList(nome, cpf, convenio, ativo, status),
+                        () -> pacienteRepository.countWithFilters(nome, cpf, convenio, ativo, status))
+                : null;
+
+        return new PaginaCursorResponse<>(pacienteMapper.toResponseList(pacientes), proximoCursor, temProximo, total);
+    }
+
     // ==================== BUSCAS POR IDADE ====================
 
     @Override
@@ -0,0 +1,67 @@
+package consultorio.domain.service.paciente.paginacao;
+
+import consultorio.api.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição em uma listagem de pacientes paginada por chave: a ordenação usada
+ * e a chave do último paciente entregue. Para o cliente é um texto opaco.
+ */
+public record CursorPaciente(Ordenacao ordenacao, String nome, Long id) {
+
+    private static final String VERSAO = "1";
+    private static final String SEPARADOR = "|";
+    private static final String CURSOR_INVALIDO = "Cursor inválido";
+
+    public enum Ordenacao {
+        /** Ordem de cadastro. */
+        ID,
+        /** Ordem alfabética, com o id como desempate. */
+        NOME
+    }
+
+    public static CursorPaciente inicio(Ordenacao ordenacao) {
+        return new CursorPaciente(ordenacao, null, null);
+    }
+
+    public static CursorPaciente apos(Ordenacao ordenacao, String nome, Long id) {
+        return new CursorPaciente(ordenacao, ordenacao == Ordenacao.NOME ? nome : null, id);
+    }
+
+    public boolean isInicio() {
+        return id == null;
+    }
+
+    public String codificar() {
+        // O nome vai por último: pode conter o separador
+        String texto = VERSAO + SEPARADOR + ordenacao + SEPARADOR + id
+                + (nome != null ? SEPARADOR + nome : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws BusinessException se o cursor não foi gerado por {@link #codificar}
+     */
+    public static CursorPaciente decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|", 4);
+            if (partes.length < 3 || !VERSAO.equals(partes[0])) {
+                throw new BusinessException(CURSOR_INVALIDO);
+            }
+
+            Ordenacao ordenacao = Ordenacao.valueOf(partes[1]);
+            Long id = Long.valueOf(partes[2]);
+            String nome = partes.length == 4 ? partes[3] : null;
+            if (ordenacao == Ordenacao.NOME && nome == null) {
+                throw new BusinessException(CURSOR_INVALIDO);
+            }
+            return apos(ordenacao, nome, id);
+        } catch (IllegalArgumentException e) {
+            // Base64, enum e número malformados
+            throw new BusinessException(CURSOR_INVALIDO, e);
+        }
+    }
+}
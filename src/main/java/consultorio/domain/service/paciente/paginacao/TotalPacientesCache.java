@@ -0,0 +1,65 @@
+package consultorio.domain.service.paciente.paginacao;
+
+import consultorio.infrastructure.config.properties.PacienteProperties;
+import consultorio.shared.base.IndiceRecarregavel;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Guarda por alguns segundos o total de pacientes de cada combinação de
+ * filtros, para que navegar pelas páginas de uma listagem não repita o
+ * COUNT(*) a cada página.
+ *
+ * Cadastros, exclusões e mudanças de ativo feitos neste nó descartam os
+ * totais após o commit; os de outros nós podem deixá-lo defasado em até
+ * {@code paciente.paginacao.validade-total-segundos}. Serve para exibição,
+ * não para decidir se há próxima página.
+ */
+@Component
+public class TotalPacientesCache {
+
+    private final PacienteProperties properties;
+    private final Map<List<Object>, Total> totais = new ConcurrentHashMap<>();
+
+    private record Total(long valor, long expiraEm) {
+    }
+
+    public TotalPacientesCache(PacienteProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param filtros valores dos filtros da listagem, na ordem em que a consulta os recebe (nulos permitidos)
+     */
+    public long obter(List<Object> filtros, LongSupplier contar) {
+        long agora = System.currentTimeMillis();
+        Total total = totais.get(filtros);
+        if (total != null && total.expiraEm() > agora) {
+            return total.valor();
+        }
+
+        PacienteProperties.Paginacao paginacao = properties.getPaginacao();
+        if (totais.size() >= paginacao.getTotaisMaximo()) {
+            totais.values().removeIf(t -> t.expiraEm() <= agora);
+            if (totais.size() >= paginacao.getTotaisMaximo()) {
+                totais.clear();
+            }
+        }
+
+        long valor = contar.getAsLong();
+        totais.put(filtros, new Total(valor, agora + paginacao.getValidadeTotalSegundos() * 1000L));
+        return valor;
+    }
+
+    /**
+     * Descarta os totais após o commit da transação corrente (ou imediatamente,
+     * fora de transação).
+     */
+    public void invalidarAposCommit() {
+        IndiceRecarregavel.executarAposCommit(totais::clear);
+    }
+}
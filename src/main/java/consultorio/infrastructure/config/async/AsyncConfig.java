@@ -1,4 +1,127 @@
 package consultorio.infrastructure.config.async;
 
-public class AsyncConfig {
+import consultorio.infrastructure.config.properties.AsyncProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executores usados fora das requisições HTTP, um por tipo de trabalho, para
+ * que um relatório lento ou uma rotina de manutenção não ocupe as threads que
+ * entregam lembretes e notificações.
+ *
+ * Todos têm fila limitada ({@code async.<executor>.*}). Além das métricas
+ * {@code executor.*} publicadas pelo actuator, cada executor registra
+ * {@code executor.saturacao} (threads ativas e fila em relação à capacidade)
+ * e {@code executor.rejeitadas}, com a tag {@code executor}.
+ *
+ * Com {@code async.threads-virtuais=true} as threads dos executores passam a
+ * ser virtuais, mantendo os mesmos limites de fila e de concorrência.
+ *
+ * Respostas assíncronas do Spring MVC que precisam de executor (como as
+ * exportações com StreamingResponseBody) usam o executor de relatórios.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private final AsyncProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(AsyncProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Envio de notificações (e-mail e SMS). Fila limitada: quando cheia, a
+     * thread que submete executa a tarefa, freando o produtor.
+     */
+    @Bean(name = "notificacaoExecutor")
+    public ThreadPoolTaskExecutor notificacaoExecutor() {
+        return criar("notificacao", properties.getNotificacao(), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Relatórios pedidos pela API. Fila cheia rejeita o pedido
+     * (TaskRejectedException, respondida com 503) em vez de acumular consultas
+     * pesadas no banco.
+     */
+    @Bean(name = "relatorioExecutor")
+    public ThreadPoolTaskExecutor relatorioExecutor() {
+        return criar("relatorio", properties.getRelatorio(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Rotinas de manutenção (expiração da fila, por exemplo). Uma por vez; as
+     * rotinas controlam a própria concorrência.
+     */
+    @Bean(name = "manutencaoExecutor")
+    public ThreadPoolTaskExecutor manutencaoExecutor() {
+        return criar("manutencao", properties.getManutencao(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Ouvintes {@code @Async} de eventos de domínio. Fila limitada com
+     * CallerRunsPolicy: sob excesso, o evento é tratado na thread que o publicou.
+     */
+    @Bean(name = "eventoExecutor")
+    public ThreadPoolTaskExecutor eventoExecutor() {
+        return criar("evento", properties.getEvento(), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(relatorioExecutor());
+    }
+
+    private ThreadPoolTaskExecutor criar(String nome, AsyncProperties.Pool pool, RejectedExecutionHandler politica) {
+        Counter rejeitadas = Counter.builder("executor.rejeitadas")
+                .description("Tarefas que encontraram o executor cheio")
+                .tag("executor", nome)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getNucleo());
+        executor.setMaxPoolSize(Math.max(pool.getNucleo(), pool.getMaximo()));
+        executor.setQueueCapacity(pool.getFila());
+        executor.setThreadNamePrefix(nome + "-");
+        if (properties.isThreadsVirtuais()) {
+            executor.setThreadFactory(threadsVirtuais(nome));
+        }
+        executor.setRejectedExecutionHandler((tarefa, pe) -> {
+            rejeitadas.increment();
+            politica.rejectedExecution(tarefa, pe);
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        int capacidade = executor.getMaxPoolSize() + pool.getFila();
+        Gauge.builder("executor.saturacao", executor,
+                        e -> (double) (e.getActiveCount() + e.getQueueSize()) / capacidade)
+                .description("Ocupação do executor: threads ativas e fila sobre a capacidade total")
+                .tag("executor", nome)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    private static ThreadFactory threadsVirtuais(String nome) {
+        try {
+            return new VirtualThreadTaskExecutor(nome + "-").getVirtualThreadFactory();
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalStateException("async.threads-virtuais=true requer Java 21 ou superior", e);
+        }
+    }
 }
@@ -1,4 +1,155 @@
 package consultorio.infrastructure.config.database;
 
+import consultorio.shared.util.StringUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Configurações de banco de dados.
+ *
+ * As entidades de maior volume de inserção usam sequências com alocação em
+ * blocos (pooled), o que permite ao Hibernate agrupar os INSERTs em lotes JDBC.
+ * Em bancos criados quando essas tabelas ainda usavam IDENTITY, as sequências
+ * nascem em 1; o alinhamento abaixo as posiciona após o maior ID existente.
+ *
+ * A busca de pacientes por nome usa a coluna {@code nome_busca} (nome sem
+ * acentos, em minúsculas). Na inicialização, as linhas antigas sem essa coluna
+ * são preenchidas e são criados os índices que o Hibernate não gera: trigramas
+ * (pg_trgm) para "contém" e text_pattern_ops para "começa com". Uma criação
+ * concorrente interrompida deixa o índice INVALID, que o IF NOT EXISTS não
+ * recria; índices nesse estado são apagados e criados de novo.
+ */
+@Slf4j
+@Configuration
 public class DatabaseConfig {
+
+    /**
+     * Deve acompanhar o allocationSize dos @SequenceGenerator das entidades.
+     */
+    public static final int TAMANHO_ALOCACAO_SEQUENCIA = 50;
+
+    private static final int TAMANHO_LOTE_NOME_BUSCA = 1000;
+
+    private record IndiceBusca(String nome, String definicao) {
+    }
+
+    private static final List<IndiceBusca> INDICES_NOME_BUSCA = List.of(
+            new IndiceBusca("idx_paciente_nome_busca_trgm",
+                    "ON pacientes USING gin (nome_busca gin_trgm_ops) WHERE ativo = true"),
+            new IndiceBusca("idx_paciente_nome_busca_prefixo",
+                    "ON pacientes (nome_busca text_pattern_ops) WHERE ativo = true")
+    );
+
+    private record SequenciaTabela(String sequencia, String tabela, String colunaId) {
+    }
+
+    private static final List<SequenciaTabela> SEQUENCIAS = List.of(
+            new SequenciaTabela("agendamentos_seq", "agendamentos", "id"),
+            new SequenciaTabela("agendamento_historico_seq", "agendamento_historico", "id"),
+            new SequenciaTabela("fila_espera_seq", "fila_espera", "id"),
+            new SequenciaTabela("pacientes_seq", "pacientes", "id_paciente"),
+            new SequenciaTabela("plano_dental_seq", "plano_dental", "id_plano"),
+            new SequenciaTabela("evolucoes_tratamento_seq", "evolucoes_tratamento", "id")
+    );
+
+    /**
+     * Roda depois que todos os beans foram criados (o Hibernate já atualizou o
+     * esquema) e antes de o servidor web e os agendamentos começarem, para que
+     * nenhum INSERT use um ID da sequência ainda desalinhada.
+     */
+    @Bean
+    public SmartInitializingSingleton alinharSequencias(JdbcTemplate jdbcTemplate) {
+        return () -> SEQUENCIAS.forEach(s -> alinhar(jdbcTemplate, s));
+    }
+
+    private void alinhar(JdbcTemplate jdbcTemplate, SequenciaTabela s) {
+        try {
+            Long maiorId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + s.colunaId() + "), 0) FROM " + s.tabela(), Long.class);
+            Long ultimoValor = jdbcTemplate.queryForObject(
+                    "SELECT last_value FROM " + s.sequencia(), Long.class);
+
+            // Só há IDs acima do último valor da sequência se vieram da antiga coluna IDENTITY;
+            // nunca retrocede a sequência, pois outros nós podem estar usando blocos já alocados
+            if (maiorId != null && ultimoValor != null && maiorId >= ultimoValor) {
+                jdbcTemplate.queryForObject("SELECT setval(?, ?, false)", Long.class,
+                        s.sequencia(), maiorId + TAMANHO_ALOCACAO_SEQUENCIA);
+                log.info("Sequência {} alinhada após o ID {}", s.sequencia(), maiorId);
+            }
+        } catch (Exception e) {
+            log.warn("Não foi possível alinhar a sequência {}: {}", s.sequencia(), e.getMessage());
+        }
+    }
+
+    @Bean
+    public ApplicationRunner prepararBuscaPacientes(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            preencherNomeBusca(jdbcTemplate);
+            try {
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                INDICES_NOME_BUSCA.forEach(indice -> criarIndice(jdbcTemplate, indice));
+            } catch (Exception e) {
+                log.warn("Não foi possível criar os índices da busca de pacientes: {}", e.getMessage());
+            }
+        };
+    }
+
+    private void criarIndice(JdbcTemplate jdbcTemplate, IndiceBusca indice) {
+        if (Boolean.FALSE.equals(indiceValido(jdbcTemplate, indice.nome()))) {
+            log.warn("Índice {} inválido (criação concorrente interrompida); recriando", indice.nome());
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indice.nome());
+        }
+        try {
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + indice.nome() + " " + indice.definicao());
+        } catch (Exception e) {
+            log.error("Falha ao criar o índice {}: {}", indice.nome(), e.getMessage());
+        }
+
+        Boolean valido = indiceValido(jdbcTemplate, indice.nome());
+        if (!Boolean.TRUE.equals(valido)) {
+            // Um índice inválido não atende consultas, mas ainda pesa em cada escrita
+            if (valido != null) {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indice.nome());
+            }
+            log.error("Índice {} indisponível; a busca de pacientes por nome fará varredura completa",
+                    indice.nome());
+        }
+    }
+
+    /**
+     * @return null se o índice não existir
+     */
+    private static Boolean indiceValido(JdbcTemplate jdbcTemplate, String nome) {
+        List<Boolean> valido = jdbcTemplate.queryForList(
+                "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)", Boolean.class, nome);
+        return valido.isEmpty() ? null : valido.get(0);
+    }
+
+    private void preencherNomeBusca(JdbcTemplate jdbcTemplate) {
+        int total = 0;
+        List<Object[]> lote;
+        do {
+            lote = jdbcTemplate.query(
+                    "SELECT id_paciente, nome_paciente FROM pacientes " +
+                            "WHERE nome_busca IS NULL AND nome_paciente IS NOT NULL " +
+                            "ORDER BY id_paciente LIMIT ?",
+                    (rs, i) -> new Object[]{StringUtil.normalizarParaBusca(rs.getString("nome_paciente")),
+                            rs.getLong("id_paciente")},
+                    TAMANHO_LOTE_NOME_BUSCA);
+            if (!lote.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE pacientes SET nome_busca = ? WHERE id_paciente = ?", lote);
+                total += lote.size();
+            }
+        } while (lote.size() == TAMANHO_LOTE_NOME_BUSCA);
+
+        if (total > 0) {
+            log.info("Nome de busca preenchido em {} pacientes", total);
+        }
+    }
 }
@@ -18,6 +18,9 @@ public class AgendamentoProperties {
     private Capacidade capacidade = new Capacidade();
     private Lembrete lembrete = new Lembrete();
     private Cron cron = new Cron();
+    private Ocupacao ocupacao = new Ocupacao();
+    private Historico historico = new Historico();
+    private Disponibilidade disponibilidade = new Disponibilidade();
 
     @Getter
     @Setter
@@ -47,6 +50,7 @@ public class AgendamentoProperties {
     public static class Lembrete {
         private int antecedenciaDias = 1;
         private LocalTime horarioEnvio = LocalTime.of(9, 0);
+        private int tamanhoLote = 200;
     }
 
     @Getter
@@ -56,5 +60,39 @@ public class AgendamentoProperties {
         private String processarFila = "0 0 */2 * * *";
         private String expirarFilas = "0 0 3 * * *";
         private String marcarFaltas = "0 0 23 * * *";
+        private String descartarDiasAlterados = "0 30 * * * *";
+        private String reconciliarCapacidade = "0 30 2 * * *";
     }
-}
\ No newline at end of file
+
+    @Getter
+    @Setter
+    public static class Ocupacao {
+        private int validadeIndiceSegundos = 30;
+        private boolean bloqueioDistribuido = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Historico {
+        private long intervaloDescargaMs = 1000;
+        private int tamanhoLote = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Disponibilidade {
+        /**
+         * Recuo aplicado ao alteradoDesde da matriz incremental. atualizadoEm é
+         * gravado na escrita, não no commit: uma transação que confirma depois
+         * do geradoEm do cliente, com horário anterior a ele, só é vista se a
+         * janela se sobrepuser. Deve superar a duração da transação mais longa.
+         */
+        private int margemIncrementalSegundos = 120;
+
+        /**
+         * Por quanto tempo os dias liberados por remarcações e exclusões são
+         * guardados. Um alteradoDesde mais antigo recebe a matriz completa.
+         */
+        private int retencaoAlteracoesHoras = 24;
+    }
+}
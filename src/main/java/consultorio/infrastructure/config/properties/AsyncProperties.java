@@ -0,0 +1,34 @@
+package consultorio.infrastructure.config.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "async")
+public class AsyncProperties {
+
+    /** Threads virtuais nos executores (requer Java 21+). */
+    private boolean threadsVirtuais = false;
+
+    private Pool notificacao = new Pool(4, 8, 100);
+    private Pool relatorio = new Pool(1, 2, 10);
+    private Pool evento = new Pool(2, 4, 200);
+    private Pool manutencao = new Pool(1, 1, 10);
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        private int nucleo;
+        private int maximo;
+        /** Tarefas aguardando; acima disso entra a política de rejeição do executor. */
+        private int fila;
+    }
+}
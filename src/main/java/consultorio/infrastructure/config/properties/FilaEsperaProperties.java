@@ -16,6 +16,8 @@ public class FilaEsperaProperties {
     private TentativasContato tentativasContato = new TentativasContato();
     private int diasExpiracao = 30;
     private Notificacao notificacao = new Notificacao();
+    private Expiracao expiracao = new Expiracao();
+    private Processamento processamento = new Processamento();
 
     @Getter
     @Setter
@@ -28,4 +30,17 @@ public class FilaEsperaProperties {
     public static class Notificacao {
         private LocalTime horario = LocalTime.of(10, 0);
     }
-}
\ No newline at end of file
+
+    @Getter
+    @Setter
+    public static class Expiracao {
+        private int tamanhoLote = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Processamento {
+        private int diasAntecedencia = 7;
+        private int validadeIndiceSegundos = 300;
+    }
+}
@@ -0,0 +1,88 @@
+package consultorio.infrastructure.config.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "notificacao")
+public class NotificacaoProperties {
+
+    private Email email = new Email();
+    private Sms sms = new Sms();
+    private Outbox outbox = new Outbox();
+    private Retentativa retentativa = new Retentativa();
+    private Template template = new Template();
+
+    @Getter
+    @Setter
+    public static class Email {
+        private boolean habilitado = false;
+        private String remetente = "no-reply@consultorio.com";
+        private Despacho despacho = new Despacho(5, 10, 2, 50);
+    }
+
+    @Getter
+    @Setter
+    public static class Sms {
+        private boolean habilitado = false;
+        private String gatewayUrl;
+        private String token;
+        private int timeoutMs = 5000;
+        private Despacho despacho = new Despacho(10, 20, 4, 20);
+    }
+
+    /**
+     * Limites de envio de um canal.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Despacho {
+        /** Taxa sustentada aceita pelo provedor. */
+        private double limitePorSegundo;
+        /** Mensagens que podem sair de uma vez acima da taxa. */
+        private int rajada;
+        /** Sessões simultâneas com o provedor (conexões SMTP, por exemplo). */
+        private int sessoes;
+        /** Mensagens enviadas em cada sessão. */
+        private int mensagensPorSessao;
+    }
+
+    /**
+     * Novas tentativas imediatas do dispatcher, antes de devolver a falha ao outbox.
+     */
+    @Getter
+    @Setter
+    public static class Retentativa {
+        private int tentativas = 3;
+        private long esperaInicialMs = 200;
+        private long esperaMaximaMs = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        private long intervaloMs = 5000;
+        private int tamanhoLote = 100;
+        private int maximoLotesPorExecucao = 20;
+        private int maximoTentativas = 8;
+        private int backoffInicialSegundos = 30;
+        private int backoffMaximoSegundos = 3600;
+        /** Prazo de uma reserva; depois dele a notificação volta a ser enviada. */
+        private int reservaSegundos = 300;
+    }
+
+    @Getter
+    @Setter
+    public static class Template {
+        /** Templates com variáveis comuns já vinculadas mantidos em cache. */
+        private int cacheMaximo = 500;
+    }
+}
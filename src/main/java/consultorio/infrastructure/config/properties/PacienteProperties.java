@@ -0,0 +1,35 @@
+package consultorio.infrastructure.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "paciente")
+public class PacienteProperties {
+
+    private Autocomplete autocomplete = new Autocomplete();
+    private Paginacao paginacao = new Paginacao();
+
+    @Getter
+    @Setter
+    public static class Autocomplete {
+        /** Recarga periódica para incorporar alterações feitas por outros nós. */
+        private int validadeIndiceSegundos = 600;
+        private int limitePadrao = 10;
+        private int limiteMaximo = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Paginacao {
+        private int tamanhoPadrao = 20;
+        private int tamanhoMaximo = 100;
+        /** Por quanto tempo o total de uma listagem por cursor é reaproveitado. */
+        private int validadeTotalSegundos = 60;
+        private int totaisMaximo = 1000;
+    }
+}
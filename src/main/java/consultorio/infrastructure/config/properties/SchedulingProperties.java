@@ -0,0 +1,30 @@
+package consultorio.infrastructure.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "scheduling")
+public class SchedulingProperties {
+
+    private Lease lease = new Lease();
+
+    @Getter
+    @Setter
+    public static class Lease {
+        private int duracaoSegundos = 120;
+        private int intervaloRenovacaoSegundos = 30;
+        /**
+         * Tempo mínimo de posse a partir da aquisição, mesmo que a tarefa termine
+         * antes; impede que outro nó, cujo cron dispare alguns instantes depois,
+         * repita o mesmo disparo. Deve ser menor que o intervalo entre disparos.
+         */
+        private int retencaoMinimaSegundos = 60;
+        /** Identificação deste nó; vazio usa o nome do host. */
+        private String no;
+    }
+}
@@ -11,6 +11,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  * - Processamento automático da fila de espera
  * - Expiração de filas antigas
  * - Marcação automática de faltas
+ *
+ * Com mais de um nó, essas tarefas rodam sob o TarefaLeaseManager, que
+ * garante uma única execução por vez no cluster.
  */
 @Configuration
 @EnableScheduling
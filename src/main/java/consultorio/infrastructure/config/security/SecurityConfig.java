@@ -1,6 +1,7 @@
 package consultorio.infrastructure.config.security;
 
 import consultorio.infrastructure.config.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +36,11 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> {})
                 .authorizeHttpRequests(auth -> auth
+                        // Redespachos de respostas assíncronas (CompletableFuture, StreamingResponseBody)
+                        // e de erro: a requisição original já foi autorizada, e o filtro JWT não
+                        // roda de novo nesses despachos
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // Endpoints públicos
                         .requestMatchers(
                                 "/api/auth/login",
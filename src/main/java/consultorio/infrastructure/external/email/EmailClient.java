@@ -1,4 +1,98 @@
 package consultorio.infrastructure.external.email;
 
-public class EmailClient {
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import consultorio.infrastructure.external.notificacao.CanalDesabilitadoException;
+import consultorio.infrastructure.external.notificacao.CanalNotificacao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envio de e-mails em texto simples. Com {@code notificacao.email.habilitado=false}
+ * nenhuma mensagem é enviada e cada envio falha com {@link CanalDesabilitadoException}.
+ *
+ * Como canal do dispatcher, cada lote é enviado em uma única conexão SMTP.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailClient implements CanalNotificacao {
+
+    private final JavaMailSender mailSender;
+    private final NotificacaoProperties properties;
+
+    public void enviar(String destinatario, String assunto, String corpo) {
+        if (!isHabilitado()) {
+            log.debug("E-mail não enviado (desabilitado) para {}: {}", destinatario, assunto);
+            throw new CanalDesabilitadoException(getCanal());
+        }
+        mailSender.send(criarMensagem(destinatario, assunto, corpo));
+    }
+
+    @Override
+    public NotificacaoOutbox.Canal getCanal() {
+        return NotificacaoOutbox.Canal.EMAIL;
+    }
+
+    @Override
+    public NotificacaoProperties.Despacho getDespacho() {
+        return properties.getEmail().getDespacho();
+    }
+
+    @Override
+    public boolean isHabilitado() {
+        return properties.getEmail().isHabilitado();
+    }
+
+    @Override
+    public Map<Integer, Exception> enviar(List<Mensagem> mensagens) {
+        if (!isHabilitado()) {
+            Map<Integer, Exception> naoEnviadas = new HashMap<>();
+            CanalDesabilitadoException desabilitado = new CanalDesabilitadoException(getCanal());
+            for (int i = 0; i < mensagens.size(); i++) {
+                naoEnviadas.put(i, desabilitado);
+            }
+            return naoEnviadas;
+        }
+
+        SimpleMailMessage[] lote = mensagens.stream()
+                .map(m -> criarMensagem(m.destinatario(), m.assunto(), m.corpo()))
+                .toArray(SimpleMailMessage[]::new);
+        Map<Integer, Exception> falhas = new HashMap<>();
+        try {
+            // JavaMailSender envia o array inteiro na mesma conexão
+            mailSender.send(lote);
+        } catch (MailSendException e) {
+            Map<Object, Exception> falhasPorMensagem = e.getFailedMessages();
+            for (int i = 0; i < lote.length; i++) {
+                Exception falha = falhasPorMensagem.isEmpty() ? e : falhasPorMensagem.get(lote[i]);
+                if (falha != null) {
+                    falhas.put(i, falha);
+                }
+            }
+        } catch (MailException e) {
+            for (int i = 0; i < lote.length; i++) {
+                falhas.put(i, e);
+            }
+        }
+        return falhas;
+    }
+
+    private SimpleMailMessage criarMensagem(String destinatario, String assunto, String corpo) {
+        SimpleMailMessage mensagem = new SimpleMailMessage();
+        mensagem.setFrom(properties.getEmail().getRemetente());
+        mensagem.setTo(destinatario);
+        mensagem.setSubject(assunto);
+        mensagem.setText(corpo);
+        return mensagem;
+    }
 }
@@ -1,4 +1,132 @@
 package consultorio.infrastructure.external.email;
 
-public class EmailTemplate {
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Template de mensagem já compilado.
+ *
+ * O texto é analisado uma única vez em {@link #compilar}: os marcadores
+ * {@code {{variavel}}} viram posições fixas entre trechos estáticos, e a
+ * renderização apenas concatena trechos e valores em um buffer do tamanho
+ * certo, sem regex nem nova análise por mensagem.
+ *
+ * {@link #vincular} fixa parte das variáveis e devolve outro template com esses
+ * valores incorporados ao texto estático, para reaproveitar o que é igual entre
+ * vários destinatários (data, dentista etc.).
+ */
+public final class EmailTemplate {
+
+    private static final String ABRE = "{{";
+    private static final String FECHA = "}}";
+
+    @Getter
+    private final String nome;
+    private final String[] trechos;
+    private final String[] variaveis;
+    private final int tamanhoEstatico;
+
+    private EmailTemplate(String nome, List<String> trechos, List<String> variaveis) {
+        this.nome = nome;
+        this.trechos = trechos.toArray(String[]::new);
+        this.variaveis = variaveis.toArray(String[]::new);
+        int tamanho = 0;
+        for (String trecho : this.trechos) {
+            tamanho += trecho.length();
+        }
+        this.tamanhoEstatico = tamanho;
+    }
+
+    public static EmailTemplate compilar(String nome, String fonte) {
+        List<String> trechos = new ArrayList<>();
+        List<String> variaveis = new ArrayList<>();
+
+        int posicao = 0;
+        int abre;
+        while ((abre = fonte.indexOf(ABRE, posicao)) >= 0) {
+            int fecha = fonte.indexOf(FECHA, abre + ABRE.length());
+            if (fecha < 0) {
+                throw new IllegalArgumentException("Marcador não fechado no template " + nome + " na posição " + abre);
+            }
+            String variavel = fonte.substring(abre + ABRE.length(), fecha).strip();
+            if (variavel.isEmpty()) {
+                throw new IllegalArgumentException("Marcador vazio no template " + nome + " na posição " + abre);
+            }
+            trechos.add(fonte.substring(posicao, abre));
+            variaveis.add(variavel);
+            posicao = fecha + FECHA.length();
+        }
+        trechos.add(fonte.substring(posicao));
+
+        return new EmailTemplate(nome, trechos, variaveis);
+    }
+
+    public Set<String> getVariaveis() {
+        return new LinkedHashSet<>(List.of(variaveis));
+    }
+
+    /**
+     * @return true se não restam variáveis, ou seja, o texto é sempre o mesmo
+     */
+    public boolean isEstatico() {
+        return variaveis.length == 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException se faltar valor para alguma variável
+     */
+    public String renderizar(Map<String, ?> valores) {
+        if (variaveis.length == 0) {
+            return trechos[0];
+        }
+
+        String[] resolvidos = new String[variaveis.length];
+        int tamanho = tamanhoEstatico;
+        for (int i = 0; i < variaveis.length; i++) {
+            Object valor = valores.get(variaveis[i]);
+            if (valor == null && !valores.containsKey(variaveis[i])) {
+                throw new IllegalArgumentException("Variável " + variaveis[i] + " não informada para o template " + nome);
+            }
+            resolvidos[i] = valor != null ? valor.toString() : "";
+            tamanho += resolvidos[i].length();
+        }
+
+        StringBuilder texto = new StringBuilder(tamanho);
+        for (int i = 0; i < variaveis.length; i++) {
+            texto.append(trechos[i]).append(resolvidos[i]);
+        }
+        return texto.append(trechos[variaveis.length]).toString();
+    }
+
+    /**
+     * Incorpora ao texto estático as variáveis presentes em {@code valores}.
+     * As demais continuam como variáveis no template devolvido.
+     */
+    public EmailTemplate vincular(Map<String, ?> valores) {
+        List<String> novosTrechos = new ArrayList<>();
+        List<String> novasVariaveis = new ArrayList<>();
+
+        StringBuilder atual = new StringBuilder(trechos[0]);
+        for (int i = 0; i < variaveis.length; i++) {
+            if (valores.containsKey(variaveis[i])) {
+                Object valor = valores.get(variaveis[i]);
+                atual.append(valor != null ? valor.toString() : "").append(trechos[i + 1]);
+            } else {
+                novosTrechos.add(atual.toString());
+                novasVariaveis.add(variaveis[i]);
+                atual = new StringBuilder(trechos[i + 1]);
+            }
+        }
+        novosTrechos.add(atual.toString());
+
+        if (novasVariaveis.size() == variaveis.length) {
+            return this;
+        }
+        return new EmailTemplate(nome, novosTrechos, novasVariaveis);
+    }
 }
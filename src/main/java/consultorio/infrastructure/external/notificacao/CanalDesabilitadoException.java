@@ -0,0 +1,15 @@
+package consultorio.infrastructure.external.notificacao;
+
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+
+/**
+ * Lançada quando uma mensagem é entregue a um canal desligado por
+ * configuração ({@code notificacao.<canal>.habilitado=false}). A mensagem não
+ * foi enviada e não deve ser tratada como entregue.
+ */
+public class CanalDesabilitadoException extends RuntimeException {
+
+    public CanalDesabilitadoException(NotificacaoOutbox.Canal canal) {
+        super("Canal de notificação desabilitado: " + canal);
+    }
+}
@@ -0,0 +1,34 @@
+package consultorio.infrastructure.external.notificacao;
+
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canal de envio usado pelo {@link NotificacaoDispatcher}. Cada implementação
+ * registrada como bean passa a atender o canal que declara.
+ */
+public interface CanalNotificacao {
+
+    NotificacaoOutbox.Canal getCanal();
+
+    NotificacaoProperties.Despacho getDespacho();
+
+    /**
+     * Canais desligados por configuração não enviam nada; as mensagens entregues
+     * a eles voltam como falha ({@link CanalDesabilitadoException}).
+     */
+    boolean isHabilitado();
+
+    /**
+     * Envia as mensagens em uma única sessão com o provedor, quando o provedor permite.
+     *
+     * @return falhas indexadas pela posição da mensagem na lista; vazio se todas foram enviadas
+     */
+    Map<Integer, Exception> enviar(List<Mensagem> mensagens);
+
+    record Mensagem(String destinatario, String assunto, String corpo) {
+    }
+}
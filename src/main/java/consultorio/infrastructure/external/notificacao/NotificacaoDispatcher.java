@@ -0,0 +1,218 @@
+package consultorio.infrastructure.external.notificacao;
+
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Distribui mensagens pelos canais de notificação respeitando os limites de
+ * cada provedor.
+ *
+ * As mensagens de um canal são divididas em lotes de
+ * {@code mensagensPorSessao}, enviados em paralelo no executor de notificações
+ * com no máximo {@code sessoes} lotes abertos por canal. Antes de cada lote, o
+ * balde de fichas do canal aplica {@code limitePorSegundo}/{@code rajada}.
+ * Mensagens que falham são reenviadas algumas vezes com espera exponencial e
+ * jitter ({@code notificacao.retentativa}); o que continuar falhando volta para
+ * quem chamou, que decide quando tentar de novo. Em um canal desabilitado todas
+ * as mensagens voltam como falha, sem novas tentativas.
+ */
+@Component
+public class NotificacaoDispatcher {
+
+    private final NotificacaoProperties properties;
+    private final Executor notificacaoExecutor;
+    private final Map<NotificacaoOutbox.Canal, Estado> estados = new EnumMap<>(NotificacaoOutbox.Canal.class);
+
+    private static final class Estado {
+
+        private final CanalNotificacao canal;
+        private final TokenBucket limite;
+        private final Semaphore sessoes;
+        private final AtomicInteger naFila = new AtomicInteger();
+        private final Timer latencia;
+        private final Timer esperaLimite;
+        private final Counter enviadas;
+        private final Counter falhas;
+        private final Counter retentativas;
+
+        private Estado(CanalNotificacao canal, MeterRegistry meterRegistry) {
+            NotificacaoProperties.Despacho despacho = canal.getDespacho();
+            String nome = canal.getCanal().name().toLowerCase();
+            this.canal = canal;
+            this.limite = new TokenBucket(despacho.getLimitePorSegundo(), despacho.getRajada());
+            this.sessoes = new Semaphore(Math.max(1, despacho.getSessoes()));
+
+            Gauge.builder("notificacao.dispatcher.fila", naFila, AtomicInteger::get)
+                    .description("Mensagens aguardando envio no canal")
+                    .tag("canal", nome)
+                    .register(meterRegistry);
+            this.latencia = Timer.builder("notificacao.dispatcher.latencia")
+                    .description("Duração de cada sessão de envio com o provedor")
+                    .tag("canal", nome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            this.esperaLimite = Timer.builder("notificacao.dispatcher.espera.limite")
+                    .description("Tempo aguardando o limite de taxa do canal")
+                    .tag("canal", nome)
+                    .register(meterRegistry);
+            this.enviadas = Counter.builder("notificacao.dispatcher.enviadas").tag("canal", nome)
+                    .register(meterRegistry);
+            this.falhas = Counter.builder("notificacao.dispatcher.falhas").tag("canal", nome)
+                    .register(meterRegistry);
+            this.retentativas = Counter.builder("notificacao.dispatcher.retentativas").tag("canal", nome)
+                    .register(meterRegistry);
+        }
+    }
+
+    public NotificacaoDispatcher(List<CanalNotificacao> canais,
+                                 NotificacaoProperties properties,
+                                 @Qualifier("notificacaoExecutor") Executor notificacaoExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.notificacaoExecutor = notificacaoExecutor;
+        for (CanalNotificacao canal : canais) {
+            estados.put(canal.getCanal(), new Estado(canal, meterRegistry));
+        }
+    }
+
+    public boolean isHabilitado(NotificacaoOutbox.Canal canal) {
+        Estado estado = estados.get(canal);
+        return estado != null && estado.canal.isHabilitado();
+    }
+
+    /**
+     * Envia as mensagens pelo canal.
+     *
+     * @return quando todas terminarem, as mensagens de erro indexadas pela
+     * posição na lista; vazio se todas foram enviadas
+     */
+    public CompletableFuture<Map<Integer, String>> despachar(NotificacaoOutbox.Canal canal,
+                                                            List<CanalNotificacao.Mensagem> mensagens) {
+        Estado estado = estados.get(canal);
+        if (estado == null) {
+            throw new IllegalArgumentException("Canal de notificação não configurado: " + canal);
+        }
+        if (mensagens.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        if (!estado.canal.isHabilitado()) {
+            String erro = new CanalDesabilitadoException(canal).getMessage();
+            Map<Integer, String> naoEnviadas = new HashMap<>();
+            for (int i = 0; i < mensagens.size(); i++) {
+                naoEnviadas.put(i, erro);
+            }
+            return CompletableFuture.completedFuture(naoEnviadas);
+        }
+
+        estado.naFila.addAndGet(mensagens.size());
+        int porSessao = Math.max(1, estado.canal.getDespacho().getMensagensPorSessao());
+        List<CompletableFuture<Map<Integer, String>>> lotes = new ArrayList<>();
+        for (int inicio = 0; inicio < mensagens.size(); inicio += porSessao) {
+            List<Integer> indices = IntStream.range(inicio, Math.min(inicio + porSessao, mensagens.size()))
+                    .boxed()
+                    .toList();
+            lotes.add(CompletableFuture.supplyAsync(() -> enviarLote(estado, mensagens, indices), notificacaoExecutor));
+        }
+
+        return CompletableFuture.allOf(lotes.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    Map<Integer, String> falhas = new HashMap<>();
+                    lotes.forEach(lote -> falhas.putAll(lote.join()));
+                    return falhas;
+                });
+    }
+
+    private Map<Integer, String> enviarLote(Estado estado, List<CanalNotificacao.Mensagem> mensagens,
+                                            List<Integer> indices) {
+        NotificacaoProperties.Retentativa retentativa = properties.getRetentativa();
+        Map<Integer, String> falhas = new HashMap<>();
+        List<Integer> pendentes = indices;
+        try {
+            for (int tentativa = 1; ; tentativa++) {
+                List<CanalNotificacao.Mensagem> lote = pendentes.stream().map(mensagens::get).toList();
+                Map<Integer, Exception> erros = enviarSessao(estado, lote);
+                estado.enviadas.increment(lote.size() - erros.size());
+                if (erros.isEmpty()) {
+                    return falhas;
+                }
+
+                List<Integer> falharam = new ArrayList<>();
+                for (Map.Entry<Integer, Exception> erro : erros.entrySet()) {
+                    Integer indice = pendentes.get(erro.getKey());
+                    falharam.add(indice);
+                    falhas.put(indice, mensagemDe(erro.getValue()));
+                }
+                if (tentativa >= retentativa.getTentativas()) {
+                    estado.falhas.increment(falharam.size());
+                    return falhas;
+                }
+
+                estado.retentativas.increment(falharam.size());
+                Thread.sleep(esperaComJitter(tentativa, retentativa));
+                falharam.forEach(falhas::remove);
+                pendentes = falharam;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendentes.forEach(i -> falhas.putIfAbsent(i, "Envio interrompido"));
+            estado.falhas.increment(pendentes.size());
+            return falhas;
+        } finally {
+            estado.naFila.addAndGet(-indices.size());
+        }
+    }
+
+    private Map<Integer, Exception> enviarSessao(Estado estado, List<CanalNotificacao.Mensagem> lote)
+            throws InterruptedException {
+        long espera = estado.limite.aguardar(lote.size());
+        estado.esperaLimite.record(espera, TimeUnit.NANOSECONDS);
+
+        estado.sessoes.acquire();
+        Timer.Sample amostra = Timer.start();
+        try {
+            return estado.canal.enviar(lote);
+        } catch (RuntimeException e) {
+            Map<Integer, Exception> todas = new HashMap<>();
+            for (int i = 0; i < lote.size(); i++) {
+                todas.put(i, e);
+            }
+            return todas;
+        } finally {
+            amostra.stop(estado.latencia);
+            estado.sessoes.release();
+        }
+    }
+
+    /**
+     * Espera exponencial com jitter total: um valor aleatório entre zero e o
+     * teto da tentativa, para que falhas simultâneas não voltem juntas ao provedor.
+     */
+    private static long esperaComJitter(int tentativa, NotificacaoProperties.Retentativa retentativa) {
+        long teto = Math.min(retentativa.getEsperaMaximaMs(),
+                retentativa.getEsperaInicialMs() << Math.min(tentativa - 1, 20));
+        return ThreadLocalRandom.current().nextLong(teto + 1);
+    }
+
+    private static String mensagemDe(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
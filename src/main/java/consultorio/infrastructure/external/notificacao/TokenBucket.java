@@ -0,0 +1,51 @@
+package consultorio.infrastructure.external.notificacao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de taxa por balde de fichas.
+ *
+ * O balde enche a {@code taxaPorSegundo} até {@code capacidade}. Um pedido
+ * maior que o saldo é atendido "a crédito": o saldo fica negativo e quem
+ * pediu espera o tempo necessário para quitá-lo, o que mantém a ordem de
+ * chegada sem laços de nova tentativa.
+ */
+public class TokenBucket {
+
+    private final double taxaPorNano;
+    private final double capacidade;
+
+    private double saldo;
+    private long atualizadoEmNanos;
+
+    public TokenBucket(double taxaPorSegundo, int capacidade) {
+        if (taxaPorSegundo <= 0 || capacidade <= 0) {
+            throw new IllegalArgumentException("Taxa e capacidade do limite de envio devem ser positivas");
+        }
+        this.taxaPorNano = taxaPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.capacidade = capacidade;
+        this.saldo = capacidade;
+        this.atualizadoEmNanos = System.nanoTime();
+    }
+
+    /**
+     * Retira {@code quantidade} fichas, aguardando o reabastecimento se necessário.
+     *
+     * @return tempo aguardado, em nanossegundos
+     */
+    public long aguardar(int quantidade) throws InterruptedException {
+        long espera = reservar(quantidade);
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+        return espera;
+    }
+
+    synchronized long reservar(int quantidade) {
+        long agora = System.nanoTime();
+        saldo = Math.min(capacidade, saldo + (agora - atualizadoEmNanos) * taxaPorNano);
+        atualizadoEmNanos = agora;
+        saldo -= quantidade;
+        return saldo >= 0 ? 0 : (long) Math.ceil(-saldo / taxaPorNano);
+    }
+}
@@ -0,0 +1,30 @@
+package consultorio.infrastructure.external.notificacao.template;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Textos das notificações enviadas aos pacientes e dentistas. Os marcadores
+ * {@code {{variavel}}} são resolvidos por {@link NotificacaoTemplates}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ModeloNotificacao {
+
+    LEMBRETE_CONSULTA(
+            "Olá, {{paciente}}! Lembrete da sua consulta com Dr(a). {{dentista}} em {{data}} às {{hora}}."),
+    CONSULTA_AGENDADA(
+            "Olá, {{paciente}}! Sua consulta com Dr(a). {{dentista}} foi agendada para {{data}} às {{hora}}."),
+    CONSULTA_REMARCADA(
+            "Olá, {{paciente}}! Sua consulta com Dr(a). {{dentista}} foi remarcada para {{data}} às {{hora}}."),
+    CONSULTA_CONFIRMADA(
+            "Olá, {{paciente}}! Sua consulta com Dr(a). {{dentista}} em {{data}} às {{hora}} está confirmada."),
+    CONSULTA_CANCELADA_PACIENTE(
+            "Olá, {{paciente}}! Sua consulta com Dr(a). {{dentista}} em {{data}} às {{hora}} foi cancelada."),
+    CONSULTA_CANCELADA_DENTISTA_ASSUNTO(
+            "Consulta cancelada - {{data}} {{hora}}"),
+    CONSULTA_CANCELADA_DENTISTA(
+            "A consulta de {{paciente}} em {{data}} às {{hora}} foi cancelada.\nMotivo: {{motivo}}");
+
+    private final String fonte;
+}
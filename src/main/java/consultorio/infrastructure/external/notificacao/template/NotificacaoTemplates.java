@@ -0,0 +1,80 @@
+package consultorio.infrastructure.external.notificacao.template;
+
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import consultorio.infrastructure.external.email.EmailTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates de notificação compilados na inicialização.
+ *
+ * {@link #preparar} devolve o template com as variáveis comuns a um grupo de
+ * mensagens já incorporadas (por exemplo, a data dos lembretes do dia) e guarda
+ * o resultado em cache; cada mensagem resolve só o que muda por destinatário.
+ * Quando não sobra variável, o texto pronto é o próprio template em cache.
+ *
+ * O cache é limitado a {@code notificacao.template.cache-maximo} entradas e é
+ * esvaziado ao atingir o limite.
+ */
+@Component
+public class NotificacaoTemplates {
+
+    private final Map<ModeloNotificacao, EmailTemplate> compilados = new EnumMap<>(ModeloNotificacao.class);
+    private final Map<Chave, EmailTemplate> vinculados = new ConcurrentHashMap<>();
+    private final NotificacaoProperties properties;
+
+    private final Counter acertos;
+    private final Counter faltas;
+
+    private record Chave(ModeloNotificacao modelo, Map<String, String> valores) {
+    }
+
+    public NotificacaoTemplates(NotificacaoProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (ModeloNotificacao modelo : ModeloNotificacao.values()) {
+            compilados.put(modelo, EmailTemplate.compilar(modelo.name(), modelo.getFonte()));
+        }
+
+        this.acertos = Counter.builder("notificacao.template.cache")
+                .tag("resultado", "acerto")
+                .register(meterRegistry);
+        this.faltas = Counter.builder("notificacao.template.cache")
+                .tag("resultado", "falta")
+                .register(meterRegistry);
+    }
+
+    public EmailTemplate get(ModeloNotificacao modelo) {
+        return compilados.get(modelo);
+    }
+
+    public String renderizar(ModeloNotificacao modelo, Map<String, ?> valores) {
+        return compilados.get(modelo).renderizar(valores);
+    }
+
+    /**
+     * @param comuns variáveis iguais para todas as mensagens do grupo
+     */
+    public EmailTemplate preparar(ModeloNotificacao modelo, Map<String, ?> comuns) {
+        Map<String, String> valores = new TreeMap<>();
+        comuns.forEach((nome, valor) -> valores.put(nome, valor != null ? valor.toString() : ""));
+        Chave chave = new Chave(modelo, valores);
+
+        EmailTemplate template = vinculados.get(chave);
+        if (template != null) {
+            acertos.increment();
+            return template;
+        }
+
+        faltas.increment();
+        if (vinculados.size() >= properties.getTemplate().getCacheMaximo()) {
+            vinculados.clear();
+        }
+        return vinculados.computeIfAbsent(chave, c -> compilados.get(modelo).vincular(c.valores()));
+    }
+}
@@ -1,4 +1,86 @@
 package consultorio.infrastructure.external.sms;
 
-public class SmsClient {
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import consultorio.infrastructure.external.notificacao.CanalDesabilitadoException;
+import consultorio.infrastructure.external.notificacao.CanalNotificacao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envio de SMS por um gateway HTTP ({@code notificacao.sms.gateway-url}).
+ * Com {@code notificacao.sms.habilitado=false} nenhuma mensagem é enviada e
+ * cada envio falha com {@link CanalDesabilitadoException}.
+ *
+ * O gateway não aceita lotes: como canal do dispatcher, as mensagens de uma
+ * sessão são enviadas uma a uma, reaproveitando a conexão HTTP (keep-alive).
+ */
+@Slf4j
+@Component
+public class SmsClient implements CanalNotificacao {
+
+    private final NotificacaoProperties properties;
+    private final RestClient restClient;
+
+    public SmsClient(NotificacaoProperties properties, RestClient.Builder restClientBuilder) {
+        this.properties = properties;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getSms().getTimeoutMs());
+        requestFactory.setReadTimeout(properties.getSms().getTimeoutMs());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    public void enviar(String telefone, String mensagem) {
+        NotificacaoProperties.Sms config = properties.getSms();
+        if (!config.isHabilitado()) {
+            log.debug("SMS não enviado (desabilitado) para {}", telefone);
+            throw new CanalDesabilitadoException(getCanal());
+        }
+
+        restClient.post()
+                .uri(config.getGatewayUrl())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + config.getToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("to", telefone, "message", mensagem))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    @Override
+    public NotificacaoOutbox.Canal getCanal() {
+        return NotificacaoOutbox.Canal.SMS;
+    }
+
+    @Override
+    public NotificacaoProperties.Despacho getDespacho() {
+        return properties.getSms().getDespacho();
+    }
+
+    @Override
+    public boolean isHabilitado() {
+        return properties.getSms().isHabilitado();
+    }
+
+    @Override
+    public Map<Integer, Exception> enviar(List<Mensagem> mensagens) {
+        Map<Integer, Exception> falhas = new HashMap<>();
+        for (int i = 0; i < mensagens.size(); i++) {
+            Mensagem mensagem = mensagens.get(i);
+            try {
+                enviar(mensagem.destinatario(), mensagem.corpo());
+            } catch (Exception e) {
+                falhas.put(i, e);
+            }
+        }
+        return falhas;
+    }
 }
@@ -0,0 +1,39 @@
+package consultorio.infrastructure.persistence.historico;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registros de histórico de uma transação, gravados junto com a alteração e
+ * ainda não descarregados em {@code agendamento_historico}.
+ *
+ * Mantida apenas pelo {@link AgendamentoHistoricoRecorder} via JDBC; a
+ * entidade existe para que a tabela seja criada com o restante do esquema.
+ */
+@Entity
+@Table(name = "agendamento_historico_pendente")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AgendamentoHistoricoPendente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Registros da transação, em JSON. */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String registros;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+}
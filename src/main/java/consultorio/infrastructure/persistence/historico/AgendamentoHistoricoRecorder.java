@@ -0,0 +1,190 @@
+package consultorio.infrastructure.persistence.historico;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import consultorio.domain.entity.agendamento.AgendamentoHistorico;
+import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
+import consultorio.domain.repository.agendamento.AgendamentoHistoricoRepository;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Grava o histórico de agendamentos em segundo plano (write-behind).
+ *
+ * Os registros de uma transação vão numa única linha compacta de
+ * {@code agendamento_historico_pendente}, inserida na própria transação da
+ * alteração: o histórico é confirmado ou desfeito junto com ela e sobrevive a
+ * uma queda do nó. A descarga periódica move as linhas pendentes para
+ * {@code agendamento_historico} em lotes, inserindo os registros e apagando as
+ * linhas na mesma transação. As linhas são reservadas com FOR UPDATE SKIP
+ * LOCKED, então vários nós descarregam sem repetir registros.
+ *
+ * Consultas ao histórico podem não enxergar os registros mais recentes até a
+ * próxima descarga ({@code agendamento.historico.intervalo-descarga-ms}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgendamentoHistoricoRecorder {
+
+    private static final String INSERIR_PENDENTE =
+            "INSERT INTO agendamento_historico_pendente (registros, criado_em) VALUES (?, ?)";
+
+    private static final String RESERVAR_PENDENTES =
+            "SELECT id, registros FROM agendamento_historico_pendente " +
+                    "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String REMOVER_PENDENTE = "DELETE FROM agendamento_historico_pendente WHERE id = ?";
+
+    private static final TypeReference<List<Registro>> REGISTROS = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AgendamentoHistoricoRepository historicoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AgendamentoProperties properties;
+
+    /**
+     * Registro de histórico ainda pendente de descarga.
+     */
+    record Registro(String eventoId,
+                    Long agendamentoId,
+                    AgendamentoHistorico.TipoAcao acao,
+                    StatusAgendamento statusAnterior,
+                    StatusAgendamento statusNovo,
+                    String usuarioResponsavel,
+                    String descricao,
+                    String detalhes,
+                    LocalDateTime dataHora,
+                    String ipOrigem) {
+
+        static Registro de(AgendamentoHistorico h) {
+            return new Registro(h.getEventoId(), h.getAgendamentoId(), h.getAcao(), h.getStatusAnterior(),
+                    h.getStatusNovo(), h.getUsuarioResponsavel(), h.getDescricao(), h.getDetalhes(),
+                    h.getDataHora(), h.getIpOrigem());
+        }
+
+        AgendamentoHistorico paraEntidade() {
+            AgendamentoHistorico h = new AgendamentoHistorico();
+            h.setEventoId(eventoId);
+            h.setAgendamentoId(agendamentoId);
+            h.setAcao(acao);
+            h.setStatusAnterior(statusAnterior);
+            h.setStatusNovo(statusNovo);
+            h.setUsuarioResponsavel(usuarioResponsavel);
+            h.setDescricao(descricao);
+            h.setDetalhes(detalhes);
+            h.setDataHora(dataHora);
+            h.setIpOrigem(ipOrigem);
+            return h;
+        }
+    }
+
+    private record Pendente(Long id, String registros) {
+    }
+
+    public void registrar(AgendamentoHistorico historico) {
+        registrarTodos(List.of(historico));
+    }
+
+    /**
+     * Grava os registros como pendentes na transação corrente (ou numa própria,
+     * fora de transação).
+     */
+    public void registrarTodos(List<AgendamentoHistorico> historicos) {
+        if (historicos.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<Registro> registros = historicos.stream()
+                .map(h -> {
+                    if (h.getEventoId() == null) {
+                        h.setEventoId(UUID.randomUUID().toString());
+                    }
+                    if (h.getDataHora() == null) {
+                        h.setDataHora(agora);
+                    }
+                    return Registro.de(h);
+                })
+                .toList();
+
+        String conteudo;
+        try {
+            conteudo = objectMapper.writeValueAsString(registros);
+        } catch (JsonProcessingException e) {
+            // Sem histórico a alteração não deve ser confirmada
+            throw new IllegalStateException("Falha ao serializar o histórico de agendamentos", e);
+        }
+        jdbcTemplate.update(INSERIR_PENDENTE, conteudo, Timestamp.valueOf(agora));
+    }
+
+    @Scheduled(fixedDelayString = "${agendamento.historico.intervalo-descarga-ms:1000}")
+    public void descarregar() {
+        int tamanhoLote = properties.getHistorico().getTamanhoLote();
+        int total = 0;
+        int descarregadas;
+        do {
+            try {
+                descarregadas = Objects.requireNonNullElse(
+                        transactionTemplate.execute(status -> descarregarLote(tamanhoLote)), 0);
+            } catch (Exception e) {
+                // As linhas continuam pendentes e serão tentadas novamente na próxima descarga
+                log.error("Falha ao descarregar histórico de agendamentos: {}", e.getMessage(), e);
+                return;
+            }
+            total += descarregadas;
+        } while (descarregadas == tamanhoLote);
+
+        if (total > 0) {
+            log.debug("Histórico de agendamentos: {} transações descarregadas", total);
+        }
+    }
+
+    @PreDestroy
+    public void descarregarAoEncerrar() {
+        descarregar();
+    }
+
+    /**
+     * @return quantidade de linhas pendentes descarregadas
+     */
+    private int descarregarLote(int tamanhoLote) {
+        List<Pendente> pendentes = jdbcTemplate.query(RESERVAR_PENDENTES,
+                (rs, i) -> new Pendente(rs.getLong("id"), rs.getString("registros")), tamanhoLote);
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+
+        List<AgendamentoHistorico> historicos = new ArrayList<>();
+        for (Pendente pendente : pendentes) {
+            try {
+                objectMapper.readValue(pendente.registros(), REGISTROS).stream()
+                        .map(Registro::paraEntidade)
+                        .forEach(historicos::add);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Histórico pendente " + pendente.id() + " ilegível", e);
+            }
+        }
+        historicoRepository.saveAll(historicos);
+        jdbcTemplate.batchUpdate(REMOVER_PENDENTE, pendentes.stream()
+                .map(p -> new Object[]{p.id()})
+                .toList());
+        return pendentes.size();
+    }
+}
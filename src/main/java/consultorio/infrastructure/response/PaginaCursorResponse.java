@@ -0,0 +1,19 @@
+package consultorio.infrastructure.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor. Para a próxima página, repete-se a
+ * requisição com {@code cursor=proximoCursor}; {@code total} só vem quando
+ * pedido.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaginaCursorResponse<T>(
+        List<T> conteudo,
+        String proximoCursor,
+        boolean temProximo,
+        Long total
+) {
+}
@@ -0,0 +1,71 @@
+package consultorio.infrastructure.scheduling.agendamento;
+
+import consultorio.domain.service.agendamento.ocupacao.CapacidadeAgendaLedger;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoAgendaIndex;
+import consultorio.infrastructure.scheduling.lock.TarefaLeaseManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recalcula os contadores de capacidade diária que divergem dos agendamentos.
+ *
+ * Os contadores são mantidos incrementalmente; uma alteração feita fora do
+ * serviço (SQL manual, carga de dados) ou uma falha entre a gravação e o
+ * ajuste os deixa errados até o dia passar. Cada dia divergente é corrigido
+ * em uma transação curta, com o contador bloqueado durante a contagem.
+ */
+@Slf4j
+@Component
+public class CapacidadeReconciliacaoScheduler {
+
+    private final CapacidadeAgendaLedger capacidadeLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final TarefaLeaseManager leaseManager;
+
+    private final Counter corrigidos;
+
+    public CapacidadeReconciliacaoScheduler(CapacidadeAgendaLedger capacidadeLedger,
+                                            TransactionTemplate transactionTemplate,
+                                            TarefaLeaseManager leaseManager,
+                                            MeterRegistry meterRegistry) {
+        this.capacidadeLedger = capacidadeLedger;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseManager = leaseManager;
+
+        this.corrigidos = Counter.builder("agendamento.capacidade.reconciliados")
+                .description("Contadores de capacidade diária corrigidos pela reconciliação")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${agendamento.cron.reconciliar-capacidade}")
+    public void executar() {
+        leaseManager.executar("reconciliar-capacidade", this::reconciliar);
+    }
+
+    public int reconciliar() {
+        List<OcupacaoAgendaIndex.ChaveAgenda> divergentes = capacidadeLedger.buscarDivergentes(LocalDate.now());
+        int total = 0;
+        for (OcupacaoAgendaIndex.ChaveAgenda chave : divergentes) {
+            Optional<Integer> anterior = transactionTemplate.execute(status -> {
+                leaseManager.verificarPosse();
+                return capacidadeLedger.reconciliar(chave);
+            });
+            if (anterior != null && anterior.isPresent()) {
+                log.warn("Capacidade do dentista {} em {} corrigida (registrado: {})",
+                        chave.dentistaId(), chave.data(), anterior.get());
+                total++;
+            }
+        }
+        corrigidos.increment(total);
+        log.info("Reconciliação da capacidade diária: {} de {} dias divergentes corrigidos", total, divergentes.size());
+        return total;
+    }
+}
@@ -0,0 +1,40 @@
+package consultorio.infrastructure.scheduling.agendamento;
+
+import consultorio.domain.repository.agendamento.AgendaDiaAlteradoRepository;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import consultorio.infrastructure.scheduling.lock.TarefaLeaseManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Descarta os dias liberados (remarcações e exclusões) que já saíram da
+ * retenção da matriz de disponibilidade incremental.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaAlteradoScheduler {
+
+    private final AgendaDiaAlteradoRepository diaAlteradoRepository;
+    private final AgendamentoProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final TarefaLeaseManager leaseManager;
+
+    @Scheduled(cron = "${agendamento.cron.descartar-dias-alterados}")
+    public void executar() {
+        leaseManager.executar("descartar-dias-alterados", () -> {
+            LocalDateTime limite = LocalDateTime.now()
+                    .minusHours(properties.getDisponibilidade().getRetencaoAlteracoesHoras());
+            Integer descartados = transactionTemplate.execute(status -> {
+                leaseManager.verificarPosse();
+                return diaAlteradoRepository.deleteAnterioresA(limite);
+            });
+            log.debug("Dias liberados anteriores a {} descartados: {}", limite, descartados);
+        });
+    }
+}
@@ -1,4 +1,144 @@
 package consultorio.infrastructure.scheduling.agendamento;
 
+import consultorio.domain.service.agendamento.ocupacao.CapacidadeAgendaLedger;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoAgendaIndex;
+import consultorio.infrastructure.scheduling.lock.TarefaLeaseManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Marca como falta os agendamentos AGENDADO/CONFIRMADO cujo horário já passou.
+ *
+ * Cada dia pendente é processado em uma transação curta, com um único comando:
+ * o UPDATE dos agendamentos e o INSERT ... SELECT do histórico correspondente,
+ * seguido da devolução das vagas de cada dentista ao controle de capacidade.
+ * Nenhuma entidade é carregada, então um acúmulo de milhares de consultas
+ * (após um feriado prolongado, por exemplo) custa um comando por dia.
+ */
+@Slf4j
+@Component
 public class FaltaScheduler {
+
+    private static final String USUARIO = "sistema";
+    private static final String FILTRO_ATRASADOS =
+            "data_consulta = ? AND status IN ('AGENDADO', 'CONFIRMADO') AND ativo = true " +
+                    "AND (data_consulta < ? OR hora_fim <= ?)";
+
+    /*
+     * Cada linha do histórico recebe o próprio nextval: com a sequência em
+     * blocos (pooled) do Hibernate, o valor devolvido é o topo de um bloco que
+     * nenhum nó recebeu. Devolve quantos agendamentos de cada dentista deixaram
+     * de ocupar a agenda.
+     */
+    private static final String MARCAR_FALTAS_DO_DIA =
+            "WITH atrasados AS (" +
+                    "  SELECT id, status FROM agendamentos WHERE " + FILTRO_ATRASADOS + " FOR UPDATE" +
+                    "), alterados AS (" +
+                    "  UPDATE agendamentos a SET status = 'FALTOU', atualizado_em = ?, atualizado_por = ? " +
+                    "  FROM atrasados t WHERE a.id = t.id " +
+                    "  RETURNING a.id, a.dentista_id, t.status AS status_anterior" +
+                    "), historico AS (" +
+                    "  INSERT INTO agendamento_historico (id, evento_id, agendamento_id, acao, status_anterior, " +
+                    "    status_novo, usuario_responsavel, descricao, data_hora) " +
+                    "  SELECT nextval('agendamento_historico_seq'), gen_random_uuid()::text, id, 'FALTA', " +
+                    "    status_anterior, 'FALTOU', ?, 'Falta registrada automaticamente', ? " +
+                    "  FROM alterados" +
+                    ") " +
+                    "SELECT dentista_id, COUNT(*) FROM alterados GROUP BY dentista_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TarefaLeaseManager leaseManager;
+    private final CapacidadeAgendaLedger capacidadeLedger;
+
+    private final Counter marcadas;
+    private final Timer duracao;
+
+    public FaltaScheduler(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry, TarefaLeaseManager leaseManager,
+                          CapacidadeAgendaLedger capacidadeLedger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.leaseManager = leaseManager;
+        this.capacidadeLedger = capacidadeLedger;
+
+        this.marcadas = Counter.builder("agendamento.faltas.marcadas")
+                .description("Agendamentos marcados automaticamente como falta")
+                .register(meterRegistry);
+        this.duracao = Timer.builder("agendamento.faltas.execucao")
+                .description("Duração de cada execução da marcação de faltas")
+                .register(meterRegistry);
+    }
+
+    public record Resultado(int diasProcessados, int agendamentosMarcados, long duracaoMs) {
+    }
+
+    @Scheduled(cron = "${agendamento.cron.marcar-faltas}")
+    public void executar() {
+        leaseManager.executar("marcar-faltas", this::marcarFaltas);
+    }
+
+    public Resultado marcarFaltas() {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDate hoje = agora.toLocalDate();
+
+        List<LocalDate> dias = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT data_consulta FROM agendamentos " +
+                                "WHERE data_consulta <= ? AND status IN ('AGENDADO', 'CONFIRMADO') AND ativo = true " +
+                                "ORDER BY data_consulta",
+                        Date.class, Date.valueOf(hoje)).stream()
+                .map(Date::toLocalDate)
+                .toList();
+
+        int total = 0;
+        for (LocalDate dia : dias) {
+            Integer doDia = transactionTemplate.execute(status -> {
+                leaseManager.verificarPosse();
+                return marcarFaltasDoDia(dia, hoje, agora);
+            });
+            int marcadosNoDia = Objects.requireNonNullElse(doDia, 0);
+            if (marcadosNoDia > 0) {
+                log.debug("Faltas de {}: {} agendamentos", dia, marcadosNoDia);
+            }
+            total += marcadosNoDia;
+        }
+
+        marcadas.increment(total);
+        long duracaoMs = amostra.stop(duracao) / 1_000_000;
+        log.info("Marcação de faltas: {} agendamentos em {} dias, {} ms", total, dias.size(), duracaoMs);
+        return new Resultado(dias.size(), total, duracaoMs);
+    }
+
+    private int marcarFaltasDoDia(LocalDate dia, LocalDate hoje, LocalDateTime agora) {
+        // Contadores semeados antes do UPDATE, enquanto os atrasados ainda ocupam a agenda
+        capacidadeLedger.semear(dia);
+        Map<Long, Integer> liberadosPorDentista = new HashMap<>();
+        jdbcTemplate.query(MARCAR_FALTAS_DO_DIA, rs -> {
+            liberadosPorDentista.put(rs.getLong(1), rs.getInt(2));
+        }, Date.valueOf(dia), Date.valueOf(hoje), Time.valueOf(agora.toLocalTime()),
+                Timestamp.valueOf(agora), USUARIO,
+                USUARIO, Timestamp.valueOf(agora));
+        liberadosPorDentista.forEach((dentistaId, quantidade) -> capacidadeLedger.liberar(
+                new OcupacaoAgendaIndex.ChaveAgenda(dentistaId, dia), quantidade));
+        return liberadosPorDentista.values().stream().mapToInt(Integer::intValue).sum();
+    }
 }
@@ -1,4 +1,173 @@
 package consultorio.infrastructure.scheduling.agendamento;
 
+import consultorio.domain.repository.agendamento.AgendamentoRepository;
+import consultorio.domain.service.agendamento.AgendamentoService;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.external.email.EmailTemplate;
+import consultorio.infrastructure.external.notificacao.CanalNotificacao;
+import consultorio.infrastructure.external.notificacao.NotificacaoDispatcher;
+import consultorio.infrastructure.external.notificacao.template.ModeloNotificacao;
+import consultorio.infrastructure.external.notificacao.template.NotificacaoTemplates;
+import consultorio.infrastructure.scheduling.lock.TarefaLeaseManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Envia os lembretes das consultas de {@code agendamento.lembrete.antecedencia-dias}
+ * dias à frente.
+ *
+ * Os agendamentos pendentes são lidos em páginas por chave (ID), cada página é
+ * entregue ao {@link NotificacaoDispatcher} (limite de taxa, sessões paralelas e
+ * retentativas do canal SMS) e os envios bem-sucedidos são marcados com um
+ * único UPDATE por página. Falhas ficam pendentes e não interrompem a página.
+ *
+ * O lembrete vai por SMS para o telefone do paciente; o cadastro de pacientes
+ * não possui e-mail. Com o SMS desabilitado a execução não faz nada e os
+ * lembretes continuam pendentes.
+ */
+@Slf4j
+@Component
 public class LembreteScheduler {
+
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final AgendamentoRepository agendamentoRepository;
+    private final AgendamentoService agendamentoService;
+    private final NotificacaoDispatcher dispatcher;
+    private final AgendamentoProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TarefaLeaseManager leaseManager;
+    private final NotificacaoTemplates templates;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter enviados;
+    private final Counter falhasSemTelefone;
+    private final Counter falhasEnvio;
+    private final Timer duracao;
+
+    public LembreteScheduler(AgendamentoRepository agendamentoRepository,
+                             AgendamentoService agendamentoService,
+                             NotificacaoDispatcher dispatcher,
+                             AgendamentoProperties properties,
+                             MeterRegistry meterRegistry,
+                             TarefaLeaseManager leaseManager,
+                             NotificacaoTemplates templates,
+                             TransactionTemplate transactionTemplate) {
+        this.agendamentoRepository = agendamentoRepository;
+        this.agendamentoService = agendamentoService;
+        this.dispatcher = dispatcher;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.leaseManager = leaseManager;
+        this.templates = templates;
+        this.transactionTemplate = transactionTemplate;
+
+        this.enviados = Counter.builder("agendamento.lembretes.enviados")
+                .description("Lembretes de consulta enviados")
+                .register(meterRegistry);
+        this.falhasSemTelefone = Counter.builder("agendamento.lembretes.falhas")
+                .tag("motivo", "sem_telefone")
+                .register(meterRegistry);
+        this.falhasEnvio = Counter.builder("agendamento.lembretes.falhas")
+                .tag("motivo", "erro_envio")
+                .register(meterRegistry);
+        this.duracao = Timer.builder("agendamento.lembretes.execucao")
+                .description("Duração de cada execução do envio de lembretes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${agendamento.cron.enviar-lembretes}")
+    public void executar() {
+        leaseManager.executar("enviar-lembretes", this::enviarLembretes);
+    }
+
+    public void enviarLembretes() {
+        if (!dispatcher.isHabilitado(NotificacaoOutbox.Canal.SMS)) {
+            log.info("Lembretes não enviados: canal SMS desabilitado");
+            return;
+        }
+
+        LocalDate data = LocalDate.now().plusDays(properties.getLembrete().getAntecedenciaDias());
+        int tamanhoLote = properties.getLembrete().getTamanhoLote();
+        // Todos os lembretes da execução são do mesmo dia
+        EmailTemplate template = templates.preparar(ModeloNotificacao.LEMBRETE_CONSULTA,
+                Map.of("data", data.format(DATA)));
+
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        long aposId = 0;
+        int lidos = 0;
+        int marcados = 0;
+
+        List<AgendamentoRepository.LembreteProjection> pagina;
+        do {
+            pagina = agendamentoRepository.findLembretesPendentesAposId(data, aposId, PageRequest.of(0, tamanhoLote));
+            if (pagina.isEmpty()) {
+                break;
+            }
+            aposId = pagina.get(pagina.size() - 1).getId();
+            lidos += pagina.size();
+
+            List<Long> sucesso = enviar(pagina, template);
+            // A marcação é a escrita protegida; um nó que perdeu o lease para na primeira página
+            marcados += Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                leaseManager.verificarPosse();
+                return agendamentoService.marcarLembretesEnviados(sucesso);
+            }), 0);
+        } while (pagina.size() == tamanhoLote);
+
+        long nanos = amostra.stop(duracao);
+        log.info("Lembretes de {}: {} pendentes, {} enviados em {} ms",
+                data, lidos, marcados, nanos / 1_000_000);
+    }
+
+    /**
+     * @return IDs dos agendamentos cujos lembretes foram enviados
+     */
+    private List<Long> enviar(List<AgendamentoRepository.LembreteProjection> pagina, EmailTemplate template) {
+        List<AgendamentoRepository.LembreteProjection> comTelefone = new ArrayList<>(pagina.size());
+        List<CanalNotificacao.Mensagem> mensagens = new ArrayList<>(pagina.size());
+        for (AgendamentoRepository.LembreteProjection lembrete : pagina) {
+            String telefone = lembrete.getTelefonePaciente();
+            if (telefone == null || telefone.isBlank()) {
+                falhasSemTelefone.increment();
+                continue;
+            }
+            comTelefone.add(lembrete);
+            mensagens.add(new CanalNotificacao.Mensagem(telefone, null, template.renderizar(Map.of(
+                    "paciente", lembrete.getNomePaciente(),
+                    "dentista", lembrete.getNomeDentista(),
+                    "hora", lembrete.getHoraInicio().format(HORA)))));
+        }
+
+        Map<Integer, String> falhas = dispatcher.despachar(NotificacaoOutbox.Canal.SMS, mensagens).join();
+
+        List<Long> enviadosNaPagina = new ArrayList<>(comTelefone.size() - falhas.size());
+        for (int i = 0; i < comTelefone.size(); i++) {
+            Long id = comTelefone.get(i).getId();
+            String erro = falhas.get(i);
+            if (erro == null) {
+                enviadosNaPagina.add(id);
+            } else {
+                log.warn("Falha ao enviar lembrete do agendamento {}: {}", id, erro);
+            }
+        }
+        enviados.increment(enviadosNaPagina.size());
+        falhasEnvio.increment(falhas.size());
+        return enviadosNaPagina;
+    }
 }
@@ -1,4 +1,120 @@
 package consultorio.infrastructure.scheduling.fila;
 
+import consultorio.api.dto.response.agendamento.fila_espera.ExpiracaoFilaResponse;
+import consultorio.domain.service.agendamento.FilaEsperaService;
+import consultorio.infrastructure.scheduling.lock.TarefaLeaseManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expira os registros da fila de espera cuja data preferencial já passou.
+ *
+ * A mesma rotina atende o cron {@code agendamento.cron.expirar-filas} e o
+ * disparo manual pela API; só uma execução por vez, inclusive entre nós
+ * (lease {@code expirar-filas}), e o progresso da execução corrente (ou da
+ * última) neste nó pode ser consultado a qualquer momento.
+ */
+@Slf4j
+@Component
 public class FilaExpiracaoScheduler {
+
+    private final FilaEsperaService filaEsperaService;
+    private final Executor manutencaoExecutor;
+    private final TarefaLeaseManager leaseManager;
+
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+    private final AtomicInteger lotes = new AtomicInteger();
+    private final AtomicInteger expirados = new AtomicInteger();
+    private volatile ExpiracaoFilaResponse.Situacao situacao = ExpiracaoFilaResponse.Situacao.NAO_EXECUTADA;
+    private volatile LocalDate dataLimite;
+    private volatile LocalDateTime iniciadoEm;
+    private volatile LocalDateTime concluidoEm;
+    private volatile String erro;
+
+    public FilaExpiracaoScheduler(FilaEsperaService filaEsperaService,
+                                  @Qualifier("manutencaoExecutor") Executor manutencaoExecutor,
+                                  TarefaLeaseManager leaseManager) {
+        this.filaEsperaService = filaEsperaService;
+        this.manutencaoExecutor = manutencaoExecutor;
+        this.leaseManager = leaseManager;
+    }
+
+    /**
+     * O cron apenas dispara a rotina no executor de manutenção, liberando a
+     * thread do agendador (compartilhada pelas demais tarefas).
+     */
+    @Scheduled(cron = "${agendamento.cron.expirar-filas}")
+    public void executar() {
+        iniciar(LocalDate.now());
+    }
+
+    /**
+     * Inicia a expiração em segundo plano. Se já houver uma execução em
+     * andamento, nada é iniciado e o progresso dela é retornado.
+     */
+    public ExpiracaoFilaResponse iniciar(LocalDate dataLimite) {
+        if (emAndamento.compareAndSet(false, true)) {
+            prepararExecucao(dataLimite);
+            try {
+                manutencaoExecutor.execute(() -> expirar(dataLimite));
+            } catch (RuntimeException e) {
+                finalizar(ExpiracaoFilaResponse.Situacao.FALHOU, e.getMessage());
+                throw e;
+            }
+        }
+        return consultarProgresso();
+    }
+
+    public ExpiracaoFilaResponse consultarProgresso() {
+        return new ExpiracaoFilaResponse(situacao, dataLimite, lotes.get(), expirados.get(),
+                iniciadoEm, concluidoEm, erro);
+    }
+
+    private void expirar(LocalDate limite) {
+        if (situacao != ExpiracaoFilaResponse.Situacao.EM_ANDAMENTO) {
+            prepararExecucao(limite);
+        }
+        try {
+            boolean executada = leaseManager.executar("expirar-filas", () -> {
+                int total = filaEsperaService.expirarFilasAntigas(limite, leaseManager::verificarPosse, quantidade -> {
+                    lotes.incrementAndGet();
+                    expirados.addAndGet(quantidade);
+                });
+                log.info("Fila de espera: {} registros expirados em {} lotes", total, lotes.get());
+            });
+            if (executada) {
+                finalizar(ExpiracaoFilaResponse.Situacao.CONCLUIDA, null);
+            } else {
+                finalizar(ExpiracaoFilaResponse.Situacao.NAO_EXECUTADA, "Expiração em andamento ou recém-concluída em outro nó");
+            }
+        } catch (Exception e) {
+            finalizar(ExpiracaoFilaResponse.Situacao.FALHOU, e.getMessage());
+            log.error("Falha ao expirar a fila de espera: {}", e.getMessage(), e);
+        }
+    }
+
+    private void prepararExecucao(LocalDate limite) {
+        lotes.set(0);
+        expirados.set(0);
+        dataLimite = limite;
+        iniciadoEm = LocalDateTime.now();
+        concluidoEm = null;
+        erro = null;
+        situacao = ExpiracaoFilaResponse.Situacao.EM_ANDAMENTO;
+    }
+
+    private void finalizar(ExpiracaoFilaResponse.Situacao resultado, String mensagemErro) {
+        concluidoEm = LocalDateTime.now();
+        erro = mensagemErro;
+        situacao = resultado;
+        emAndamento.set(false);
+    }
 }
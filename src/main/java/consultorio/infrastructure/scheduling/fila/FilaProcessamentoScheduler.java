@@ -1,4 +1,117 @@
 package consultorio.infrastructure.scheduling.fila;
 
+import consultorio.domain.repository.pessoa.DentistaRepository;
+import consultorio.domain.service.agendamento.DisponibilidadeService;
+import consultorio.domain.service.agendamento.FilaEsperaService;
+import consultorio.domain.service.agendamento.fila.FilaEsperaMatchingEngine;
+import consultorio.infrastructure.config.properties.FilaEsperaProperties;
+import consultorio.infrastructure.scheduling.lock.TarefaLeaseManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Oferece os horários livres dos próximos
+ * {@code fila-espera.processamento.dias-antecedencia} dias aos pacientes da
+ * fila de espera.
+ *
+ * Cada dia é combinado com a fila pelo {@link FilaEsperaMatchingEngine}; os
+ * registros que recebem oferta passam para NOTIFICADO e deixam o índice, então
+ * não recebem outra oferta nos dias seguintes da mesma execução.
+ */
+@Slf4j
+@Component
 public class FilaProcessamentoScheduler {
+
+    private final FilaEsperaMatchingEngine matchingEngine;
+    private final FilaEsperaService filaEsperaService;
+    private final DisponibilidadeService disponibilidadeService;
+    private final DentistaRepository dentistaRepository;
+    private final FilaEsperaProperties properties;
+    private final TarefaLeaseManager leaseManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter ofertas;
+
+    public FilaProcessamentoScheduler(FilaEsperaMatchingEngine matchingEngine,
+                                      FilaEsperaService filaEsperaService,
+                                      DisponibilidadeService disponibilidadeService,
+                                      DentistaRepository dentistaRepository,
+                                      FilaEsperaProperties properties,
+                                      MeterRegistry meterRegistry,
+                                      TarefaLeaseManager leaseManager,
+                                      TransactionTemplate transactionTemplate) {
+        this.matchingEngine = matchingEngine;
+        this.filaEsperaService = filaEsperaService;
+        this.disponibilidadeService = disponibilidadeService;
+        this.dentistaRepository = dentistaRepository;
+        this.properties = properties;
+        this.leaseManager = leaseManager;
+        this.transactionTemplate = transactionTemplate;
+
+        this.ofertas = Counter.builder("fila.espera.ofertas")
+                .description("Registros da fila de espera notificados sobre um horário livre")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${agendamento.cron.processar-fila}")
+    public void executar() {
+        leaseManager.executar("processar-fila", this::processarFila);
+    }
+
+    public void processarFila() {
+        LocalDate inicio = LocalDate.now();
+        LocalDate fim = inicio.plusDays(properties.getProcessamento().getDiasAntecedencia() - 1L);
+
+        Map<LocalDate, List<FilaEsperaMatchingEngine.Vaga>> vagasPorDia = dentistaRepository
+                .findAtivosNomeProjection().stream()
+                .flatMap(d -> disponibilidadeService
+                        .buscarHorariosLivres(d.getId(), inicio, fim, null, null, Pageable.unpaged()).stream())
+                .map(h -> new FilaEsperaMatchingEngine.Vaga(h.getDentistaId(), h.getData(), h.getHoraInicio(),
+                        h.getHoraFim(), null, h.getVagasRestantesNoDia()))
+                .collect(Collectors.groupingBy(FilaEsperaMatchingEngine.Vaga::data, TreeMap::new,
+                        Collectors.toList()));
+
+        int notificados = 0;
+        for (Map.Entry<LocalDate, List<FilaEsperaMatchingEngine.Vaga>> dia : vagasPorDia.entrySet()) {
+            for (FilaEsperaMatchingEngine.Oferta oferta : matchingEngine.combinarDia(dia.getKey(), dia.getValue())) {
+                if (notificar(oferta)) {
+                    notificados++;
+                }
+            }
+        }
+        log.info("Fila de espera: {} registros notificados sobre horários livres entre {} e {}",
+                notificados, inicio, fim);
+    }
+
+    private boolean notificar(FilaEsperaMatchingEngine.Oferta oferta) {
+        Long filaId = oferta.candidato().filaId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                leaseManager.verificarPosse();
+                filaEsperaService.notificar(filaId);
+            });
+            ofertas.increment();
+            log.debug("Fila {}: horário {} {} com o dentista {}", filaId, oferta.vaga().data(),
+                    oferta.vaga().horaInicio(), oferta.vaga().dentistaId());
+            return true;
+        } catch (TarefaLeaseManager.LeasePerdidoException e) {
+            throw e;
+        } catch (IllegalStateException | EntityNotFoundException e) {
+            // Registro alterado por outra operação desde a carga do índice
+            log.debug("Fila {} ignorada: {}", filaId, e.getMessage());
+            return false;
+        }
+    }
 }
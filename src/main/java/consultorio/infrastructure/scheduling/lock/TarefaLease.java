@@ -0,0 +1,42 @@
+package consultorio.infrastructure.scheduling.lock;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posse temporária de uma tarefa agendada por um nó da aplicação.
+ *
+ * Mantida apenas pelo {@link TarefaLeaseManager} via JDBC; a entidade existe
+ * para que a tabela seja criada com o restante do esquema.
+ */
+@Entity
+@Table(name = "tarefa_lease")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TarefaLease {
+
+    @Id
+    @Column(length = 100)
+    private String nome;
+
+    @Column(nullable = false, length = 150)
+    private String dono;
+
+    /** Token de fencing: incrementado a cada nova aquisição. */
+    @Column(nullable = false)
+    private Long token;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "adquirido_em", nullable = false)
+    private LocalDateTime adquiridoEm;
+}
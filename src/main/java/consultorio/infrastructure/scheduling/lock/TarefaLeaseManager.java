@@ -0,0 +1,236 @@
+package consultorio.infrastructure.scheduling.lock;
+
+import consultorio.infrastructure.config.properties.SchedulingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Garante que cada tarefa agendada rode em um único nó por vez.
+ *
+ * A posse (lease) fica na tabela {@code tarefa_lease} e expira após
+ * {@code scheduling.lease.duracao-segundos}; enquanto a tarefa roda, uma
+ * renovação periódica estende o prazo. Se o nó cair, outro nó assume a tarefa
+ * depois da expiração. Cada aquisição recebe um token de fencing maior que o
+ * anterior, e as escritas protegidas chamam {@link #verificarPosse()} dentro
+ * da própria transação: a linha do lease fica bloqueada com o token conferido
+ * até o commit, então outro nó só assume a tarefa depois que a escrita termina
+ * e uma escrita de quem já perdeu o lease falha em vez de ser gravada.
+ *
+ * Ao terminar, o lease é mantido até {@code scheduling.lease.retencao-minima-segundos}
+ * após a aquisição: os crons dos nós disparam com alguns milissegundos ou
+ * segundos de diferença, e um nó atrasado encontraria o lease já liberado e
+ * repetiria a execução.
+ *
+ * Os prazos usam o relógio do banco ({@code now()}), comum a todos os nós.
+ *
+ * Tarefas que mantêm estado local do nó (limpeza de índices em memória) ou
+ * que já reservam o trabalho com FOR UPDATE SKIP LOCKED (descarga do histórico,
+ * outbox de notificações) não passam por aqui.
+ */
+@Slf4j
+@Component
+public class TarefaLeaseManager {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String no;
+
+    private final ScheduledExecutorService renovacoes = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "tarefa-lease-renovacao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ThreadLocal<Execucao> execucaoAtual = new ThreadLocal<>();
+
+    public record Lease(String tarefa, String dono, long token) {
+    }
+
+    private record Execucao(Lease lease, AtomicBoolean perdida) {
+    }
+
+    /** Outro nó assumiu a tarefa; a execução deste nó deve parar. */
+    public static class LeasePerdidoException extends IllegalStateException {
+
+        LeasePerdidoException(String message) {
+            super(message);
+        }
+    }
+
+    public TarefaLeaseManager(JdbcTemplate jdbcTemplate, SchedulingProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.no = identificarNo(properties.getLease().getNo());
+    }
+
+    /**
+     * Executa a tarefa se este nó obtiver o lease; caso outro nó já esteja
+     * executando, retorna sem fazer nada.
+     *
+     * @return true se a tarefa foi executada neste nó
+     */
+    public boolean executar(String tarefa, Runnable acao) {
+        Optional<Lease> adquirido = adquirir(tarefa);
+        if (adquirido.isEmpty()) {
+            registrarExecucao(tarefa, "ignorada");
+            log.debug("Tarefa {} em execução em outro nó", tarefa);
+            return false;
+        }
+
+        Lease lease = adquirido.get();
+        Execucao execucao = new Execucao(lease, new AtomicBoolean());
+        long intervalo = properties.getLease().getIntervaloRenovacaoSegundos();
+        ScheduledFuture<?> renovacao = renovacoes.scheduleAtFixedRate(
+                () -> renovarOuSinalizar(execucao), intervalo, intervalo, TimeUnit.SECONDS);
+
+        execucaoAtual.set(execucao);
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "executada";
+        try {
+            acao.run();
+            return true;
+        } catch (RuntimeException e) {
+            resultado = execucao.perdida().get() ? "lease_perdido" : "falhou";
+            throw e;
+        } finally {
+            renovacao.cancel(false);
+            execucaoAtual.remove();
+            liberar(lease);
+            amostra.stop(meterRegistry.timer("tarefa.agendada.duracao", "tarefa", tarefa));
+            registrarExecucao(tarefa, resultado);
+        }
+    }
+
+    /**
+     * Confirma que a tarefa em execução nesta thread ainda detém o token do
+     * lease e bloqueia a linha do lease até o fim da transação corrente. Deve
+     * ser chamado na transação da escrita protegida, antes dela: enquanto a
+     * transação não termina, nenhum outro nó incrementa o token. Fora de uma
+     * execução, não faz nada.
+     *
+     * @throws LeasePerdidoException se outro nó assumiu a tarefa
+     * @throws IllegalStateException se não houver transação ativa
+     */
+    public void verificarPosse() {
+        Execucao execucao = execucaoAtual.get();
+        if (execucao == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Posse do lease verificada fora da transação da escrita protegida");
+        }
+        Lease lease = execucao.lease();
+        List<Long> vigente = jdbcTemplate.queryForList(
+                "SELECT token FROM tarefa_lease WHERE nome = ? AND dono = ? AND token = ? FOR UPDATE",
+                Long.class, lease.tarefa(), lease.dono(), lease.token());
+        if (execucao.perdida().get() || vigente.isEmpty()) {
+            execucao.perdida().set(true);
+            throw new LeasePerdidoException("Lease da tarefa " + lease.tarefa() + " perdido (token "
+                    + lease.token() + "); execução interrompida");
+        }
+    }
+
+    Optional<Lease> adquirir(String tarefa) {
+        int duracao = properties.getLease().getDuracaoSegundos();
+        int assumidos = jdbcTemplate.update(
+                "UPDATE tarefa_lease SET dono = ?, token = token + 1, " +
+                        "expira_em = now() + CAST(? AS INTEGER) * INTERVAL '1' SECOND, adquirido_em = now() " +
+                        "WHERE nome = ? AND expira_em <= now()",
+                no, duracao, tarefa);
+        if (assumidos == 1) {
+            List<Long> token = jdbcTemplate.queryForList(
+                    "SELECT token FROM tarefa_lease WHERE nome = ? AND dono = ?", Long.class, tarefa, no);
+            return token.isEmpty() ? Optional.empty() : Optional.of(new Lease(tarefa, no, token.get(0)));
+        }
+
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO tarefa_lease (nome, dono, token, expira_em, adquirido_em) " +
+                            "VALUES (?, ?, 1, now() + CAST(? AS INTEGER) * INTERVAL '1' SECOND, now())",
+                    tarefa, no, duracao);
+            return Optional.of(new Lease(tarefa, no, 1));
+        } catch (DataIntegrityViolationException e) {
+            // Lease existente e ainda válido
+            return Optional.empty();
+        }
+    }
+
+    boolean renovar(Lease lease) {
+        return jdbcTemplate.update(
+                "UPDATE tarefa_lease SET expira_em = now() + CAST(? AS INTEGER) * INTERVAL '1' SECOND " +
+                        "WHERE nome = ? AND dono = ? AND token = ?",
+                properties.getLease().getDuracaoSegundos(), lease.tarefa(), lease.dono(), lease.token()) == 1;
+    }
+
+    void liberar(Lease lease) {
+        try {
+            jdbcTemplate.update(
+                    "UPDATE tarefa_lease " +
+                            "SET expira_em = GREATEST(adquirido_em + CAST(? AS INTEGER) * INTERVAL '1' SECOND, now()) " +
+                            "WHERE nome = ? AND dono = ? AND token = ?",
+                    properties.getLease().getRetencaoMinimaSegundos(),
+                    lease.tarefa(), lease.dono(), lease.token());
+        } catch (Exception e) {
+            // O lease expira sozinho; outro nó assume depois do prazo
+            log.warn("Falha ao liberar o lease da tarefa {}: {}", lease.tarefa(), e.getMessage());
+        }
+    }
+
+    String getNo() {
+        return no;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        renovacoes.shutdownNow();
+    }
+
+    private void renovarOuSinalizar(Execucao execucao) {
+        try {
+            if (!renovar(execucao.lease())) {
+                execucao.perdida().set(true);
+                meterRegistry.counter("tarefa.agendada.lease.perdido", "tarefa", execucao.lease().tarefa()).increment();
+                log.warn("Lease da tarefa {} assumido por outro nó", execucao.lease().tarefa());
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao renovar o lease da tarefa {}: {}", execucao.lease().tarefa(), e.getMessage());
+        }
+    }
+
+    private void registrarExecucao(String tarefa, String resultado) {
+        meterRegistry.counter("tarefa.agendada.execucoes", "tarefa", tarefa, "resultado", resultado).increment();
+    }
+
+    private static String identificarNo(String configurado) {
+        String base = configurado;
+        if (base == null || base.isBlank()) {
+            try {
+                base = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                base = "no";
+            }
+        }
+        // Sufixo por instância: um nó reiniciado não herda o lease da execução anterior
+        return base + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
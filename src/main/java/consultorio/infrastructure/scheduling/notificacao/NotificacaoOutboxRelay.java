@@ -0,0 +1,216 @@
+package consultorio.infrastructure.scheduling.notificacao;
+
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import consultorio.infrastructure.external.notificacao.CanalNotificacao;
+import consultorio.infrastructure.external.notificacao.NotificacaoDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Envia as notificações gravadas no outbox ({@code notificacao_outbox}).
+ *
+ * Cada lote é reservado em uma transação curta (SELECT ... FOR UPDATE SKIP
+ * LOCKED), de modo que vários nós drenam o outbox sem enviar a mesma linha ao
+ * mesmo tempo. Os envios acontecem fora da transação, pelo
+ * {@link NotificacaoDispatcher}, e só então as linhas são marcadas como enviadas.
+ *
+ * A entrega é "pelo menos uma vez": se o nó cair entre o envio e a marcação,
+ * a reserva expira após {@code notificacao.outbox.reserva-segundos} e a
+ * mensagem é enviada de novo. Falhas voltam para a fila com espera exponencial
+ * e, após {@code notificacao.outbox.maximo-tentativas}, ficam como FALHOU.
+ * Notificações de canais desabilitados não são reservadas e aguardam como
+ * PENDENTE até que o canal seja habilitado.
+ */
+@Slf4j
+@Component
+public class NotificacaoOutboxRelay {
+
+    // %s: um marcador por canal habilitado
+    private static final String RESERVAR_LOTE =
+            "UPDATE notificacao_outbox SET tentativas = tentativas + 1, proxima_tentativa_em = ? " +
+                    "WHERE id IN (SELECT id FROM notificacao_outbox " +
+                    "WHERE status = 'PENDENTE' AND proxima_tentativa_em <= ? AND canal IN (%s) " +
+                    "ORDER BY proxima_tentativa_em, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                    "RETURNING id, canal, destinatario, assunto, corpo, tentativas";
+
+    private static final String MARCAR_ENVIADA =
+            "UPDATE notificacao_outbox SET status = 'ENVIADA', enviado_em = ?, ultimo_erro = NULL WHERE id = ?";
+
+    private static final String REAGENDAR =
+            "UPDATE notificacao_outbox SET status = ?, proxima_tentativa_em = ?, ultimo_erro = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificacaoDispatcher dispatcher;
+    private final NotificacaoProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private record Pendente(Long id, NotificacaoOutbox.Canal canal, String destinatario, String assunto,
+                            String corpo, int tentativas) {
+    }
+
+    private record Resultado(Pendente pendente, String erro) {
+    }
+
+    @Autowired
+    public NotificacaoOutboxRelay(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  NotificacaoDispatcher dispatcher,
+                                  NotificacaoProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this(jdbcTemplate, transactionTemplate, dispatcher, properties, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    NotificacaoOutboxRelay(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           NotificacaoDispatcher dispatcher,
+                           NotificacaoProperties properties,
+                           MeterRegistry meterRegistry,
+                           Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dispatcher = dispatcher;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${notificacao.outbox.intervalo-ms:5000}")
+    public void drenar() {
+        // Linhas de canais desabilitados ficam PENDENTE, sem consumir tentativas, até o canal ser ligado
+        List<String> canais = Arrays.stream(NotificacaoOutbox.Canal.values())
+                .filter(dispatcher::isHabilitado)
+                .map(Enum::name)
+                .toList();
+        if (canais.isEmpty()) {
+            return;
+        }
+
+        NotificacaoProperties.Outbox config = properties.getOutbox();
+        int enviadas = 0;
+        int falhas = 0;
+        for (int lote = 0; lote < config.getMaximoLotesPorExecucao(); lote++) {
+            List<Pendente> pendentes = reservarLote(config, canais);
+            if (pendentes.isEmpty()) {
+                break;
+            }
+
+            List<Resultado> resultados = enviar(pendentes);
+            int falhasNoLote = registrar(resultados, config);
+            falhas += falhasNoLote;
+            enviadas += resultados.size() - falhasNoLote;
+
+            if (pendentes.size() < config.getTamanhoLote()) {
+                break;
+            }
+        }
+
+        if (enviadas > 0 || falhas > 0) {
+            log.info("Outbox de notificações: {} enviadas, {} falhas", enviadas, falhas);
+        }
+    }
+
+    private List<Pendente> reservarLote(NotificacaoProperties.Outbox config, List<String> canais) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        String sql = String.format(RESERVAR_LOTE, String.join(", ", Collections.nCopies(canais.size(), "?")));
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(Timestamp.valueOf(agora.plusSeconds(config.getReservaSegundos())));
+        parametros.add(Timestamp.valueOf(agora));
+        parametros.addAll(canais);
+        parametros.add(config.getTamanhoLote());
+        return Objects.requireNonNullElse(transactionTemplate.execute(status -> jdbcTemplate.query(sql,
+                (rs, i) -> new Pendente(rs.getLong("id"), NotificacaoOutbox.Canal.valueOf(rs.getString("canal")),
+                        rs.getString("destinatario"), rs.getString("assunto"), rs.getString("corpo"),
+                        rs.getInt("tentativas")),
+                parametros.toArray())), List.of());
+    }
+
+    /**
+     * Despacha os canais em paralelo e aguarda todos.
+     */
+    private List<Resultado> enviar(List<Pendente> pendentes) {
+        Map<NotificacaoOutbox.Canal, List<Pendente>> porCanal = pendentes.stream()
+                .collect(Collectors.groupingBy(Pendente::canal, () -> new EnumMap<>(NotificacaoOutbox.Canal.class),
+                        Collectors.toList()));
+
+        Map<NotificacaoOutbox.Canal, CompletableFuture<Map<Integer, String>>> envios =
+                new EnumMap<>(NotificacaoOutbox.Canal.class);
+        porCanal.forEach((canal, doCanal) -> envios.put(canal, dispatcher.despachar(canal, doCanal.stream()
+                .map(p -> new CanalNotificacao.Mensagem(p.destinatario(), p.assunto(), p.corpo()))
+                .toList())));
+
+        List<Resultado> resultados = new ArrayList<>(pendentes.size());
+        porCanal.forEach((canal, doCanal) -> {
+            Map<Integer, String> falhas = envios.get(canal).join();
+            for (int i = 0; i < doCanal.size(); i++) {
+                resultados.add(new Resultado(doCanal.get(i), falhas.get(i)));
+            }
+        });
+        return resultados;
+    }
+
+    /**
+     * @return quantidade de falhas no lote
+     */
+    private int registrar(List<Resultado> resultados, NotificacaoProperties.Outbox config) {
+        LocalDateTime agora = LocalDateTime.now(clock);
+        List<Object[]> enviadas = new ArrayList<>();
+        List<Object[]> reagendadas = new ArrayList<>();
+
+        for (Resultado resultado : resultados) {
+            Pendente pendente = resultado.pendente();
+            String canal = pendente.canal().name().toLowerCase();
+            if (resultado.erro() == null) {
+                enviadas.add(new Object[]{Timestamp.valueOf(agora), pendente.id()});
+                meterRegistry.counter("notificacao.outbox.enviadas", "canal", canal).increment();
+                continue;
+            }
+
+            boolean esgotada = pendente.tentativas() >= config.getMaximoTentativas();
+            reagendadas.add(new Object[]{
+                    esgotada ? NotificacaoOutbox.Status.FALHOU.name() : NotificacaoOutbox.Status.PENDENTE.name(),
+                    Timestamp.valueOf(agora.plusSeconds(espera(pendente.tentativas(), config))),
+                    resultado.erro().length() > 500 ? resultado.erro().substring(0, 500) : resultado.erro(),
+                    pendente.id()});
+            meterRegistry.counter("notificacao.outbox.falhas", "canal", canal,
+                    "definitiva", String.valueOf(esgotada)).increment();
+            if (esgotada) {
+                log.warn("Notificação {} ({}) descartada após {} tentativas: {}",
+                        pendente.id(), canal, pendente.tentativas(), resultado.erro());
+            }
+        }
+
+        if (!enviadas.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARCAR_ENVIADA, enviadas);
+        }
+        if (!reagendadas.isEmpty()) {
+            jdbcTemplate.batchUpdate(REAGENDAR, reagendadas);
+        }
+        return reagendadas.size();
+    }
+
+    private static long espera(int tentativas, NotificacaoProperties.Outbox config) {
+        long espera = (long) config.getBackoffInicialSegundos() << Math.min(tentativas - 1, 20);
+        return Math.min(espera, config.getBackoffMaximoSegundos());
+    }
+}
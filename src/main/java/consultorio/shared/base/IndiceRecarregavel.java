@@ -0,0 +1,206 @@
+package consultorio.shared.base;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Índice em memória carregado por inteiro do banco e mantido por alterações
+ * aplicadas após o commit.
+ *
+ * Alterações de outros nós não chegam ao índice, por isso ele vence após a
+ * validade configurada. Com um executor de recarga, um índice vencido continua
+ * atendendo as consultas enquanto a recarga roda no executor; só a primeira
+ * carga e a que segue uma {@link #invalidarAposCommit() invalidação} são
+ * feitas na thread da consulta. Sem executor, toda recarga roda na thread da
+ * consulta e uma falha chega a quem consultou. Alterações confirmadas durante
+ * uma recarga são reaplicadas sobre o índice novo antes de ele ser publicado.
+ *
+ * @param <I> estrutura do índice; as alterações são serializadas por esta
+ *            classe, mas as leituras não, então ela deve suportar leitura
+ *            concorrente com uma escrita
+ */
+@Slf4j
+public final class IndiceRecarregavel<I> {
+
+    private final String nome;
+    private final Supplier<I> carregador;
+    private final IntSupplier validadeSegundos;
+    private final Executor executorRecarga;
+
+    private final ReentrantLock carga = new ReentrantLock();
+    private final AtomicBoolean recargaAgendada = new AtomicBoolean();
+    private volatile Carga<I> atual;
+
+    /** Alterações confirmadas enquanto uma recarga lê o banco; reaplicadas sobre o novo índice. */
+    private List<Consumer<I>> alteracoesDuranteCarga;
+
+    /** Invalidação durante uma recarga: a leitura pode ter começado antes da alteração em lote. */
+    private boolean invalidadoDuranteCarga;
+
+    /**
+     * Recargas na thread da consulta; a consulta espera a recarga e recebe a
+     * exceção se ela falhar.
+     */
+    public IndiceRecarregavel(String nome, Supplier<I> carregador, IntSupplier validadeSegundos) {
+        this(nome, carregador, validadeSegundos, null);
+    }
+
+    /**
+     * @param executorRecarga onde as recargas por validade vencida rodam; uma
+     *                        falha é registrada e o índice anterior continua em uso
+     */
+    public IndiceRecarregavel(String nome, Supplier<I> carregador, IntSupplier validadeSegundos,
+                              Executor executorRecarga) {
+        this.nome = nome;
+        this.carregador = carregador;
+        this.validadeSegundos = validadeSegundos;
+        this.executorRecarga = executorRecarga;
+    }
+
+    private record Carga<I>(I indice, long expiraEmNanos, boolean invalidada) {
+
+        boolean isValida(long agoraNanos) {
+            return !invalidada && expiraEmNanos - agoraNanos > 0;
+        }
+    }
+
+    /**
+     * @return o índice em uso, carregando-o se ainda não existir ou tiver sido
+     * invalidado; se apenas venceu, recarrega na hora (sem executor) ou agenda
+     * a recarga e devolve o atual
+     */
+    public I atual() {
+        Carga<I> carregada = atual;
+        if (carregada == null || carregada.invalidada()) {
+            return recarregar(false);
+        }
+        if (!carregada.isValida(System.nanoTime())) {
+            if (executorRecarga == null) {
+                return recarregar(true);
+            }
+            agendarRecarga();
+            return atual.indice();
+        }
+        return carregada.indice();
+    }
+
+    /**
+     * Aplica a alteração ao índice após o commit da transação corrente (ou
+     * imediatamente, fora de transação).
+     */
+    public void aplicarAposCommit(Consumer<I> alteracao) {
+        executarAposCommit(() -> aplicar(alteracao));
+    }
+
+    /**
+     * Força a recarga do banco na próxima consulta; usado por alterações em
+     * lote, que não carregam as entidades.
+     */
+    public void invalidarAposCommit() {
+        executarAposCommit(() -> {
+            synchronized (this) {
+                Carga<I> carregada = atual;
+                if (carregada != null) {
+                    atual = new Carga<>(carregada.indice(), carregada.expiraEmNanos(), true);
+                }
+                if (alteracoesDuranteCarga != null) {
+                    invalidadoDuranteCarga = true;
+                }
+            }
+        });
+    }
+
+    public static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private void agendarRecarga() {
+        if (!recargaAgendada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executorRecarga.execute(() -> {
+                try {
+                    recarregar(true);
+                } catch (RuntimeException e) {
+                    log.warn("{}: falha ao recarregar o índice; o anterior continua em uso", nome, e);
+                } finally {
+                    recargaAgendada.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            recargaAgendada.set(false);
+            log.warn("{}: recarga do índice recusada pelo executor; tentará na próxima consulta", nome);
+        }
+    }
+
+    /**
+     * @param seVencido recarrega também um índice apenas vencido; caso
+     *                  contrário só um ausente ou invalidado
+     */
+    private I recarregar(boolean seVencido) {
+        carga.lock();
+        try {
+            Carga<I> carregada = atual;
+            if (carregada != null && (carregada.isValida(System.nanoTime())
+                    || !seVencido && !carregada.invalidada())) {
+                return carregada.indice();
+            }
+
+            synchronized (this) {
+                alteracoesDuranteCarga = new ArrayList<>();
+                invalidadoDuranteCarga = false;
+            }
+            I novo;
+            try {
+                novo = carregador.get();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    alteracoesDuranteCarga = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                alteracoesDuranteCarga.forEach(alteracao -> alteracao.accept(novo));
+                alteracoesDuranteCarga = null;
+                atual = new Carga<>(novo, System.nanoTime()
+                        + TimeUnit.SECONDS.toNanos(validadeSegundos.getAsInt()), invalidadoDuranteCarga);
+            }
+            return novo;
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    private synchronized void aplicar(Consumer<I> alteracao) {
+        Carga<I> carregada = atual;
+        if (carregada != null) {
+            alteracao.accept(carregada.indice());
+        }
+        if (alteracoesDuranteCarga != null) {
+            alteracoesDuranteCarga.add(alteracao);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package consultorio.shared.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class StringUtil {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private StringUtil() {
+    }
+
+    /**
+     * Forma usada nas buscas por texto: sem acentos, em minúsculas e com os
+     * espaços internos reduzidos a um só. "  José  da Conceição" vira
+     * "jose da conceicao".
+     *
+     * @return texto normalizado, ou null se {@code texto} for null
+     */
+    public static String normalizarParaBusca(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+}
@@ -0,0 +1,121 @@
+package consultorio.api.controller.pessoa;
+
+import consultorio.domain.service.paciente.PacienteService;
+import consultorio.infrastructure.config.async.AsyncConfig;
+import consultorio.infrastructure.config.properties.AsyncProperties;
+import consultorio.infrastructure.config.security.LogoutHandlerImpl;
+import consultorio.infrastructure.config.security.SecurityConfig;
+import consultorio.infrastructure.config.security.jwt.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints com resposta assíncrona passando pela cadeia de segurança real:
+ * a requisição é autorizada pelo token JWT e o redespacho assíncrono (que não
+ * passa de novo pelo filtro JWT) precisa chegar à resposta.
+ */
+@WebMvcTest(PacienteController.class)
+@Import({SecurityConfig.class, LogoutHandlerImpl.class, JwtService.class, AsyncConfig.class, AsyncProperties.class,
+        PacienteControllerAsyncSegurancaTest.Metricas.class})
+class PacienteControllerAsyncSegurancaTest {
+
+    @TestConfiguration
+    static class Metricas {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private PacienteService pacienteService;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        UserDetails usuario = User.withUsername("recepcao").password("x").authorities("ROLE_USER").build();
+        when(userDetailsService.loadUserByUsername("recepcao")).thenReturn(usuario);
+        token = jwtService.generateToken(usuario);
+    }
+
+    @Test
+    void relatorioAssincronoComTokenRespondeNoRedespacho() throws Exception {
+        when(pacienteService.gerarRelatorioNaturalidades())
+                .thenReturn(List.<Object[]>of(new Object[]{"Recife", 3L}));
+
+        MvcResult resultado = mockMvc.perform(get("/api/pacientes/relatorios/naturalidades")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0][0]").value("Recife"));
+    }
+
+    @Test
+    void exportacaoComTokenRespondeNoRedespacho() throws Exception {
+        doAnswer(invocacao -> null).when(pacienteService).percorrerResumo(any());
+
+        MvcResult resultado = mockMvc.perform(get("/api/pacientes/exportar")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void exportacaoEmFormatoDesconhecidoResponde400() throws Exception {
+        mockMvc.perform(get("/api/pacientes/exportar").param("formato", "csv")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(request().asyncNotStarted());
+    }
+
+    @Test
+    void relatorioSemTokenNaoIniciaProcessamento() throws Exception {
+        mockMvc.perform(get("/api/pacientes/relatorios/naturalidades"))
+                .andExpect(status().isForbidden())
+                .andExpect(request().asyncNotStarted());
+    }
+}
@@ -0,0 +1,202 @@
+package consultorio.api.mapper.pessoa;
+
+import consultorio.api.dto.request.pessoa.embedded.paciente.*;
+import consultorio.api.dto.response.pessoa.embeddable.paciente.*;
+import consultorio.domain.entity.pessoa.embedded.paciente.*;
+import consultorio.infrastructure.config.mapper.ModelMapperConfig;
+import consultorio.shared.benchmark.Medicao;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara o mapper gerado com o ModelMapper configurado como antes
+ * (STRICT, skipNull), componente a componente.
+ */
+@Slf4j
+class PacienteComponentesMapperTest {
+
+    private final PacienteComponentesMapper mapper = Mappers.getMapper(PacienteComponentesMapper.class);
+    private final ModelMapper modelMapper = new ModelMapperConfig().modelMapper();
+
+    private record Caso<R, E, S>(Class<R> request, Class<E> entity, Class<S> response,
+                                 Function<R, E> toEntity, Function<E, S> toResponse,
+                                 BiConsumer<R, E> updateEntity) {
+    }
+
+    private final List<Caso<?, ?, ?>> casos = List.of(
+            new Caso<>(DadosBasicosRequest.class, DadosBasicos.class, DadosBasicosResponse.class,
+                    mapper::toEntity, mapper::toResponse, mapper::updateEntity),
+            new Caso<>(ResponsavelRequest.class, Responsavel.class, ResponsavelResponse.class,
+                    mapper::toEntity, mapper::toResponse, mapper::updateEntity),
+            new Caso<>(AnamneseRequest.class, Anamnese.class, AnamneseResponse.class,
+                    mapper::toEntity, mapper::toResponse, mapper::updateEntity),
+            new Caso<>(ConvenioRequest.class, Convenio.class, ConvenioResponse.class,
+                    mapper::toEntity, mapper::toResponse, mapper::updateEntity),
+            new Caso<>(InspecaoBucalRequest.class, InspecaoBucal.class, InspecaoBucalResponse.class,
+                    mapper::toEntity, mapper::toResponse, mapper::updateEntity),
+            new Caso<>(QuestionarioSaudeRequest.class, QuestionarioSaude.class, QuestionarioSaudeResponse.class,
+                    mapper::toEntity, mapper::toResponse, mapper::updateEntity));
+
+    @Test
+    void requestParaEntityIgualAoModelMapper() {
+        for (Caso<?, ?, ?> caso : casos) {
+            compararToEntity(caso, 1, false);
+            compararToEntity(caso, 2, true);
+        }
+    }
+
+    @Test
+    void entityParaResponseIgualAoModelMapper() {
+        for (Caso<?, ?, ?> caso : casos) {
+            compararToResponse(caso, 1, false);
+            compararToResponse(caso, 2, true);
+        }
+    }
+
+    @Test
+    void atualizacaoIgualAoModelMapper() {
+        for (Caso<?, ?, ?> caso : casos) {
+            compararUpdate(caso, 3);
+        }
+    }
+
+    @Test
+    void nulosNaoSobrescrevemValoresPadrao() {
+        DadosBasicosRequest request = new DadosBasicosRequest();
+        request.setNome("Ana");
+        request.setStatus(null);
+
+        assertThat(mapper.toEntity(request).getStatus()).isTrue();
+    }
+
+    /**
+     * Pacientes convertidos por segundo (os seis componentes, ida e volta),
+     * comparados ao ModelMapper, medidos com {@link Medicao}.
+     * Fora da execução padrão; roda com {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkPacientesPorSegundo() throws Exception {
+        List<Object> requests = casos.stream().map(c -> (Object) preencher(novo(c.request()), 1, false)).toList();
+        int pacientes = 20_000;
+
+        Medicao.Resultado porMapStruct = Medicao.medir(pacientes, n -> converterComMapStruct(requests, n));
+        Medicao.Resultado porModelMapper = Medicao.medir(pacientes, n -> converterComModelMapper(requests, n));
+
+        log.info("MapStruct: {} pacientes/s; ModelMapper: {} pacientes/s",
+                Math.round(porMapStruct.porSegundo()), Math.round(porModelMapper.porSegundo()));
+        assertThat(porMapStruct.conferencia()).isEqualTo(porModelMapper.conferencia());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long converterComMapStruct(List<Object> requests, int pacientes) {
+        long conferencia = 0;
+        for (int i = 0; i < pacientes; i++) {
+            for (int c = 0; c < casos.size(); c++) {
+                Caso<Object, Object, Object> caso = (Caso<Object, Object, Object>) casos.get(c);
+                if (caso.toResponse().apply(caso.toEntity().apply(requests.get(c))) != null) {
+                    conferencia++;
+                }
+            }
+        }
+        return conferencia;
+    }
+
+    private long converterComModelMapper(List<Object> requests, int pacientes) {
+        long conferencia = 0;
+        for (int i = 0; i < pacientes; i++) {
+            for (int c = 0; c < casos.size(); c++) {
+                Caso<?, ?, ?> caso = casos.get(c);
+                Object entity = modelMapper.map(requests.get(c), caso.entity());
+                if (modelMapper.map(entity, caso.response()) != null) {
+                    conferencia++;
+                }
+            }
+        }
+        return conferencia;
+    }
+
+    // ==================== COMPARAÇÕES ====================
+
+    private <R, E, S> void compararToEntity(Caso<R, E, S> caso, int semente, boolean esparso) {
+        R request = preencher(novo(caso.request()), semente, esparso);
+
+        assertThat(caso.toEntity().apply(request))
+                .as(caso.request().getSimpleName())
+                .usingRecursiveComparison()
+                .isEqualTo(modelMapper.map(request, caso.entity()));
+    }
+
+    private <R, E, S> void compararToResponse(Caso<R, E, S> caso, int semente, boolean esparso) {
+        E entity = preencher(novo(caso.entity()), semente, esparso);
+
+        assertThat(caso.toResponse().apply(entity))
+                .as(caso.entity().getSimpleName())
+                .usingRecursiveComparison()
+                .isEqualTo(modelMapper.map(entity, caso.response()));
+    }
+
+    private <R, E, S> void compararUpdate(Caso<R, E, S> caso, int semente) {
+        R request = preencher(novo(caso.request()), semente, true);
+        E atualPorMapStruct = preencher(novo(caso.entity()), semente + 10, false);
+        E atualPorModelMapper = preencher(novo(caso.entity()), semente + 10, false);
+
+        caso.updateEntity().accept(request, atualPorMapStruct);
+        modelMapper.map(request, atualPorModelMapper);
+
+        assertThat(atualPorMapStruct)
+                .as(caso.entity().getSimpleName())
+                .usingRecursiveComparison()
+                .isEqualTo(atualPorModelMapper);
+    }
+
+    // ==================== DADOS DE TESTE ====================
+
+    private static <T> T novo(Class<T> tipo) {
+        try {
+            return tipo.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Preenche os campos String, Boolean e LocalDate; no modo esparso, um
+     * campo sim, outro não fica nulo.
+     */
+    private static <T> T preencher(T objeto, int semente, boolean esparso) {
+        Field[] campos = objeto.getClass().getDeclaredFields();
+        for (int i = 0; i < campos.length; i++) {
+            Field campo = campos[i];
+            Object valor = switch (campo.getType().getSimpleName()) {
+                case "String" -> campo.getName().toLowerCase().contains("cpf")
+                        ? String.format("%011d", 12345678900L + semente)
+                        : campo.getName() + " " + semente;
+                case "Boolean" -> (i + semente) % 2 == 0;
+                case "LocalDate" -> LocalDate.of(1980 + semente, 1 + semente % 12, 10);
+                default -> null;
+            };
+            if (valor == null) {
+                continue;
+            }
+            try {
+                campo.setAccessible(true);
+                campo.set(objeto, esparso && i % 2 == 0 ? null : valor);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return objeto;
+    }
+}
@@ -0,0 +1,143 @@
+package consultorio.domain.repository.pessoa;
+
+import consultorio.shared.benchmark.Medicao;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Busca por nome normalizado sobre 200 mil pacientes sintéticos, executando as
+ * mesmas consultas declaradas no {@link PacienteRepository}. Registra o plano
+ * (EXPLAIN ANALYZE) e o tempo médio por página de cada uma, medido com
+ * {@link Medicao}.
+ *
+ * Precisa de pg_trgm, então só roda contra um PostgreSQL descartável (tudo é
+ * criado e apagado num schema próprio):
+ * {@code mvn test -Pbenchmark -Dbenchmark.jdbc.url=jdbc:postgresql://host/banco
+ * -Dbenchmark.jdbc.usuario=... -Dbenchmark.jdbc.senha=...}
+ */
+@Slf4j
+@Tag("benchmark")
+class PacienteBuscaNomeBenchmarkTest {
+
+    private static final int PACIENTES = 200_000;
+    private static final int REPETICOES = 200;
+    private static final String SCHEMA = "benchmark_busca_paciente";
+
+    private static final String NOMES = "ARRAY['ana','joao','maria','jose','francisca','antonio','adriana'," +
+            "'carlos','juliana','paulo','marcia','pedro','fernanda','lucas','patricia','rafael','aline'," +
+            "'marcos','camila','luiz','beatriz','tiago','leticia','bruno','vanessa']";
+    private static final String SOBRENOMES = "ARRAY['silva','santos','oliveira','souza','rodrigues','ferreira'," +
+            "'alves','pereira','lima','gomes','costa','ribeiro','martins','carvalho','almeida','lopes'," +
+            "'soares','fernandes','vieira','barbosa','rocha','dias','nascimento','andrade','moreira'," +
+            "'nunes','marques','machado','mendes','freitas','cardoso','ramos','goncalves','santana','teixeira']";
+
+    @Test
+    void benchmarkBuscaPorNome() throws Exception {
+        String url = System.getProperty("benchmark.jdbc.url");
+        assumeTrue(url != null && url.startsWith("jdbc:postgresql:"),
+                "informe -Dbenchmark.jdbc.url apontando para um PostgreSQL");
+
+        try (Connection conexao = DriverManager.getConnection(url,
+                System.getProperty("benchmark.jdbc.usuario"), System.getProperty("benchmark.jdbc.senha"))) {
+            try {
+                popular(conexao);
+
+                String contem = consulta("buscarPorNomeNormalizado", String.class, String.class, Pageable.class);
+                String prefixo = consulta("buscarPorPrefixoNomeNormalizado", String.class, Pageable.class);
+
+                medir(conexao, "contém 'santos'", contem, "%santos%", "santos");
+                medir(conexao, "contém 'maria sil'", contem, "%maria sil%", "maria sil");
+                medir(conexao, "prefixo 'jo'", prefixo, "jo%");
+            } finally {
+                try (Statement comando = conexao.createStatement()) {
+                    comando.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                }
+            }
+        }
+    }
+
+    private static void popular(Connection conexao) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            comando.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            comando.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            comando.execute("CREATE SCHEMA " + SCHEMA);
+            comando.execute("SET search_path TO " + SCHEMA + ", public");
+            comando.execute("CREATE TABLE pacientes (id_paciente BIGINT PRIMARY KEY, " +
+                    "nome_busca VARCHAR(100), ativo BOOLEAN NOT NULL)");
+            comando.execute("INSERT INTO pacientes " +
+                    "SELECT i, (" + NOMES + ")[1 + i % 25] || ' ' || (" + SOBRENOMES + ")[1 + (i / 25) % 35] " +
+                    "|| ' ' || (" + SOBRENOMES + ")[1 + (i / 875) % 35], i % 20 <> 0 " +
+                    "FROM generate_series(1, " + PACIENTES + ") AS i");
+            // Mesmos índices que o DatabaseConfig cria na aplicação
+            comando.execute("CREATE INDEX idx_paciente_nome_busca_trgm " +
+                    "ON pacientes USING gin (nome_busca gin_trgm_ops) WHERE ativo = true");
+            comando.execute("CREATE INDEX idx_paciente_nome_busca_prefixo " +
+                    "ON pacientes (nome_busca text_pattern_ops) WHERE ativo = true");
+            comando.execute("ANALYZE pacientes");
+        }
+    }
+
+    private static void medir(Connection conexao, String descricao, String sql, String... parametros)
+            throws Exception {
+        String paginado = sql + " LIMIT 20";
+
+        List<String> plano = new ArrayList<>();
+        try (PreparedStatement explain = preparar(conexao, "EXPLAIN ANALYZE " + paginado, parametros);
+             ResultSet linhas = explain.executeQuery()) {
+            while (linhas.next()) {
+                plano.add(linhas.getString(1));
+            }
+        }
+        log.info("Plano da busca {}:\n{}", descricao, String.join("\n", plano));
+
+        Medicao.Resultado paginas = Medicao.medir(REPETICOES, n -> {
+            long encontrados = 0;
+            for (int i = 0; i < n; i++) {
+                try (PreparedStatement busca = preparar(conexao, paginado, parametros);
+                     ResultSet linhas = busca.executeQuery()) {
+                    while (linhas.next()) {
+                        encontrados++;
+                    }
+                }
+            }
+            return encontrados;
+        });
+
+        log.info("Busca {}: {} ms por página ({} linhas por página)",
+                descricao, String.format("%.2f", paginas.mediaMs()), paginas.conferencia() / REPETICOES);
+        assertThat(paginas.conferencia()).isPositive();
+    }
+
+    private static PreparedStatement preparar(Connection conexao, String sql, String... parametros)
+            throws SQLException {
+        PreparedStatement comando = conexao.prepareStatement(sql);
+        for (int i = 0; i < parametros.length; i++) {
+            comando.setString(i + 1, parametros[i]);
+        }
+        return comando;
+    }
+
+    /**
+     * SQL nativo declarado no repositório, com os parâmetros nomeados trocados
+     * por posicionais na ordem em que aparecem.
+     */
+    private static String consulta(String metodo, Class<?>... tipos) throws NoSuchMethodException {
+        String sql = PacienteRepository.class.getMethod(metodo, tipos).getAnnotation(Query.class).value();
+        return sql.replaceAll(":[a-z]+", "?");
+    }
+}
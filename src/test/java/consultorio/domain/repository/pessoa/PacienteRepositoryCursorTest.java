@@ -0,0 +1,75 @@
+package consultorio.domain.repository.pessoa;
+
+import consultorio.domain.entity.pessoa.Paciente;
+import consultorio.domain.service.paciente.paginacao.CursorPaciente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paginação por chave na ordem alfabética: pacientes com o mesmo nome são
+ * desempatados pelo id, sem repetir nem pular ninguém entre as páginas.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PacienteRepositoryCursorTest {
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    private final List<Long> esperados = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Nomes repetidos em posições que caem na divisa das páginas de 2
+        List<Paciente> salvos = new ArrayList<>();
+        String[] nomes = {"Carla Souza", "Ana Lima", "Bruno Dias", "Ana Lima", "Ana Lima", "Bruno Dias", "Davi Reis"};
+        for (int i = 0; i < nomes.length; i++) {
+            salvos.add(pacienteRepository.save(paciente(nomes[i], "P-" + i)));
+        }
+        salvos.stream()
+                .sorted(Comparator.comparing(Paciente::getNome).thenComparing(Paciente::getId))
+                .forEach(p -> esperados.add(p.getId()));
+    }
+
+    @Test
+    void percorreOrdemAlfabeticaDesempatandoPeloId() {
+        List<Long> percorridos = new ArrayList<>();
+        CursorPaciente posicao = CursorPaciente.inicio(CursorPaciente.Ordenacao.NOME);
+
+        while (true) {
+            List<Paciente> pagina = pacienteRepository.findWithFiltersAposNome(null, null, null, null, null,
+                    posicao.nome(), posicao.id(), PageRequest.of(0, 2));
+            if (pagina.isEmpty()) {
+                break;
+            }
+            pagina.forEach(p -> percorridos.add(p.getId()));
+
+            // O cliente só vê o texto codificado
+            Paciente ultimo = pagina.get(pagina.size() - 1);
+            String cursor = CursorPaciente.apos(CursorPaciente.Ordenacao.NOME, ultimo.getNome(), ultimo.getId())
+                    .codificar();
+            posicao = CursorPaciente.decodificar(cursor);
+        }
+
+        assertThat(percorridos).containsExactlyElementsOf(esperados);
+    }
+
+    private static Paciente paciente(String nome, String prontuario) {
+        Paciente paciente = new Paciente();
+        paciente.setNome(nome);
+        paciente.getDadosBasicos().setProntuarioNumero(prontuario);
+        paciente.setAtivo(true);
+        return paciente;
+    }
+}
@@ -0,0 +1,232 @@
+package consultorio.domain.service.agendamento.fila;
+
+import consultorio.domain.entity.agendamento.FilaEspera;
+import consultorio.domain.entity.agendamento.enums.TipoProcedimento;
+import consultorio.domain.repository.agendamento.FilaEsperaRepository;
+import consultorio.infrastructure.config.properties.FilaEsperaProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FilaEsperaMatchingEngineTest {
+
+    private static final LocalDate DIA = LocalDate.of(2030, 3, 4);
+    private static final LocalDateTime CRIACAO = LocalDateTime.of(2030, 2, 1, 8, 0);
+    private static final long DENTISTA = 1L;
+
+    private final FilaEsperaRepository repository = mock(FilaEsperaRepository.class);
+    private final FilaEsperaProperties properties = new FilaEsperaProperties();
+    private final List<FilaEsperaRepository.CandidatoFilaProjection> aguardando = new ArrayList<>();
+
+    private FilaEsperaMatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findCandidatosAguardando()).thenReturn(aguardando);
+        engine = new FilaEsperaMatchingEngine(repository, properties);
+    }
+
+    @Test
+    void ofereceNaOrdemDePrioridadeEDepoisDeChegada() {
+        aguardando.add(candidato(1L).prioridade(1).criadoEm(CRIACAO).build());
+        aguardando.add(candidato(2L).prioridade(3).criadoEm(CRIACAO.plusHours(2)).build());
+        aguardando.add(candidato(3L).prioridade(3).criadoEm(CRIACAO.plusHours(1)).build());
+
+        List<FilaEsperaMatchingEngine.Oferta> ofertas = engine.combinarDia(DIA, List.of(
+                vaga(9, 0, 10, 0), vaga(10, 0, 11, 0), vaga(11, 0, 12, 0)));
+
+        assertThat(filas(ofertas)).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void empateDePrioridadeEntreFilasDistintasVaiParaQuemChegouAntes() {
+        // O específico do dentista é encontrado primeiro, mas o de "qualquer
+        // dentista" chegou antes e tem a mesma prioridade
+        aguardando.add(candidato(1L).prioridade(2).criadoEm(CRIACAO.plusHours(1)).build());
+        aguardando.add(candidato(2L).qualquerDentista().prioridade(2).criadoEm(CRIACAO).build());
+        aguardando.add(candidato(3L).qualquerDentista().prioridade(2).criadoEm(CRIACAO.plusHours(2)).build());
+
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(9, 0, 10, 0))))).containsExactly(2L);
+    }
+
+    @Test
+    void qualquerDentistaEQualquerProcedimentoAtendemVagasEspecificas() {
+        aguardando.add(candidato(1L).dentista(2L).prioridade(9).build());
+        aguardando.add(candidato(2L).procedimento(TipoProcedimento.IMPLANTE).prioridade(8).build());
+        aguardando.add(candidato(3L).qualquerDentista().procedimento(null).prioridade(1).build());
+
+        List<FilaEsperaMatchingEngine.Oferta> ofertas = engine.combinarDia(DIA, List.of(
+                new FilaEsperaMatchingEngine.Vaga(DENTISTA, DIA, LocalTime.of(9, 0), LocalTime.of(10, 0),
+                        TipoProcedimento.LIMPEZA, 5)));
+
+        assertThat(filas(ofertas)).containsExactly(3L);
+    }
+
+    @Test
+    void vagaSemProcedimentoConsultaTodosOsProcedimentos() {
+        aguardando.add(candidato(1L).procedimento(TipoProcedimento.CANAL).prioridade(5).build());
+
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(9, 0, 10, 0))))).containsExactly(1L);
+    }
+
+    @Test
+    void respeitaVagasDoDiaEIgnoraHorariosSobrepostosAOfertaFeita() {
+        for (long id = 1; id <= 4; id++) {
+            aguardando.add(candidato(id).prioridade(5).criadoEm(CRIACAO.plusMinutes(id)).build());
+        }
+
+        List<FilaEsperaMatchingEngine.Oferta> ofertas = engine.combinarDia(DIA, List.of(
+                vaga(9, 0, 10, 0, 2), vaga(9, 30, 10, 30, 2), vaga(10, 0, 11, 0, 2), vaga(11, 0, 12, 0, 2)));
+
+        assertThat(ofertas).extracting(o -> o.vaga().horaInicio())
+                .containsExactly(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        assertThat(filas(ofertas)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void percorreAsOitoFilasAntesDeEscolher() {
+        // Filas na ordem de consulta: dentista da vaga antes de "qualquer", procedimento
+        // "qualquer" antes do específico e período da vaga antes de "qualquer"
+        aguardando.add(candidato(1L).procedimento(null).periodo(FilaEspera.PeriodoPreferencial.MANHA)
+                .prioridade(1).build());
+        aguardando.add(candidato(2L).procedimento(TipoProcedimento.LIMPEZA).periodo(null).prioridade(2).build());
+        aguardando.add(candidato(3L).qualquerDentista().procedimento(null).prioridade(3).build());
+        aguardando.add(candidato(4L).qualquerDentista().procedimento(TipoProcedimento.LIMPEZA).periodo(null)
+                .prioridade(4).build());
+
+        List<FilaEsperaMatchingEngine.Oferta> ofertas = engine.combinarDia(DIA, List.of(
+                new FilaEsperaMatchingEngine.Vaga(DENTISTA, DIA, LocalTime.of(9, 0), LocalTime.of(10, 0),
+                        TipoProcedimento.LIMPEZA, 5)));
+
+        assertThat(filas(ofertas)).containsExactly(4L);
+    }
+
+    @Test
+    void candidatoIncompativelNaoEncerraABuscaNaFila() {
+        aguardando.add(candidato(1L).prioridade(9).dataPreferencial(DIA.plusDays(1)).build());
+        aguardando.add(candidato(2L).prioridade(5).build());
+
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(9, 0, 10, 0))))).containsExactly(2L);
+    }
+
+    @Test
+    void faixaQueAtravessaMeioDiaEntraNaFilaDeQualquerPeriodo() {
+        aguardando.add(candidato(1L).horario(LocalTime.of(11, 0), LocalTime.of(15, 0)).prioridade(5).build());
+        aguardando.add(candidato(2L).horario(LocalTime.of(8, 0), LocalTime.of(11, 30)).prioridade(9).build());
+
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(11, 0, 12, 0))))).containsExactly(2L);
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(14, 0, 15, 0))))).containsExactly(1L);
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(16, 0, 17, 0))))).isEmpty();
+    }
+
+    @Test
+    void falhaNaRecargaDoIndiceVencidoChegaAQuemCombina() {
+        aguardando.add(candidato(1L).prioridade(5).build());
+        properties.getProcessamento().setValidadeIndiceSegundos(0);
+        assertThat(filas(engine.combinarDia(DIA, List.of(vaga(9, 0, 10, 0))))).containsExactly(1L);
+
+        when(repository.findCandidatosAguardando()).thenThrow(new IllegalStateException("banco indisponível"));
+
+        assertThatThrownBy(() -> engine.combinarDia(DIA, List.of(vaga(9, 0, 10, 0))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("banco indisponível");
+    }
+
+    private static List<Long> filas(List<FilaEsperaMatchingEngine.Oferta> ofertas) {
+        return ofertas.stream().map(o -> o.candidato().filaId()).toList();
+    }
+
+    private static FilaEsperaMatchingEngine.Vaga vaga(int hora, int minuto, int horaFim, int minutoFim) {
+        return vaga(hora, minuto, horaFim, minutoFim, 10);
+    }
+
+    private static FilaEsperaMatchingEngine.Vaga vaga(int hora, int minuto, int horaFim, int minutoFim,
+                                                       int vagasNoDia) {
+        return new FilaEsperaMatchingEngine.Vaga(DENTISTA, DIA, LocalTime.of(hora, minuto),
+                LocalTime.of(horaFim, minutoFim), null, vagasNoDia);
+    }
+
+    private static Candidato candidato(Long id) {
+        return new Candidato(id);
+    }
+
+    /**
+     * Registro aguardando do dentista {@link #DENTISTA}, sem data, em qualquer
+     * período, para consulta.
+     */
+    private static final class Candidato {
+
+        private final Map<String, Object> valores = new HashMap<>();
+
+        Candidato(Long id) {
+            valores.put("id", id);
+            valores.put("pacienteId", 100 + id);
+            valores.put("dentistaId", DENTISTA);
+            valores.put("tipoProcedimento", TipoProcedimento.CONSULTA);
+            valores.put("periodoPreferencial", FilaEspera.PeriodoPreferencial.QUALQUER);
+            valores.put("prioridade", 0);
+            valores.put("criadoEm", CRIACAO);
+            valores.put("aceitaQualquerHorario", false);
+            valores.put("aceitaQualquerDentista", false);
+        }
+
+        Candidato dentista(Long dentistaId) {
+            valores.put("dentistaId", dentistaId);
+            return this;
+        }
+
+        Candidato qualquerDentista() {
+            valores.put("aceitaQualquerDentista", true);
+            return this;
+        }
+
+        Candidato procedimento(TipoProcedimento tipo) {
+            valores.put("tipoProcedimento", tipo);
+            return this;
+        }
+
+        Candidato periodo(FilaEspera.PeriodoPreferencial periodo) {
+            valores.put("periodoPreferencial", periodo);
+            return this;
+        }
+
+        Candidato horario(LocalTime inicio, LocalTime fim) {
+            valores.put("horaInicioPreferencial", inicio);
+            valores.put("horaFimPreferencial", fim);
+            return this;
+        }
+
+        Candidato dataPreferencial(LocalDate data) {
+            valores.put("dataPreferencial", data);
+            return this;
+        }
+
+        Candidato prioridade(int prioridade) {
+            valores.put("prioridade", prioridade);
+            return this;
+        }
+
+        Candidato criadoEm(LocalDateTime criadoEm) {
+            valores.put("criadoEm", criadoEm);
+            return this;
+        }
+
+        FilaEsperaRepository.CandidatoFilaProjection build() {
+            return new SpelAwareProxyProjectionFactory()
+                    .createProjection(FilaEsperaRepository.CandidatoFilaProjection.class, valores);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package consultorio.domain.service.agendamento.impl;
+
+import consultorio.api.dto.request.agendamento.AgendamentoRequest;
+import consultorio.api.dto.response.agendamento.disponibilidade.MatrizDisponibilidadeResponse;
+import consultorio.api.mapper.agendamento.AgendamentoMapper;
+import consultorio.domain.entity.agendamento.AgendaDiaAlterado;
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.domain.entity.pessoa.Dentista;
+import consultorio.domain.entity.pessoa.Paciente;
+import consultorio.domain.repository.agendamento.AgendaDiaAlteradoRepository;
+import consultorio.domain.repository.agendamento.AgendamentoRepository;
+import consultorio.domain.repository.pessoa.DentistaRepository;
+import consultorio.domain.repository.pessoa.PacienteRepository;
+import consultorio.domain.service.agendamento.notificacao.AgendamentoNotificador;
+import consultorio.domain.service.agendamento.ocupacao.CapacidadeAgendaLedger;
+import consultorio.domain.service.agendamento.ocupacao.OcupacaoAgendaIndex;
+import consultorio.domain.service.agendamento.ocupacao.ReservaHorarioCoordinator;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import consultorio.infrastructure.persistence.historico.AgendamentoHistoricoRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Matriz incremental depois de remarcações: o dia de origem precisa voltar na
+ * resposta, embora nenhum agendamento aponte mais para ele.
+ *
+ * Os repositórios são substituídos por listas em memória que reproduzem as
+ * consultas usadas pela matriz.
+ */
+class DisponibilidadeServiceImplTest {
+
+    private static final LocalDate SEGUNDA = LocalDate.of(2030, 3, 4);
+    private static final LocalDate QUARTA = SEGUNDA.plusDays(2);
+
+    private final AgendamentoRepository agendamentoRepository = mock(AgendamentoRepository.class);
+    private final DentistaRepository dentistaRepository = mock(DentistaRepository.class);
+    private final PacienteRepository pacienteRepository = mock(PacienteRepository.class);
+    private final AgendaDiaAlteradoRepository diaAlteradoRepository = mock(AgendaDiaAlteradoRepository.class);
+    private final ReservaHorarioCoordinator reservaCoordinator = mock(ReservaHorarioCoordinator.class);
+    private final AgendamentoProperties properties = new AgendamentoProperties();
+    private final SpelAwareProxyProjectionFactory projecoes = new SpelAwareProxyProjectionFactory();
+
+    private final List<Agendamento> agendamentos = new ArrayList<>();
+    private final List<AgendaDiaAlterado> diasAlterados = new ArrayList<>();
+
+    private AgendamentoServiceImpl agendamentoService;
+    private DisponibilidadeServiceImpl disponibilidadeService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(reservaCoordinator.reservar(any(OcupacaoAgendaIndex.ChaveAgenda.class), any(Supplier.class)))
+                .thenAnswer(invocacao -> ((Supplier<?>) invocacao.getArgument(1)).get());
+        when(dentistaRepository.findById(anyLong())).thenAnswer(invocacao -> {
+            Dentista dentista = new Dentista();
+            dentista.setId(invocacao.getArgument(0));
+            return Optional.of(dentista);
+        });
+        when(pacienteRepository.findById(anyLong())).thenAnswer(invocacao -> {
+            Paciente paciente = new Paciente();
+            paciente.setId(invocacao.getArgument(0));
+            return Optional.of(paciente);
+        });
+        when(dentistaRepository.findAtivosNomeProjection()).thenReturn(List.of(
+                projecoes.createProjection(DentistaRepository.DentistaNomeProjection.class,
+                        Map.of("id", 1L, "nome", "Dra. Ana"))));
+
+        when(agendamentoRepository.findByIdAndAtivoTrue(anyLong())).thenAnswer(invocacao -> agendamentos.stream()
+                .filter(a -> a.getId().equals(invocacao.getArgument(0)) && a.getAtivo())
+                .findFirst());
+        when(agendamentoRepository.save(any(Agendamento.class))).thenAnswer(invocacao -> {
+            Agendamento agendamento = invocacao.getArgument(0);
+            agendamento.setAtualizadoEm(LocalDateTime.now());
+            return agendamento;
+        });
+        when(agendamentoRepository.findDiasAlteradosDesde(any(), any(), any())).thenAnswer(invocacao -> {
+            LocalDate inicio = invocacao.getArgument(0);
+            LocalDate fim = invocacao.getArgument(1);
+            LocalDateTime desde = invocacao.getArgument(2);
+            return agendamentos.stream()
+                    .filter(a -> !a.getDataConsulta().isBefore(inicio) && !a.getDataConsulta().isAfter(fim)
+                            && a.getAtualizadoEm().isAfter(desde))
+                    .map(a -> diaAlterado(a.getDentista().getId(), a.getDataConsulta()))
+                    .toList();
+        });
+        when(agendamentoRepository.findOcupacaoPorPeriodo(any(), any())).thenAnswer(invocacao -> agendamentos.stream()
+                .filter(Agendamento::isOcupaHorario)
+                .map(a -> projecoes.createProjection(AgendamentoRepository.OcupacaoProjection.class, Map.of(
+                        "dentistaId", a.getDentista().getId(), "dataConsulta", a.getDataConsulta(),
+                        "horaInicio", a.getHoraInicio(), "horaFim", a.getHoraFim())))
+                .toList());
+
+        when(diaAlteradoRepository.save(any(AgendaDiaAlterado.class))).thenAnswer(invocacao -> {
+            diasAlterados.add(invocacao.getArgument(0));
+            return invocacao.getArgument(0);
+        });
+        when(diaAlteradoRepository.findDiasDesde(any(), any(), any())).thenAnswer(invocacao -> {
+            LocalDate inicio = invocacao.getArgument(0);
+            LocalDate fim = invocacao.getArgument(1);
+            LocalDateTime desde = invocacao.getArgument(2);
+            return diasAlterados.stream()
+                    .filter(d -> !d.getData().isBefore(inicio) && !d.getData().isAfter(fim)
+                            && d.getAlteradoEm().isAfter(desde))
+                    .map(d -> diaAlterado(d.getDentistaId(), d.getData()))
+                    .toList();
+        });
+
+        CapacidadeAgendaLedger capacidadeLedger = mock(CapacidadeAgendaLedger.class);
+        when(capacidadeLedger.getCapacidadeMaxima()).thenReturn(20);
+        when(capacidadeLedger.vagasRestantesPorPeriodo(eq(null), any(), any())).thenReturn(Map.of());
+
+        agendamentoService = new AgendamentoServiceImpl(agendamentoRepository, dentistaRepository,
+                pacienteRepository, mock(AgendamentoHistoricoRecorder.class), new AgendamentoMapper(),
+                mock(OcupacaoAgendaIndex.class), reservaCoordinator, capacidadeLedger,
+                mock(ApplicationEventPublisher.class), mock(AgendamentoNotificador.class), diaAlteradoRepository);
+        disponibilidadeService = new DisponibilidadeServiceImpl(agendamentoRepository, dentistaRepository,
+                properties, capacidadeLedger, diaAlteradoRepository);
+    }
+
+    @Test
+    void remarcacaoDevolveODiaDeOrigemLiberadoEODiaDeDestino() {
+        agendamentos.add(agendamento(10L, SEGUNDA, LocalDateTime.now().minusHours(1)));
+        LocalDateTime ultimaConsulta = LocalDateTime.now().minusMinutes(10);
+
+        agendamentoService.atualizar(10L, request(QUARTA));
+
+        MatrizDisponibilidadeResponse matriz = disponibilidadeService.gerarMatriz(SEGUNDA, null, ultimaConsulta);
+
+        assertThat(matriz.getIncremental()).isTrue();
+        assertThat(matriz.getDentistas()).hasSize(1);
+        Map<LocalDate, String> ocupacao = matriz.getDentistas().get(0).getOcupacao();
+        assertThat(ocupacao).containsOnlyKeys(SEGUNDA, QUARTA);
+        assertThat(ocupacao.get(SEGUNDA)).doesNotContain("1");
+        assertThat(ocupacao.get(QUARTA)).contains("1");
+    }
+
+    @Test
+    void alteradoDesdeAlemDaRetencaoRecebeAMatrizCompleta() {
+        agendamentos.add(agendamento(10L, SEGUNDA, LocalDateTime.now().minusDays(3)));
+
+        MatrizDisponibilidadeResponse matriz = disponibilidadeService.gerarMatriz(SEGUNDA, null,
+                LocalDateTime.now().minusHours(properties.getDisponibilidade().getRetencaoAlteracoesHoras() + 1));
+
+        assertThat(matriz.getIncremental()).isFalse();
+        assertThat(matriz.getDentistas().get(0).getOcupacao()).hasSize(7);
+    }
+
+    private AgendamentoRepository.DiaAlteradoProjection diaAlterado(Long dentistaId, LocalDate data) {
+        return projecoes.createProjection(AgendamentoRepository.DiaAlteradoProjection.class,
+                Map.of("dentistaId", dentistaId, "dataConsulta", data));
+    }
+
+    private static Agendamento agendamento(Long id, LocalDate data, LocalDateTime atualizadoEm) {
+        Dentista dentista = new Dentista();
+        dentista.setId(1L);
+        Paciente paciente = new Paciente();
+        paciente.setId(2L);
+        Agendamento agendamento = new Agendamento();
+        agendamento.setId(id);
+        agendamento.setDentista(dentista);
+        agendamento.setPaciente(paciente);
+        agendamento.setDataConsulta(data);
+        agendamento.setHoraInicio(LocalTime.of(10, 0));
+        agendamento.setHoraFim(LocalTime.of(11, 0));
+        agendamento.setAtualizadoEm(atualizadoEm);
+        return agendamento;
+    }
+
+    private static AgendamentoRequest request(LocalDate data) {
+        AgendamentoRequest request = new AgendamentoRequest();
+        request.setDentistaId(1L);
+        request.setPacienteId(2L);
+        request.setDataConsulta(data);
+        request.setHoraInicio(LocalTime.of(10, 0));
+        request.setHoraFim(LocalTime.of(11, 0));
+        request.setCriadoPor("teste");
+        return request;
+    }
+}
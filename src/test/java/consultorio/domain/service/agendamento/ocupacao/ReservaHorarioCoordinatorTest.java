@@ -0,0 +1,322 @@
+package consultorio.domain.service.agendamento.ocupacao;
+
+import consultorio.api.dto.request.agendamento.AgendamentoRequest;
+import consultorio.api.mapper.agendamento.AgendamentoMapper;
+import consultorio.domain.entity.agendamento.Agendamento;
+import consultorio.domain.entity.pessoa.Dentista;
+import consultorio.domain.entity.pessoa.Paciente;
+import consultorio.domain.repository.agendamento.AgendaDiaAlteradoRepository;
+import consultorio.domain.repository.agendamento.AgendamentoRepository;
+import consultorio.domain.repository.pessoa.DentistaRepository;
+import consultorio.domain.repository.pessoa.PacienteRepository;
+import consultorio.domain.service.agendamento.impl.AgendamentoServiceImpl;
+import consultorio.domain.service.agendamento.notificacao.AgendamentoNotificador;
+import consultorio.infrastructure.config.properties.AgendamentoProperties;
+import consultorio.infrastructure.persistence.historico.AgendamentoHistoricoRecorder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Marcações concorrentes passando pelo {@link ReservaHorarioCoordinator} com
+ * transações reais em um banco H2 em memória. O bloqueio distribuído fica
+ * desligado (não há advisory lock no H2), então só a exclusão dentro do
+ * processo é exercitada.
+ *
+ * As operações verificam o horário, esperam um pouco e só então gravam, o que
+ * deixa a janela de corrida larga o bastante para aparecer sem o coordenador.
+ */
+class ReservaHorarioCoordinatorTest {
+
+    private static final int THREADS = 32;
+    private static final int DISPUTAS_POR_HORARIO = 25;
+    private static final LocalDate DATA = LocalDate.of(2030, 3, 4);
+    private static final List<LocalTime> HORARIOS = List.of(
+            LocalTime.of(8, 0), LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+    private JdbcTemplate jdbcTemplate;
+    private ReservaHorarioCoordinator coordinator;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE reserva (" +
+                "dentista_id BIGINT NOT NULL, " +
+                "data_consulta DATE NOT NULL, " +
+                "hora_inicio TIME NOT NULL)");
+
+        AgendamentoProperties properties = new AgendamentoProperties();
+        properties.getOcupacao().setBloqueioDistribuido(false);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        coordinator = new ReservaHorarioCoordinator(transactionTemplate, jdbcTemplate, properties);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void umVencedorPorHorarioSobAltaConcorrencia() throws Exception {
+        List<Callable<Boolean>> tentativas = new ArrayList<>();
+        for (long dentistaId = 1; dentistaId <= 3; dentistaId++) {
+            for (LocalTime hora : HORARIOS) {
+                for (int i = 0; i < DISPUTAS_POR_HORARIO; i++) {
+                    long dentista = dentistaId;
+                    tentativas.add(() -> coordinator.reservar(
+                            new OcupacaoAgendaIndex.ChaveAgenda(dentista, DATA),
+                            () -> reservarSeLivre(dentista, DATA, hora)));
+                }
+            }
+        }
+
+        long vencedores = disparar(tentativas).stream().filter(Boolean::booleanValue).count();
+
+        assertThat(vencedores).isEqualTo(3L * HORARIOS.size());
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM reserva GROUP BY dentista_id, data_consulta, hora_inicio", Long.class))
+                .hasSize(3 * HORARIOS.size())
+                .containsOnly(1L);
+    }
+
+    @Test
+    void chavesNaoRelacionadasExecutamEmParalelo() throws Exception {
+        List<OcupacaoAgendaIndex.ChaveAgenda> chaves = chavesEmFaixasDistintas(THREADS);
+        CountDownLatch todasDentro = new CountDownLatch(chaves.size());
+
+        // Cada operação só termina quando todas estiverem dentro do coordenador ao mesmo tempo
+        List<Callable<Boolean>> tentativas = chaves.stream()
+                .map(chave -> (Callable<Boolean>) () -> coordinator.reservar(chave, () -> {
+                    todasDentro.countDown();
+                    try {
+                        return todasDentro.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }))
+                .toList();
+
+        assertThat(disparar(tentativas)).hasSize(THREADS).containsOnly(true);
+    }
+
+    @Test
+    void mesmaChaveNuncaExecutaSimultaneamente() throws Exception {
+        OcupacaoAgendaIndex.ChaveAgenda chave = new OcupacaoAgendaIndex.ChaveAgenda(7L, DATA);
+        AtomicInteger dentro = new AtomicInteger();
+        AtomicInteger pico = new AtomicInteger();
+
+        List<Callable<Boolean>> tentativas = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tentativas.add(() -> coordinator.reservar(chave, () -> {
+                pico.accumulateAndGet(dentro.incrementAndGet(), Math::max);
+                Thread.yield();
+                dentro.decrementAndGet();
+                return true;
+            }));
+        }
+
+        assertThat(disparar(tentativas)).containsOnly(true);
+        assertThat(pico.get()).isEqualTo(1);
+    }
+
+    @Test
+    void seriesComChavesCruzadasNaoEntramEmDeadlock() throws Exception {
+        List<OcupacaoAgendaIndex.ChaveAgenda> chaves = chavesEmFaixasDistintas(4);
+
+        List<Callable<Boolean>> tentativas = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            List<OcupacaoAgendaIndex.ChaveAgenda> serie = new ArrayList<>(chaves);
+            if (i % 2 == 1) {
+                Collections.reverse(serie);
+            }
+            List<OcupacaoAgendaIndex.ChaveAgenda> ordemDaSerie = serie;
+            tentativas.add(() -> coordinator.reservar(ordemDaSerie, () -> true));
+        }
+
+        assertThat(disparar(tentativas)).hasSize(400).containsOnly(true);
+    }
+
+    @Test
+    void servicoSerializaMarcacoesPelaChaveDentistaEData() throws Exception {
+        Queue<Agendamento> gravados = new ConcurrentLinkedQueue<>();
+        AgendamentoServiceImpl service = criarServico(gravados);
+
+        List<Callable<Boolean>> tentativas = new ArrayList<>();
+        for (long dentistaId = 1; dentistaId <= 2; dentistaId++) {
+            for (LocalTime hora : HORARIOS) {
+                for (int i = 0; i < DISPUTAS_POR_HORARIO; i++) {
+                    AgendamentoRequest request = new AgendamentoRequest();
+                    request.setDentistaId(dentistaId);
+                    request.setPacienteId((long) i);
+                    request.setDataConsulta(DATA);
+                    request.setHoraInicio(hora);
+                    request.setHoraFim(hora.plusMinutes(30));
+                    request.setCriadoPor("teste");
+                    tentativas.add(() -> {
+                        try {
+                            service.criar(request);
+                            return true;
+                        } catch (IllegalStateException e) {
+                            return false;
+                        }
+                    });
+                }
+            }
+        }
+
+        long vencedores = disparar(tentativas).stream().filter(Boolean::booleanValue).count();
+
+        assertThat(vencedores).isEqualTo(2L * HORARIOS.size());
+        Map<String, Long> porHorario = gravados.stream()
+                .collect(Collectors.groupingBy(
+                        a -> a.getDentista().getId() + "|" + a.getDataConsulta() + "|" + a.getHoraInicio(),
+                        Collectors.counting()));
+        assertThat(porHorario).hasSize(2 * HORARIOS.size());
+        assertThat(porHorario.values()).containsOnly(1L);
+    }
+
+    private boolean reservarSeLivre(long dentistaId, LocalDate data, LocalTime hora) {
+        Integer ocupados = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reserva WHERE dentista_id = ? AND data_consulta = ? AND hora_inicio = ?",
+                Integer.class, dentistaId, data, hora);
+        pausar();
+        if (ocupados != null && ocupados > 0) {
+            return false;
+        }
+        jdbcTemplate.update("INSERT INTO reserva (dentista_id, data_consulta, hora_inicio) VALUES (?, ?, ?)",
+                dentistaId, data, hora);
+        return true;
+    }
+
+    private AgendamentoServiceImpl criarServico(Queue<Agendamento> gravados) {
+        AgendamentoRepository agendamentoRepository = mock(AgendamentoRepository.class);
+        DentistaRepository dentistaRepository = mock(DentistaRepository.class);
+        PacienteRepository pacienteRepository = mock(PacienteRepository.class);
+
+        when(dentistaRepository.findById(anyLong())).thenAnswer(invocacao -> {
+            Dentista dentista = new Dentista();
+            dentista.setId(invocacao.getArgument(0));
+            return Optional.of(dentista);
+        });
+        when(pacienteRepository.findById(anyLong())).thenAnswer(invocacao -> {
+            Paciente paciente = new Paciente();
+            paciente.setId(invocacao.getArgument(0));
+            return Optional.of(paciente);
+        });
+        when(agendamentoRepository.existsConflitante(anyLong(), any(), any(), any())).thenAnswer(invocacao -> {
+            Long dentistaId = invocacao.getArgument(0);
+            LocalDate data = invocacao.getArgument(1);
+            LocalTime inicio = invocacao.getArgument(2);
+            LocalTime fim = invocacao.getArgument(3);
+            boolean conflito = gravados.stream().anyMatch(a -> a.getDentista().getId().equals(dentistaId)
+                    && a.getDataConsulta().equals(data)
+                    && a.getHoraInicio().isBefore(fim) && a.getHoraFim().isAfter(inicio));
+            pausar();
+            return conflito;
+        });
+        AtomicLong sequencia = new AtomicLong();
+        when(agendamentoRepository.save(any(Agendamento.class))).thenAnswer(invocacao -> {
+            Agendamento agendamento = invocacao.getArgument(0);
+            agendamento.setId(sequencia.incrementAndGet());
+            gravados.add(agendamento);
+            return agendamento;
+        });
+
+        return new AgendamentoServiceImpl(
+                agendamentoRepository,
+                dentistaRepository,
+                pacienteRepository,
+                mock(AgendamentoHistoricoRecorder.class),
+                new AgendamentoMapper(),
+                mock(OcupacaoAgendaIndex.class),
+                coordinator,
+                mock(CapacidadeAgendaLedger.class),
+                mock(ApplicationEventPublisher.class),
+                mock(AgendamentoNotificador.class),
+                mock(AgendaDiaAlteradoRepository.class));
+    }
+
+    private List<Boolean> disparar(List<Callable<Boolean>> tentativas) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> futuros = new ArrayList<>(tentativas.size());
+        for (Callable<Boolean> tentativa : tentativas) {
+            futuros.add(executor.submit(() -> {
+                largada.await();
+                return tentativa.call();
+            }));
+        }
+        largada.countDown();
+
+        List<Boolean> resultados = new ArrayList<>(futuros.size());
+        for (Future<Boolean> futuro : futuros) {
+            try {
+                resultados.add(futuro.get(60, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                throw new AssertionError("Tentativa falhou", e.getCause());
+            }
+        }
+        return resultados;
+    }
+
+    private static List<OcupacaoAgendaIndex.ChaveAgenda> chavesEmFaixasDistintas(int quantidade) {
+        List<OcupacaoAgendaIndex.ChaveAgenda> chaves = new ArrayList<>(quantidade);
+        Set<Integer> faixas = new HashSet<>();
+        for (long dentistaId = 1; chaves.size() < quantidade; dentistaId++) {
+            OcupacaoAgendaIndex.ChaveAgenda chave = new OcupacaoAgendaIndex.ChaveAgenda(dentistaId, DATA);
+            if (faixas.add(ReservaHorarioCoordinator.faixa(chave))) {
+                chaves.add(chave);
+            }
+        }
+        return chaves;
+    }
+
+    private static void pausar() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package consultorio.domain.service.paciente.autocomplete;
+
+import consultorio.domain.entity.pessoa.Paciente;
+import consultorio.domain.repository.pessoa.PacienteRepository;
+import consultorio.infrastructure.config.properties.PacienteProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PacienteAutocompleteIndexTest {
+
+    private final PacienteRepository repository = mock(PacienteRepository.class);
+    private final PacienteProperties properties = new PacienteProperties();
+    private final List<Runnable> recargasPendentes = new ArrayList<>();
+
+    private PacienteAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAutocompleteAtivos()).thenReturn(List.of(
+                projecao(1L, "José da Silva", "P-0001", "123.456.789-01", "(81) 98765-4321"),
+                projecao(2L, "Maria José Santos", "P-0002", "98765432100", "+55 81 3333-1234"),
+                projecao(3L, "Ana Silveira", "P-0003", null, null),
+                projecao(4L, "Josefa Lima", "P-0004", null, "81999990000")));
+        index = new PacienteAutocompleteIndex(repository, properties, new SimpleMeterRegistry(),
+                recargasPendentes::add);
+    }
+
+    @Test
+    void buscaPorPrefixoDeQualquerTokenDoNomeSemAcento() {
+        assertThat(ids(index.buscar("silv", 10))).containsExactly(3L, 1L);
+        assertThat(ids(index.buscar("SANTOS", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void todosOsTermosPrecisamCorresponder() {
+        assertThat(ids(index.buscar("jose silv", 10))).containsExactly(1L);
+        assertThat(ids(index.buscar("ana lima", 10))).isEmpty();
+    }
+
+    @Test
+    void buscaPorCpfComOuSemPontuacao() {
+        assertThat(ids(index.buscar("123.456", 10))).containsExactly(1L);
+        assertThat(ids(index.buscar("98765432100", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void buscaPorTelefoneCompletoSemDddEFinal() {
+        assertThat(ids(index.buscar("81987654321", 10))).containsExactly(1L);
+        assertThat(ids(index.buscar("33331234", 10))).containsExactly(2L);
+        assertThat(ids(index.buscar("4321", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void buscaPorProntuario() {
+        assertThat(ids(index.buscar("p-0003", 10))).containsExactly(3L);
+        assertThat(ids(index.buscar("p-000", 10))).containsExactly(3L, 1L, 4L, 2L);
+    }
+
+    @Test
+    void ordenaPorInicioDoNomeDepoisPrimeiroNomeDepoisDemais() {
+        // "jose" abre o nome de José; "josefa" tem o primeiro nome começando com o
+        // termo; em Maria José o termo só aparece no meio
+        assertThat(ids(index.buscar("jose", 10))).containsExactly(1L, 4L, 2L);
+    }
+
+    @Test
+    void limitaAosMaisRelevantes() {
+        assertThat(ids(index.buscar("jose", 2))).containsExactly(1L, 4L);
+        assertThat(index.buscar("jose", 0)).isEmpty();
+        assertThat(index.buscar("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void alteracoesForaDeTransacaoEntramNoIndiceNaHora() {
+        index.buscar("jose", 10);
+
+        index.sincronizarAposCommit(paciente(5L, "Joselito Souza", true));
+        assertThat(ids(index.buscar("joseli", 10))).containsExactly(5L);
+
+        index.sincronizarAposCommit(paciente(1L, "José da Silva", false));
+        assertThat(ids(index.buscar("jose", 10))).containsExactly(4L, 5L, 2L);
+
+        index.removerAposCommit(5L);
+        assertThat(ids(index.buscar("joseli", 10))).isEmpty();
+        assertThat(ids(index.buscar("souza", 10))).isEmpty();
+    }
+
+    @Test
+    void indiceVencidoContinuaAtendendoEnquantoRecarregaNoExecutor() {
+        properties.getAutocomplete().setValidadeIndiceSegundos(0);
+        assertThat(ids(index.buscar("ana", 10))).containsExactly(3L);
+        assertThat(recargasPendentes).isEmpty();
+
+        // Alteração confirmada enquanto a recarga lê o banco não se perde na troca
+        when(repository.findAutocompleteAtivos()).thenAnswer(invocacao -> {
+            index.sincronizarAposCommit(paciente(7L, "Anita Rocha", true));
+            return List.of(projecao(3L, "Ana Silveira", "P-0003", null, null),
+                    projecao(6L, "Anabela Costa", "P-0006", null, null));
+        });
+
+        // Vencido: responde com o índice anterior e agenda uma única recarga
+        assertThat(ids(index.buscar("ana", 10))).containsExactly(3L);
+        assertThat(ids(index.buscar("ana", 10))).containsExactly(3L);
+        assertThat(recargasPendentes).hasSize(1);
+
+        recargasPendentes.remove(0).run();
+
+        assertThat(ids(index.buscar("ana", 10))).containsExactly(3L, 6L);
+        assertThat(ids(index.buscar("anita", 10))).containsExactly(7L);
+        verify(repository, times(2)).findAutocompleteAtivos();
+    }
+
+    private static List<Long> ids(List<PacienteAutocompleteIndex.Resumo> resumos) {
+        return resumos.stream().map(PacienteAutocompleteIndex.Resumo::id).toList();
+    }
+
+    private static PacienteRepository.PacienteAutocompleteProjection projecao(Long id, String nome,
+                                                                              String prontuario,
+                                                                              String cpf, String telefone) {
+        Map<String, Object> valores = new HashMap<>();
+        valores.put("id", id);
+        valores.put("nome", nome);
+        valores.put("prontuarioNumero", prontuario);
+        valores.put("cpf", cpf);
+        valores.put("telefone", telefone);
+        valores.put("status", true);
+        return new SpelAwareProxyProjectionFactory()
+                .createProjection(PacienteRepository.PacienteAutocompleteProjection.class, valores);
+    }
+
+    private static Paciente paciente(Long id, String nome, boolean ativo) {
+        Paciente paciente = new Paciente();
+        paciente.setId(id);
+        paciente.setNome(nome);
+        paciente.setAtivo(ativo);
+        return paciente;
+    }
+}
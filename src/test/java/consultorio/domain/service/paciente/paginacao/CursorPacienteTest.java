@@ -0,0 +1,49 @@
+package consultorio.domain.service.paciente.paginacao;
+
+import consultorio.api.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPacienteTest {
+
+    @Test
+    void idaEVoltaPorId() {
+        CursorPaciente cursor = CursorPaciente.apos(CursorPaciente.Ordenacao.ID, "Ignorado", 42L);
+
+        assertThat(cursor.nome()).isNull();
+        assertThat(CursorPaciente.decodificar(cursor.codificar())).isEqualTo(cursor);
+    }
+
+    @Test
+    void idaEVoltaPorNomeComSeparadorEAcentos() {
+        CursorPaciente cursor = CursorPaciente.apos(CursorPaciente.Ordenacao.NOME, "João | Conceição", 7L);
+
+        String codificado = cursor.codificar();
+
+        assertThat(codificado).matches("[A-Za-z0-9_-]+");
+        assertThat(CursorPaciente.decodificar(codificado)).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorMalformadoViraErroDeNegocio() {
+        assertThatThrownBy(() -> CursorPaciente.decodificar("não é base64!"))
+                .isInstanceOf(BusinessException.class).hasMessage("Cursor inválido");
+        assertThatThrownBy(() -> CursorPaciente.decodificar(codificar("2|ID|1")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> CursorPaciente.decodificar(codificar("1|IDADE|1")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> CursorPaciente.decodificar(codificar("1|ID|x")))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> CursorPaciente.decodificar(codificar("1|NOME|3")))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private static String codificar(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package consultorio.infrastructure.config.database;
+
+import consultorio.domain.repository.pessoa.PacienteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Índices da busca de pacientes criados pelo {@link DatabaseConfig} e usados
+ * pelas consultas declaradas no {@link PacienteRepository}.
+ *
+ * Precisa de pg_trgm e de planos do PostgreSQL, então só roda contra um
+ * PostgreSQL descartável (tudo é criado e apagado num schema próprio); sem ele
+ * o teste é ignorado:
+ * {@code mvn test -Dbenchmark.jdbc.url=jdbc:postgresql://host/banco
+ * -Dbenchmark.jdbc.usuario=... -Dbenchmark.jdbc.senha=...}
+ */
+class DatabaseConfigIndicesBuscaTest {
+
+    private static final String SCHEMA = "teste_indices_busca_paciente";
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        String url = System.getProperty("benchmark.jdbc.url");
+        assumeTrue(url != null && url.startsWith("jdbc:postgresql:"),
+                "informe -Dbenchmark.jdbc.url apontando para um PostgreSQL");
+
+        // Uma única conexão: o search_path vale para todos os comandos do teste
+        dataSource = new SingleConnectionDataSource(url, System.getProperty("benchmark.jdbc.usuario"),
+                System.getProperty("benchmark.jdbc.senha"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA + ", public");
+        jdbcTemplate.execute("CREATE TABLE pacientes (id_paciente BIGINT PRIMARY KEY, " +
+                "nome_paciente VARCHAR(100), nome_busca VARCHAR(100), ativo BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO pacientes (id_paciente, nome_paciente, ativo) " +
+                "SELECT i, 'Paciente ' || i, i % 20 <> 0 FROM generate_series(1, 2000) AS i");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dataSource != null) {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void buscasPorNomeUsamOsIndicesCriados() throws Exception {
+        prepararBuscaPacientes();
+
+        assertThat(valido("idx_paciente_nome_busca_trgm")).isTrue();
+        assertThat(valido("idx_paciente_nome_busca_prefixo")).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pacientes WHERE nome_busca IS NULL",
+                Integer.class)).isZero();
+
+        assertThat(plano(consulta("buscarPorNomeNormalizado", String.class, String.class, Pageable.class),
+                "%ente 12%", "ente 12")).contains("idx_paciente_nome_busca_trgm");
+        assertThat(plano(consulta("buscarPorPrefixoNomeNormalizado", String.class, Pageable.class),
+                "paciente 12%")).contains("idx_paciente_nome_busca_prefixo");
+    }
+
+    @Test
+    void indiceInvalidoDeCriacaoInterrompidaEhRecriado() throws Exception {
+        // CREATE INDEX CONCURRENTLY que falha deixa o índice INVALID com o nome reservado
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX CONCURRENTLY idx_paciente_nome_busca_prefixo " +
+                    "ON pacientes (ativo)");
+        } catch (Exception e) {
+            // Esperado: valores duplicados
+        }
+        assertThat(valido("idx_paciente_nome_busca_prefixo")).isFalse();
+
+        prepararBuscaPacientes();
+
+        assertThat(valido("idx_paciente_nome_busca_prefixo")).isTrue();
+        assertThat(plano(consulta("buscarPorPrefixoNomeNormalizado", String.class, Pageable.class),
+                "paciente 12%")).contains("idx_paciente_nome_busca_prefixo");
+    }
+
+    private void prepararBuscaPacientes() throws Exception {
+        new DatabaseConfig().prepararBuscaPacientes(jdbcTemplate).run(null);
+        jdbcTemplate.execute("ANALYZE pacientes");
+    }
+
+    private Boolean valido(String indice) {
+        return jdbcTemplate.queryForObject(
+                "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)", Boolean.class, indice);
+    }
+
+    /**
+     * Plano da consulta paginada; a varredura sequencial é desligada para que a
+     * tabela pequena do teste não esconda um índice que a consulta não consegue usar.
+     */
+    private String plano(String sql, Object... parametros) {
+        jdbcTemplate.execute("SET enable_seqscan = off");
+        try {
+            List<String> linhas = jdbcTemplate.queryForList("EXPLAIN " + sql + " LIMIT 20", String.class,
+                    parametros);
+            return String.join("\n", linhas);
+        } finally {
+            jdbcTemplate.execute("RESET enable_seqscan");
+        }
+    }
+
+    /**
+     * SQL nativo declarado no repositório, com os parâmetros nomeados trocados
+     * por posicionais na ordem em que aparecem.
+     */
+    private static String consulta(String metodo, Class<?>... tipos) throws NoSuchMethodException {
+        String sql = PacienteRepository.class.getMethod(metodo, tipos).getAnnotation(Query.class).value();
+        return sql.replaceAll(":[a-z]+", "?");
+    }
+}
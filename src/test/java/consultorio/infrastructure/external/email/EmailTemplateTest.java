@@ -0,0 +1,96 @@
+package consultorio.infrastructure.external.email;
+
+import consultorio.shared.benchmark.Medicao;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class EmailTemplateTest {
+
+    private static final String FONTE =
+            "Olá, {{paciente}}! Lembrete da sua consulta com Dr(a). {{dentista}} em {{data}} às {{hora}}.";
+
+    @Test
+    void renderizaVariaveis() {
+        EmailTemplate template = EmailTemplate.compilar("lembrete", FONTE);
+
+        assertThat(template.getVariaveis()).containsExactly("paciente", "dentista", "data", "hora");
+        assertThat(template.renderizar(Map.of("paciente", "Ana", "dentista", "Carlos",
+                "data", "10/03/2025", "hora", "14:30")))
+                .isEqualTo("Olá, Ana! Lembrete da sua consulta com Dr(a). Carlos em 10/03/2025 às 14:30.");
+    }
+
+    @Test
+    void vincularIncorporaVariaveisComuns() {
+        EmailTemplate doDia = EmailTemplate.compilar("lembrete", FONTE)
+                .vincular(Map.of("data", "10/03/2025", "dentista", "Carlos"));
+
+        assertThat(doDia.getVariaveis()).containsExactly("paciente", "hora");
+        assertThat(doDia.renderizar(Map.of("paciente", "Ana", "hora", "14:30")))
+                .isEqualTo("Olá, Ana! Lembrete da sua consulta com Dr(a). Carlos em 10/03/2025 às 14:30.");
+
+        EmailTemplate pronto = doDia.vincular(Map.of("paciente", "Ana", "hora", "14:30"));
+        assertThat(pronto.isEstatico()).isTrue();
+        assertThat(pronto.renderizar(Map.of())).isSameAs(pronto.renderizar(Map.of()));
+    }
+
+    @Test
+    void variavelAusenteEhRejeitada() {
+        EmailTemplate template = EmailTemplate.compilar("lembrete", FONTE);
+
+        assertThatThrownBy(() -> template.renderizar(Map.of("paciente", "Ana")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("dentista");
+    }
+
+    @Test
+    void marcadorMalFormadoEhRejeitadoNaCompilacao() {
+        assertThatThrownBy(() -> EmailTemplate.compilar("quebrado", "Olá, {{paciente"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EmailTemplate.compilar("vazio", "Olá, {{ }}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Mensagens renderizadas por segundo, comparadas ao String.format usado
+     * antes, medidas com {@link Medicao}.
+     * Fora da execução padrão; roda com {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkMensagensPorSegundo() throws Exception {
+        EmailTemplate doDia = EmailTemplate.compilar("lembrete", FONTE).vincular(Map.of("data", "10/03/2025"));
+        int mensagens = 200_000;
+
+        Medicao.Resultado porTemplate = Medicao.medir(mensagens, n -> renderizarComTemplate(doDia, n));
+        Medicao.Resultado porFormat = Medicao.medir(mensagens, EmailTemplateTest::renderizarComFormat);
+
+        log.info("EmailTemplate: {} mensagens/s; String.format: {} mensagens/s",
+                Math.round(porTemplate.porSegundo()), Math.round(porFormat.porSegundo()));
+        assertThat(porTemplate.conferencia()).isEqualTo(porFormat.conferencia());
+    }
+
+    private static long renderizarComTemplate(EmailTemplate template, int mensagens) {
+        long tamanho = 0;
+        for (int i = 0; i < mensagens; i++) {
+            tamanho += template.renderizar(Map.of("paciente", "Paciente " + i, "dentista", "Carlos",
+                    "hora", "14:30")).length();
+        }
+        return tamanho;
+    }
+
+    private static long renderizarComFormat(int mensagens) {
+        long tamanho = 0;
+        for (int i = 0; i < mensagens; i++) {
+            tamanho += String.format("Olá, %s! Lembrete da sua consulta com Dr(a). %s em %s às %s.",
+                    "Paciente " + i, "Carlos", "10/03/2025", "14:30").length();
+        }
+        return tamanho;
+    }
+}
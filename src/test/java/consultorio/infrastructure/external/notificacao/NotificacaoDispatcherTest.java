@@ -0,0 +1,264 @@
+package consultorio.infrastructure.external.notificacao;
+
+import com.sun.net.httpserver.HttpServer;
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import consultorio.infrastructure.external.email.EmailClient;
+import consultorio.infrastructure.external.sms.SmsClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.web.client.RestClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dispatcher de ponta a ponta contra um servidor SMTP falso e um gateway de
+ * SMS simulado, ambos locais.
+ */
+class NotificacaoDispatcherTest {
+
+    private SmtpFalso smtp;
+    private HttpServer gatewaySms;
+    private final AtomicInteger requisicoesSms = new AtomicInteger();
+    private final AtomicInteger falhasSmsRestantes = new AtomicInteger();
+
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificacaoProperties properties;
+    private NotificacaoDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new SmtpFalso();
+
+        gatewaySms = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gatewaySms.createContext("/sms", troca -> {
+            troca.getRequestBody().readAllBytes();
+            requisicoesSms.incrementAndGet();
+            int status = falhasSmsRestantes.getAndDecrement() > 0 ? 503 : 200;
+            troca.sendResponseHeaders(status, -1);
+            troca.close();
+        });
+        gatewaySms.start();
+
+        properties = new NotificacaoProperties();
+        properties.getEmail().setHabilitado(true);
+        properties.getEmail().setDespacho(new NotificacaoProperties.Despacho(1000, 1000, 2, 50));
+        properties.getSms().setHabilitado(true);
+        properties.getSms().setGatewayUrl("http://localhost:" + gatewaySms.getAddress().getPort() + "/sms");
+        properties.getSms().setToken("teste");
+        properties.getSms().setDespacho(new NotificacaoProperties.Despacho(1000, 1000, 4, 10));
+        properties.getRetentativa().setEsperaInicialMs(10);
+        properties.getRetentativa().setEsperaMaximaMs(50);
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getPorta());
+
+        executor = Executors.newFixedThreadPool(4);
+        meterRegistry = new SimpleMeterRegistry();
+        criarDispatcher(mailSender);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        gatewaySms.stop(0);
+        smtp.close();
+    }
+
+    @Test
+    void emailsDeUmLoteSaemNaMesmaSessaoSmtp() {
+        Map<Integer, String> falhas = dispatcher.despachar(NotificacaoOutbox.Canal.EMAIL, mensagens(5)).join();
+
+        assertThat(falhas).isEmpty();
+        assertThat(smtp.getSessoes()).isEqualTo(1);
+        assertThat(smtp.getMensagens()).isEqualTo(5);
+        assertThat(meterRegistry.counter("notificacao.dispatcher.enviadas", "canal", "email").count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void emailsAcimaDoLoteUsamMaisSessoes() {
+        properties.getEmail().setDespacho(new NotificacaoProperties.Despacho(1000, 1000, 2, 2));
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getPorta());
+        criarDispatcher(mailSender);
+
+        assertThat(dispatcher.despachar(NotificacaoOutbox.Canal.EMAIL, mensagens(5)).join()).isEmpty();
+
+        assertThat(smtp.getSessoes()).isEqualTo(3);
+        assertThat(smtp.getMensagens()).isEqualTo(5);
+    }
+
+    @Test
+    void smsComFalhaTemporariaEhReenviado() {
+        falhasSmsRestantes.set(2);
+
+        Map<Integer, String> falhas = dispatcher.despachar(NotificacaoOutbox.Canal.SMS, mensagens(3)).join();
+
+        assertThat(falhas).isEmpty();
+        assertThat(requisicoesSms.get()).isEqualTo(5);
+        assertThat(meterRegistry.counter("notificacao.dispatcher.retentativas", "canal", "sms").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void smsQueContinuaFalhandoVoltaComoFalha() {
+        falhasSmsRestantes.set(Integer.MAX_VALUE);
+
+        Map<Integer, String> falhas = dispatcher.despachar(NotificacaoOutbox.Canal.SMS, mensagens(2)).join();
+
+        assertThat(falhas).containsOnlyKeys(0, 1);
+        assertThat(requisicoesSms.get()).isEqualTo(2 * properties.getRetentativa().getTentativas());
+        assertThat(meterRegistry.counter("notificacao.dispatcher.falhas", "canal", "sms").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("notificacao.dispatcher.fila").tag("canal", "sms").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void limiteDeTaxaEspacaOsEnvios() {
+        properties.getSms().setDespacho(new NotificacaoProperties.Despacho(20, 1, 1, 1));
+        criarDispatcher(new JavaMailSenderImpl());
+
+        long inicio = System.nanoTime();
+        assertThat(dispatcher.despachar(NotificacaoOutbox.Canal.SMS, mensagens(5)).join()).isEmpty();
+        long decorridoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // 1 ficha inicial + 4 a 20/s: pelo menos ~200 ms
+        assertThat(decorridoMs).isGreaterThanOrEqualTo(180);
+        assertThat(requisicoesSms.get()).isEqualTo(5);
+    }
+
+    @Test
+    void canalDesabilitadoDevolveTodasComoNaoEnviadas() {
+        properties.getSms().setHabilitado(false);
+        properties.getEmail().setHabilitado(false);
+
+        Map<Integer, String> falhasSms = dispatcher.despachar(NotificacaoOutbox.Canal.SMS, mensagens(3)).join();
+        Map<Integer, String> falhasEmail = dispatcher.despachar(NotificacaoOutbox.Canal.EMAIL, mensagens(2)).join();
+
+        assertThat(falhasSms).containsOnlyKeys(0, 1, 2);
+        assertThat(falhasEmail).containsOnlyKeys(0, 1);
+        assertThat(dispatcher.isHabilitado(NotificacaoOutbox.Canal.SMS)).isFalse();
+        assertThat(requisicoesSms.get()).isZero();
+        assertThat(smtp.getSessoes()).isZero();
+    }
+
+    private void criarDispatcher(JavaMailSenderImpl mailSender) {
+        meterRegistry = new SimpleMeterRegistry();
+        EmailClient emailClient = new EmailClient(mailSender, properties);
+        SmsClient smsClient = new SmsClient(properties, RestClient.builder());
+        dispatcher = new NotificacaoDispatcher(List.of(emailClient, smsClient), properties, executor, meterRegistry);
+    }
+
+    private static List<CanalNotificacao.Mensagem> mensagens(int quantidade) {
+        return IntStream.range(0, quantidade)
+                .mapToObj(i -> new CanalNotificacao.Mensagem("paciente" + i + "@teste.com", "Assunto " + i,
+                        "Mensagem " + i))
+                .toList();
+    }
+
+    /**
+     * Servidor SMTP mínimo: aceita tudo e conta sessões e mensagens.
+     */
+    private static final class SmtpFalso implements AutoCloseable {
+
+        private final ServerSocket servidor;
+        private final AtomicInteger sessoes = new AtomicInteger();
+        private final AtomicInteger mensagens = new AtomicInteger();
+
+        SmtpFalso() throws IOException {
+            servidor = new ServerSocket(0);
+            Thread aceitar = new Thread(this::aceitar, "smtp-falso");
+            aceitar.setDaemon(true);
+            aceitar.start();
+        }
+
+        int getPorta() {
+            return servidor.getLocalPort();
+        }
+
+        int getSessoes() {
+            return sessoes.get();
+        }
+
+        int getMensagens() {
+            return mensagens.get();
+        }
+
+        private void aceitar() {
+            while (!servidor.isClosed()) {
+                try {
+                    Socket socket = servidor.accept();
+                    Thread conexao = new Thread(() -> atender(socket), "smtp-falso-sessao");
+                    conexao.setDaemon(true);
+                    conexao.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void atender(Socket socket) {
+            sessoes.incrementAndGet();
+            try (socket;
+                 BufferedReader entrada = new BufferedReader(
+                         new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter saida = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                responder(saida, "220 localhost SMTP falso");
+                String linha;
+                while ((linha = entrada.readLine()) != null) {
+                    String comando = linha.toUpperCase();
+                    if (comando.startsWith("EHLO") || comando.startsWith("HELO")) {
+                        responder(saida, "250 localhost");
+                    } else if (comando.startsWith("DATA")) {
+                        responder(saida, "354 fim com <CRLF>.<CRLF>");
+                        while ((linha = entrada.readLine()) != null && !linha.equals(".")) {
+                            // conteúdo da mensagem ignorado
+                        }
+                        mensagens.incrementAndGet();
+                        responder(saida, "250 OK");
+                    } else if (comando.startsWith("QUIT")) {
+                        responder(saida, "221 tchau");
+                        return;
+                    } else {
+                        responder(saida, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // conexão encerrada pelo cliente
+            }
+        }
+
+        private static void responder(PrintWriter saida, String resposta) {
+            saida.print(resposta + "\r\n");
+            saida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            servidor.close();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package consultorio.infrastructure.persistence.historico;
+
+import consultorio.domain.entity.agendamento.AgendamentoHistorico;
+import consultorio.domain.entity.agendamento.enums.StatusAgendamento;
+import consultorio.shared.benchmark.Medicao;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserção do histórico com a configuração de lotes da aplicação
+ * (hibernate.jdbc.batch_size e sequência pooled), sobre H2.
+ */
+@Slf4j
+class HistoricoInsercaoEmLoteTest {
+
+    private static final int ALOCACAO_SEQUENCIA = 50;
+
+    @Test
+    void insercoesSaemEmLotes() throws IOException {
+        int tamanhoLote = tamanhoLoteDaAplicacao();
+        int registros = 500;
+
+        try (SessionFactory fabrica = criarFabrica("lote", tamanhoLote)) {
+            inserir(fabrica, registros);
+            Statistics estatisticas = fabrica.getStatistics();
+
+            assertThat(estatisticas.getEntityInsertCount()).isEqualTo(registros);
+            // Um PreparedStatement por lote de INSERT mais um por bloco da sequência;
+            // sem lotes seria um por registro
+            long esperado = (long) Math.ceil((double) registros / tamanhoLote)
+                    + (long) Math.ceil((double) registros / ALOCACAO_SEQUENCIA) + 1;
+            assertThat(estatisticas.getPrepareStatementCount()).isLessThanOrEqualTo(esperado);
+        }
+    }
+
+    /**
+     * Inserções por segundo com e sem lotes, medidas com {@link Medicao}.
+     *
+     * Em H2 na memória não há ida e volta pela rede, que é o que os lotes
+     * economizam; para números representativos, aponte para um PostgreSQL
+     * descartável (a tabela é criada e apagada):
+     * {@code mvn test -Pbenchmark -Dbenchmark.jdbc.url=jdbc:postgresql://host/banco?reWriteBatchedInserts=true
+     * -Dbenchmark.jdbc.usuario=... -Dbenchmark.jdbc.senha=...}
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkInsercoesPorSegundo() throws Exception {
+        // O log DEBUG do Hibernate dominaria a medição
+        ((Logger) LoggerFactory.getLogger("org.hibernate")).setLevel(Level.INFO);
+        int registros = 20_000;
+
+        double porSegundoEmLote = medirInsercoesPorSegundo(tamanhoLoteDaAplicacao(), registros);
+        double porSegundoSemLote = medirInsercoesPorSegundo(1, registros);
+
+        log.info("Histórico: {} inserções/s em lote; {} inserções/s sem lote",
+                Math.round(porSegundoEmLote), Math.round(porSegundoSemLote));
+        assertThat(porSegundoEmLote).isPositive();
+        assertThat(porSegundoSemLote).isPositive();
+    }
+
+    private static double medirInsercoesPorSegundo(int tamanhoLote, int registros) throws Exception {
+        try (SessionFactory fabrica = criarFabrica("benchmark", tamanhoLote)) {
+            return Medicao.medir(registros, n -> inserir(fabrica, n)).porSegundo();
+        }
+    }
+
+    /**
+     * @return quantidade inserida
+     */
+    private static long inserir(SessionFactory fabrica, int registros) {
+        fabrica.inTransaction(sessao -> {
+            for (int i = 0; i < registros; i++) {
+                AgendamentoHistorico historico = new AgendamentoHistorico();
+                historico.setEventoId(UUID.randomUUID().toString());
+                historico.setAgendamentoId((long) i);
+                historico.setAcao(AgendamentoHistorico.TipoAcao.CONFIRMACAO);
+                historico.setStatusAnterior(StatusAgendamento.AGENDADO);
+                historico.setStatusNovo(StatusAgendamento.CONFIRMADO);
+                historico.setUsuarioResponsavel("teste");
+                historico.setDataHora(LocalDateTime.now());
+                sessao.persist(historico);
+            }
+        });
+        return registros;
+    }
+
+    private static SessionFactory criarFabrica(String banco, int tamanhoLote) {
+        StandardServiceRegistryBuilder registro = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, System.getProperty("benchmark.jdbc.url",
+                        "jdbc:h2:mem:" + banco + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("benchmark.jdbc.usuario", "sa"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("benchmark.jdbc.senha", ""))
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(tamanhoLote))
+                .applySetting(AvailableSettings.ORDER_INSERTS, "true")
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, "true");
+        return new MetadataSources(registro.build())
+                .addAnnotatedClass(AgendamentoHistorico.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    private static int tamanhoLoteDaAplicacao() throws IOException {
+        Properties propriedades = new Properties();
+        try (InputStream entrada = HistoricoInsercaoEmLoteTest.class.getResourceAsStream("/application.properties")) {
+            propriedades.load(entrada);
+        }
+        return Integer.parseInt(propriedades.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size").strip());
+    }
+}
@@ -0,0 +1,216 @@
+package consultorio.infrastructure.scheduling.lock;
+
+import consultorio.infrastructure.config.properties.SchedulingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dois nós ({@link TarefaLeaseManager}) disputando as mesmas tarefas em um
+ * banco H2 em memória. Os prazos vêm do relógio do banco; a passagem do tempo
+ * é simulada recuando os instantes gravados nos leases.
+ */
+class TarefaLeaseManagerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private TarefaLeaseManager noA;
+    private TarefaLeaseManager noB;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE tarefa_lease (" +
+                "nome VARCHAR(100) PRIMARY KEY, " +
+                "dono VARCHAR(150) NOT NULL, " +
+                "token BIGINT NOT NULL, " +
+                "expira_em TIMESTAMP NOT NULL, " +
+                "adquirido_em TIMESTAMP NOT NULL)");
+
+        SchedulingProperties properties = new SchedulingProperties();
+        properties.getLease().setDuracaoSegundos(60);
+        properties.getLease().setIntervaloRenovacaoSegundos(20);
+        properties.getLease().setRetencaoMinimaSegundos(60);
+
+        meterRegistry = new SimpleMeterRegistry();
+        noA = new TarefaLeaseManager(jdbcTemplate, properties, meterRegistry);
+        noB = new TarefaLeaseManager(jdbcTemplate, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        noA.encerrar();
+        noB.encerrar();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void tarefaEmExecucaoNaoRodaNoOutroNo() {
+        AtomicBoolean executouNoB = new AtomicBoolean();
+
+        boolean executouNoA = noA.executar("marcar-faltas",
+                () -> assertThat(noB.executar("marcar-faltas", () -> executouNoB.set(true))).isFalse());
+
+        assertThat(executouNoA).isTrue();
+        assertThat(executouNoB).isFalse();
+        assertThat(contador("marcar-faltas", "executada")).isEqualTo(1);
+        assertThat(contador("marcar-faltas", "ignorada")).isEqualTo(1);
+    }
+
+    @Test
+    void disparoAtrasadoDoMesmoCronNaoRepeteAExecucao() {
+        assertThat(noA.executar("enviar-lembretes", () -> { })).isTrue();
+
+        // Cron do nó B dispara alguns instantes depois da execução rápida do nó A
+        assertThat(noB.executar("enviar-lembretes", () -> { })).isFalse();
+        avancar(Duration.ofSeconds(30));
+        assertThat(noB.executar("enviar-lembretes", () -> { })).isFalse();
+
+        assertThat(tokenAtual("enviar-lembretes")).isEqualTo(1);
+        assertThat(contador("enviar-lembretes", "ignorada")).isEqualTo(2);
+    }
+
+    @Test
+    void leaseLiberadoAposRetencaoMinimaPermiteExecucaoNoOutroNo() {
+        assertThat(noA.executar("enviar-lembretes", () -> { })).isTrue();
+
+        avancar(Duration.ofSeconds(61));
+        assertThat(noB.executar("enviar-lembretes", () -> { })).isTrue();
+
+        assertThat(tokenAtual("enviar-lembretes")).isEqualTo(2);
+    }
+
+    @Test
+    void execucaoMaisLongaQueARetencaoLiberaAoTerminar() {
+        assertThat(noA.executar("processar-fila", () -> avancar(Duration.ofSeconds(90)))).isTrue();
+
+        assertThat(noB.executar("processar-fila", () -> { })).isTrue();
+    }
+
+    @Test
+    void tarefasDiferentesNaoSeBloqueiam() {
+        AtomicBoolean executouNoB = new AtomicBoolean();
+
+        noA.executar("marcar-faltas", () -> noB.executar("processar-fila", () -> executouNoB.set(true)));
+
+        assertThat(executouNoB).isTrue();
+    }
+
+    @Test
+    void leaseExpiradoEhAssumidoComTokenMaior() {
+        Optional<TarefaLeaseManager.Lease> leaseA = noA.adquirir("processar-fila");
+        assertThat(leaseA).isPresent();
+        assertThat(noB.adquirir("processar-fila")).isEmpty();
+
+        // Nó A parou de renovar (queda ou pausa longa)
+        avancar(Duration.ofSeconds(61));
+        Optional<TarefaLeaseManager.Lease> leaseB = noB.adquirir("processar-fila");
+
+        assertThat(leaseB).isPresent();
+        assertThat(leaseB.get().token()).isGreaterThan(leaseA.get().token());
+        assertThat(noA.renovar(leaseA.get())).isFalse();
+        assertThat(noB.renovar(leaseB.get())).isTrue();
+    }
+
+    @Test
+    void renovacaoImpedeQueOutroNoAssuma() {
+        TarefaLeaseManager.Lease leaseA = noA.adquirir("expirar-filas").orElseThrow();
+
+        avancar(Duration.ofSeconds(40));
+        assertThat(noA.renovar(leaseA)).isTrue();
+        avancar(Duration.ofSeconds(40));
+
+        assertThat(noB.adquirir("expirar-filas")).isEmpty();
+    }
+
+    @Test
+    void execucaoQuePerdeuLeaseEhInterrompida() {
+        assertThatThrownBy(() -> noA.executar("marcar-faltas", () -> {
+            avancar(Duration.ofSeconds(61));
+            assertThat(noB.adquirir("marcar-faltas")).isPresent();
+            transactionTemplate.executeWithoutResult(status -> noA.verificarPosse());
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(contador("marcar-faltas", "lease_perdido")).isEqualTo(1);
+        // A liberação pelo nó A não afeta o lease do nó B
+        assertThat(noA.adquirir("marcar-faltas")).isEmpty();
+    }
+
+    @Test
+    void escritaProtegidaEmAndamentoAdiaATrocaDeDono() {
+        noA.executar("marcar-faltas", () -> {
+            // Lease vencido, mas ainda sem outro dono: o token do nó A continua valendo
+            avancar(Duration.ofSeconds(61));
+
+            CompletableFuture<Optional<TarefaLeaseManager.Lease>> aquisicaoNoB = new CompletableFuture<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                noA.verificarPosse();
+                CompletableFuture.runAsync(() -> aquisicaoNoB.complete(noB.adquirir("marcar-faltas")));
+                esperar(Duration.ofMillis(300));
+                assertThat(aquisicaoNoB).isNotDone();
+            });
+
+            assertThat(aquisicaoNoB.orTimeout(5, TimeUnit.SECONDS).join()).isPresent();
+            assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> noA.verificarPosse()))
+                    .isInstanceOf(IllegalStateException.class);
+        });
+
+        assertThat(tokenAtual("marcar-faltas")).isEqualTo(2);
+    }
+
+    @Test
+    void verificarPosseExigeATransacaoDaEscrita() {
+        assertThatThrownBy(() -> noA.executar("marcar-faltas", noA::verificarPosse))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void verificarPosseForaDeExecucaoNaoFazNada() {
+        noA.verificarPosse();
+    }
+
+    private double contador(String tarefa, String resultado) {
+        return meterRegistry.counter("tarefa.agendada.execucoes", "tarefa", tarefa, "resultado", resultado).count();
+    }
+
+    private Long tokenAtual(String tarefa) {
+        return jdbcTemplate.queryForObject("SELECT token FROM tarefa_lease WHERE nome = ?", Long.class, tarefa);
+    }
+
+    /**
+     * Recua os instantes gravados nos leases, como se o relógio do banco
+     * tivesse avançado.
+     */
+    private void avancar(Duration duracao) {
+        jdbcTemplate.update("UPDATE tarefa_lease SET expira_em = expira_em - CAST(? AS INTEGER) * INTERVAL '1' SECOND, " +
+                "adquirido_em = adquirido_em - CAST(? AS INTEGER) * INTERVAL '1' SECOND", duracao.toSeconds(), duracao.toSeconds());
+    }
+
+    private static void esperar(Duration duracao) {
+        try {
+            Thread.sleep(duracao.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
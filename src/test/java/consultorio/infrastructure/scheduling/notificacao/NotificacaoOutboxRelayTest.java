@@ -0,0 +1,276 @@
+package consultorio.infrastructure.scheduling.notificacao;
+
+import consultorio.domain.entity.notificacao.NotificacaoOutbox;
+import consultorio.infrastructure.config.properties.NotificacaoProperties;
+import consultorio.infrastructure.external.notificacao.CanalNotificacao;
+import consultorio.infrastructure.external.notificacao.NotificacaoDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link NotificacaoOutboxRelay} sobre um outbox em H2 em memória, com um
+ * dispatcher de teste que registra as mensagens e falha para os destinatários
+ * marcados.
+ *
+ * O H2 não aceita {@code UPDATE ... RETURNING}; o JdbcTemplate do teste
+ * reescreve o comando como {@code SELECT ... FROM FINAL TABLE (UPDATE ...)},
+ * que tem o mesmo efeito.
+ */
+class NotificacaoOutboxRelayTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private RelogioAjustavel relogio;
+    private NotificacaoProperties properties;
+    private NotificacaoOutboxRelay relay;
+
+    private final List<String> enviadas = new ArrayList<>();
+    private final Set<String> destinatariosComFalha = new HashSet<>();
+    private RuntimeException quedaNoEnvio;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplateComReturning(dataSource);
+        jdbcTemplate.execute("CREATE TABLE notificacao_outbox (" +
+                "id BIGINT PRIMARY KEY, " +
+                "canal VARCHAR(10) NOT NULL, " +
+                "destinatario VARCHAR(150) NOT NULL, " +
+                "assunto VARCHAR(200), " +
+                "corpo TEXT NOT NULL, " +
+                "agendamento_id BIGINT, " +
+                "status VARCHAR(10) NOT NULL, " +
+                "tentativas INT NOT NULL, " +
+                "proxima_tentativa_em TIMESTAMP NOT NULL, " +
+                "ultimo_erro VARCHAR(500), " +
+                "criado_em TIMESTAMP NOT NULL, " +
+                "enviado_em TIMESTAMP)");
+
+        properties = new NotificacaoProperties();
+        NotificacaoProperties.Outbox outbox = properties.getOutbox();
+        outbox.setMaximoTentativas(4);
+        outbox.setBackoffInicialSegundos(10);
+        outbox.setBackoffMaximoSegundos(25);
+        outbox.setReservaSegundos(300);
+
+        relogio = new RelogioAjustavel(INICIO.atZone(ZoneId.of("UTC")).toInstant());
+        relay = new NotificacaoOutboxRelay(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                dispatcherDeTeste(), properties, new SimpleMeterRegistry(), relogio);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void linhaEnviadaNaoEhEnviadaDeNovo() {
+        inserir(1L, NotificacaoOutbox.Canal.EMAIL, "ana@exemplo.com");
+        inserir(2L, NotificacaoOutbox.Canal.SMS, "81999990000");
+
+        relay.drenar();
+        relay.drenar();
+
+        assertThat(enviadas).containsExactlyInAnyOrder("ana@exemplo.com", "81999990000");
+        assertThat(status(1L)).isEqualTo("ENVIADA");
+        assertThat(status(2L)).isEqualTo("ENVIADA");
+        assertThat(tentativas(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void falhasSaoReagendadasComEsperaExponencialLimitada() {
+        inserir(1L, NotificacaoOutbox.Canal.EMAIL, "falha@exemplo.com");
+        destinatariosComFalha.add("falha@exemplo.com");
+
+        // Esperas de 10 s, 20 s e 25 s (40 s limitados ao máximo)
+        for (int tentativa = 1; tentativa <= 3; tentativa++) {
+            relay.drenar();
+
+            long espera = 10L << (tentativa - 1);
+            assertThat(status(1L)).isEqualTo("PENDENTE");
+            assertThat(tentativas(1L)).isEqualTo(tentativa);
+            assertThat(proximaTentativa(1L)).isEqualTo(agora().plusSeconds(Math.min(espera, 25)));
+            assertThat(ultimoErro(1L)).isEqualTo("recusada pelo provedor");
+
+            // Antes do prazo a linha não é reservada de novo
+            relogio.avancar(Duration.ofSeconds(Math.min(espera, 25) - 1));
+            relay.drenar();
+            assertThat(tentativas(1L)).isEqualTo(tentativa);
+            relogio.avancar(Duration.ofSeconds(1));
+        }
+        assertThat(enviadas).hasSize(3);
+    }
+
+    @Test
+    void aposOMaximoDeTentativasFicaComoFalhou() {
+        inserir(1L, NotificacaoOutbox.Canal.SMS, "81988887777");
+        destinatariosComFalha.add("81988887777");
+
+        for (int tentativa = 1; tentativa <= 4; tentativa++) {
+            relay.drenar();
+            relogio.avancar(Duration.ofMinutes(1));
+        }
+        assertThat(status(1L)).isEqualTo("FALHOU");
+        assertThat(tentativas(1L)).isEqualTo(4);
+
+        relogio.avancar(Duration.ofDays(1));
+        relay.drenar();
+        assertThat(enviadas).hasSize(4);
+        assertThat(tentativas(1L)).isEqualTo(4);
+    }
+
+    @Test
+    void reservaExpiradaDeUmNoQueCaiuEhEnviadaDeNovo() {
+        inserir(1L, NotificacaoOutbox.Canal.EMAIL, "ana@exemplo.com");
+
+        // O nó cai depois de reservar e antes de registrar o resultado
+        quedaNoEnvio = new IllegalStateException("nó interrompido");
+        assertThatThrownBy(relay::drenar).isInstanceOf(IllegalStateException.class);
+        quedaNoEnvio = null;
+        assertThat(status(1L)).isEqualTo("PENDENTE");
+        assertThat(proximaTentativa(1L)).isEqualTo(agora().plusSeconds(300));
+
+        relogio.avancar(Duration.ofSeconds(299));
+        relay.drenar();
+        assertThat(enviadas).isEmpty();
+
+        relogio.avancar(Duration.ofSeconds(1));
+        relay.drenar();
+        assertThat(enviadas).containsExactly("ana@exemplo.com");
+        assertThat(status(1L)).isEqualTo("ENVIADA");
+        assertThat(tentativas(1L)).isEqualTo(2);
+    }
+
+    private NotificacaoDispatcher dispatcherDeTeste() {
+        NotificacaoDispatcher dispatcher = mock(NotificacaoDispatcher.class);
+        when(dispatcher.isHabilitado(any())).thenReturn(true);
+        when(dispatcher.despachar(any(), anyList())).thenAnswer(invocacao -> {
+            if (quedaNoEnvio != null) {
+                throw quedaNoEnvio;
+            }
+            List<CanalNotificacao.Mensagem> mensagens = invocacao.getArgument(1);
+            Map<Integer, String> falhas = new HashMap<>();
+            for (int i = 0; i < mensagens.size(); i++) {
+                String destinatario = mensagens.get(i).destinatario();
+                enviadas.add(destinatario);
+                if (destinatariosComFalha.contains(destinatario)) {
+                    falhas.put(i, "recusada pelo provedor");
+                }
+            }
+            return CompletableFuture.completedFuture(falhas);
+        });
+        return dispatcher;
+    }
+
+    private void inserir(Long id, NotificacaoOutbox.Canal canal, String destinatario) {
+        Timestamp agora = Timestamp.valueOf(agora());
+        jdbcTemplate.update("INSERT INTO notificacao_outbox (id, canal, destinatario, assunto, corpo, status, " +
+                        "tentativas, proxima_tentativa_em, criado_em) VALUES (?, ?, ?, ?, ?, 'PENDENTE', 0, ?, ?)",
+                id, canal.name(), destinatario, "Consulta", "Sua consulta está confirmada", agora, agora);
+    }
+
+    private LocalDateTime agora() {
+        return LocalDateTime.now(relogio);
+    }
+
+    private String status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM notificacao_outbox WHERE id = ?", String.class, id);
+    }
+
+    private int tentativas(Long id) {
+        return jdbcTemplate.queryForObject("SELECT tentativas FROM notificacao_outbox WHERE id = ?",
+                Integer.class, id);
+    }
+
+    private LocalDateTime proximaTentativa(Long id) {
+        return jdbcTemplate.queryForObject("SELECT proxima_tentativa_em FROM notificacao_outbox WHERE id = ?",
+                Timestamp.class, id).toLocalDateTime();
+    }
+
+    private String ultimoErro(Long id) {
+        return jdbcTemplate.queryForObject("SELECT ultimo_erro FROM notificacao_outbox WHERE id = ?",
+                String.class, id);
+    }
+
+    private static final class JdbcTemplateComReturning extends JdbcTemplate {
+
+        private static final Pattern UPDATE_RETURNING = Pattern.compile("^(UPDATE .*) RETURNING (.*)$",
+                Pattern.DOTALL);
+
+        JdbcTemplateComReturning(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            Matcher returning = UPDATE_RETURNING.matcher(sql);
+            String traduzido = returning.matches()
+                    ? "SELECT " + returning.group(2) + " FROM FINAL TABLE (" + returning.group(1) + ")"
+                    : sql;
+            return super.query(traduzido, rowMapper, args);
+        }
+    }
+
+    private static final class RelogioAjustavel extends Clock {
+
+        private Instant agora;
+
+        RelogioAjustavel(Instant inicio) {
+            this.agora = inicio;
+        }
+
+        void avancar(Duration duracao) {
+            agora = agora.plus(duracao);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}
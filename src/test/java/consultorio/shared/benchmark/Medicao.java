@@ -0,0 +1,56 @@
+package consultorio.shared.benchmark;
+
+/**
+ * Procedimento comum das medições dos testes marcados com
+ * {@code @Tag("benchmark")}: duas rodadas de aquecimento com um décimo das
+ * operações e uma rodada medida. Apenas informativo; os testes não falham por
+ * tempo.
+ *
+ * Cada rodada devolve um valor de conferência calculado a partir do trabalho
+ * feito. O valor da rodada medida volta no {@link Resultado}, para o teste
+ * comparar as alternativas; os do aquecimento são acumulados aqui, para que o
+ * JIT não descarte o trabalho.
+ */
+public final class Medicao {
+
+    private static final int AQUECIMENTOS = 2;
+    private static final int FRACAO_AQUECIMENTO = 10;
+
+    @SuppressWarnings("unused")
+    private static volatile long descarte;
+
+    private Medicao() {
+    }
+
+    @FunctionalInterface
+    public interface Rodada {
+
+        /**
+         * Executa a quantidade de operações pedida.
+         *
+         * @return valor de conferência do trabalho feito
+         */
+        long executar(int operacoes) throws Exception;
+    }
+
+    public record Resultado(int operacoes, long nanos, long conferencia) {
+
+        public double porSegundo() {
+            return operacoes / (nanos / 1e9);
+        }
+
+        public double mediaMs() {
+            return nanos / 1e6 / operacoes;
+        }
+    }
+
+    public static Resultado medir(int operacoes, Rodada rodada) throws Exception {
+        for (int i = 0; i < AQUECIMENTOS; i++) {
+            descarte += rodada.executar(Math.max(1, operacoes / FRACAO_AQUECIMENTO));
+        }
+
+        long inicio = System.nanoTime();
+        long conferencia = rodada.executar(operacoes);
+        return new Resultado(operacoes, System.nanoTime() - inicio, conferencia);
+    }
+}
@@ -0,0 +1,40 @@
+package consultorio.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringUtilTest {
+
+    @Test
+    void removeAcentosECedilha() {
+        assertThat(StringUtil.normalizarParaBusca("João Conceição")).isEqualTo("joao conceicao");
+        assertThat(StringUtil.normalizarParaBusca("Ângela Müller Ñúñez")).isEqualTo("angela muller nunez");
+    }
+
+    @Test
+    void converteParaMinusculasIndependenteDoLocale() {
+        // Em tr-TR, "I".toLowerCase() daria "ı" sem ponto
+        assertThat(StringUtil.normalizarParaBusca("IRIS SILVA")).isEqualTo("iris silva");
+    }
+
+    @Test
+    void reduzEspacosInternosERemoveOsDasPontas() {
+        assertThat(StringUtil.normalizarParaBusca("  José \t da\n  Silva  ")).isEqualTo("jose da silva");
+        assertThat(StringUtil.normalizarParaBusca("   ")).isEmpty();
+    }
+
+    @Test
+    void formaJaCompostaOuDecompostaDaOMesmoResultado() {
+        String decomposto = "José";
+
+        assertThat(StringUtil.normalizarParaBusca(decomposto))
+                .isEqualTo(StringUtil.normalizarParaBusca("José"))
+                .isEqualTo("jose");
+    }
+
+    @Test
+    void nuloDevolveNulo() {
+        assertThat(StringUtil.normalizarParaBusca(null)).isNull();
+    }
+}